@@ -0,0 +1,62 @@
+-- Benchmark: substring search on inventories.search_text
+--
+-- Compares the former search path   lower(search_text) LIKE '%term%'   (sequential scan)
+-- with the trigram path             search_text LIKE '%term%'          (GIN pg_trgm index)
+-- at 100k and 1M rows.
+--
+-- Runs in its own schema and does not touch application data:
+--   psql "$SPRING_DATASOURCE_URL" -U "$POSTGRES_USERNAME" -f benchmark/search-text-trigram.sql
+--
+-- Compare the "Execution Time" lines of the EXPLAIN ANALYZE output.
+
+\timing on
+\set ON_ERROR_STOP on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP SCHEMA IF EXISTS insy_benchmark CASCADE;
+CREATE SCHEMA insy_benchmark;
+SET search_path = insy_benchmark, public;
+
+CREATE TABLE inventories (
+    id          integer PRIMARY KEY,
+    search_text text
+);
+
+-- Generates search texts shaped like StringParser.fullTextSearchString:
+-- id, cost center, orderer, company, description, serial number, price, location, date
+CREATE FUNCTION fill(from_id integer, to_id integer) RETURNS void LANGUAGE sql AS $$
+    INSERT INTO inventories (id, search_text)
+    SELECT g,
+           lower(g || 'kst' || (g % 97) || 'user' || (g % 211) || 'firma' || (g % 53)
+                 || (ARRAY['laptop', 'monitor', 'drucker', 'dockingstation', 'beamer', 'tastatur'])[1 + g % 6]
+                 || md5(g::text) || (g % 5000) || '.99' || 'raum' || (g % 400) || '1.1.2024')
+    FROM generate_series(from_id, to_id) AS g;
+$$;
+
+CREATE INDEX idx_inventories_search_text_trgm ON inventories USING gin (search_text gin_trgm_ops);
+
+-- 100k rows ------------------------------------------------------------------
+SELECT fill(1, 100000);
+ANALYZE inventories;
+
+\echo '100k rows: LIKE on lower(search_text)'
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE lower(search_text) LIKE '%drucker%raum17%' ORDER BY id LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE lower(search_text) LIKE '%5d1a2b%';
+
+\echo '100k rows: LIKE on search_text (trigram index)'
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE search_text LIKE '%drucker%raum17%' ORDER BY id LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE search_text LIKE '%5d1a2b%';
+
+-- 1M rows --------------------------------------------------------------------
+SELECT fill(100001, 1000000);
+ANALYZE inventories;
+
+\echo '1M rows: LIKE on lower(search_text)'
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE lower(search_text) LIKE '%drucker%raum17%' ORDER BY id LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE lower(search_text) LIKE '%5d1a2b%';
+
+\echo '1M rows: LIKE on search_text (trigram index)'
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE search_text LIKE '%drucker%raum17%' ORDER BY id LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS) SELECT id FROM inventories WHERE search_text LIKE '%5d1a2b%';
+
+DROP SCHEMA insy_benchmark CASCADE;
@@ -3,6 +3,7 @@ package com.hs_esslingen.insy.configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -19,6 +20,8 @@ public class CorsConfigDev {
                         .allowedOrigins("http://localhost:4200") // frontend origin
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                         .allowedHeaders("*")
+                        // Readable by the frontend, which sends it back as If-Match
+                        .exposedHeaders(HttpHeaders.ETAG)
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,43 @@
+package com.hs_esslingen.insy.configuration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.hs_esslingen.insy.service.DataVersionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Conditional GET for the read endpoints (see WebConfig).
+ * Responses carry the data version as weak ETag. A request whose If-None-Match
+ * matches the current version is answered with 304 Not Modified before the
+ * controller runs, so only the version is read from the database.
+ *
+ * The version is read before the data, so a write in between only makes the
+ * ETag older than the response, which causes one unnecessary 200 later, never a
+ * wrong 304.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersionService;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        // Browsers revalidate with If-None-Match instead of using their copy unchecked
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Sets the ETag, and the status 304 if the client already has this version
+        return !new ServletWebRequest(request, response).checkNotModified(dataVersionService.etag());
+    }
+}
@@ -44,6 +44,11 @@ public class DatabaseSeeder implements CommandLineRunner {
         @Override
         @Transactional
         public void run(String... args) {
+                // The schema is kept between restarts (see db/migration), so seed only once
+                if (tagRepository.count() > 0) {
+                        return;
+                }
+
                 // Tags
                 Tag tag1 = new Tag("Laptop");
                 Tag tag2 = new Tag("Monitor");
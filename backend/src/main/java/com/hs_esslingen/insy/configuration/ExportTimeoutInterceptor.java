@@ -0,0 +1,40 @@
+package com.hs_esslingen.insy.configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Timeout of the streaming export GET /inventories/export (see WebConfig).
+ * Exports of large result sets take longer than the default timeout of
+ * asynchronous requests, which stays in place for all other endpoints.
+ */
+@Component
+public class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private static final String EXPORT_PATTERN = "/inventories/export";
+
+    private final long timeoutMillis;
+
+    public ExportTimeoutInterceptor(@Value("${insy.export.timeout:PT30M}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    // Runs before the asynchronous processing is started, which applies the timeout
+    @Override
+    public <T> void beforeConcurrentHandling(@NonNull NativeWebRequest request, @NonNull Callable<T> task) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (request instanceof AsyncWebRequest asyncRequest && EXPORT_PATTERN.equals(pattern)) {
+            asyncRequest.setTimeout(timeoutMillis);
+        }
+    }
+}
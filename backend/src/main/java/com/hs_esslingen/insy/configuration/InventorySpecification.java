@@ -2,7 +2,10 @@ package com.hs_esslingen.insy.configuration;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,28 +13,78 @@ import org.springframework.data.jpa.domain.Specification;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.model.Inventory;
 import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.utils.InventoryCursor;
+import com.hs_esslingen.insy.utils.OrderByUtils;
+import com.hs_esslingen.insy.utils.StringParser;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
 // Class for implementing filter function for inventory items
 // Filter are passed as a Query-Parameter in the URL
 // and processed in the InventoriesController class
 public class InventorySpecification {
 
+    private static final char LIKE_ESCAPE = '\\';
+
+    // Maximum number of IDs that are passed to the database as an IN list.
+    // Larger ID sets are filtered by the database itself.
+    public static final int MAX_ID_FILTER_SIZE = 10_000;
+
     private InventorySpecification() {
         // Private Constructor to prevent instantiation
     }
 
-    // Filter inventory items by their Tag-ID
+    // Filter inventory items by their Tag-ID: items with any of the tags
+    // EXISTS instead of a join, so that an item with several matching tags is returned once
     public static Specification<Inventory> hasTagId(List<Integer> tagIds) {
         return (root, query, cb) -> {
             if (tagIds == null || tagIds.isEmpty()) {
                 return cb.conjunction();
             }
-            // Join directly to the ManyToMany set "tags"
-            Join<Inventory, Tag> tagJoin = root.join("tags", JoinType.LEFT);
-            return tagJoin.get("id").in(tagIds);
+            return cb.exists(tagSubquery(root, query, tagIds));
+        };
+    }
+
+    // Filter inventory items that have all of the tags
+    public static Specification<Inventory> hasAllTagIds(List<Integer> tagIds) {
+        return (root, query, cb) -> {
+            if (tagIds == null || tagIds.isEmpty()) {
+                return cb.conjunction();
+            }
+            // The item must have as many of the tags as there are distinct tags in the filter
+            Set<Integer> distinctTagIds = new HashSet<>(tagIds);
+            Subquery<Long> count = query.subquery(Long.class);
+            Root<Inventory> counted = count.correlate(root);
+            Join<Inventory, Tag> countJoin = counted.join("tags");
+            count.select(cb.countDistinct(countJoin.get("id"))).where(countJoin.get("id").in(distinctTagIds));
+            return cb.equal(count, (long) distinctTagIds.size());
+        };
+    }
+
+    // Filter inventory items that have none of the tags
+    public static Specification<Inventory> hasNoneOfTagIds(List<Integer> tagIds) {
+        return (root, query, cb) -> {
+            if (tagIds == null || tagIds.isEmpty()) {
+                return cb.conjunction();
+            }
+            return cb.not(cb.exists(tagSubquery(root, query, tagIds)));
+        };
+    }
+
+    // Filter inventory items by a set of IDs that was resolved beforehand (e.g. by an in-memory index)
+    public static Specification<Inventory> idIn(BitSet ids) {
+        return (root, query, cb) -> {
+            if (ids.isEmpty()) {
+                return cb.disjunction();
+            }
+            return root.get("id").in(ids.stream().boxed().toList());
         };
     }
 
@@ -184,25 +237,11 @@ public class InventorySpecification {
             }
 
             // Table name
-            String joinProperty = orderBy; // z. B. "user"
+            String joinProperty = orderBy; // z. B. "user"
 
             // Property to sort by
-            // Set the sort field based on the joinProperty
             // This is the field in the joined table that we want to sort by
-            String sortField;
-            switch (joinProperty) {
-                case "user":
-                    sortField = "name"; // Sort by user's name
-                    break;
-                case "company":
-                    sortField = "name"; // Sort by company's name
-                    break;
-                case "costCenter":
-                    sortField = "description"; // Sort by cost center's description
-                    break;
-                default:
-                    throw new BadRequestException("Invalid orderBy field: " + orderBy);
-            }
+            String sortField = nestedSortField(joinProperty);
 
             // Join on the table of the nested field and sort by the specified field
             Join<Object, Object> join = root.join(joinProperty, JoinType.LEFT);
@@ -214,6 +253,68 @@ public class InventorySpecification {
         };
     }
 
+    // Keyset pagination: orders by the sort field and the ID and only returns rows after the cursor
+    // Unlike an offset the database can seek directly to the cursor, so every page costs the same.
+    // NULL sort keys follow the PostgreSQL default: last for ASC, first for DESC. The rows with and
+    // without a key are two sections of the list, the cursor only continues within its own section,
+    // so the comparison stays a single seek of the (sort key, id) indexes of V11. The next section is
+    // read with keysetNextSection.
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Inventory> keysetAfter(String orderBy, Sort.Direction direction,
+            InventoryCursor cursor) {
+        return (root, query, cb) -> {
+            boolean ascending = direction == Sort.Direction.ASC;
+            Expression<Integer> id = root.get("id");
+
+            if ("id".equals(orderBy)) {
+                query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+                if (cursor == null) {
+                    return cb.conjunction();
+                }
+                return ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            }
+
+            Expression key = keysetOrder(orderBy, ascending, root, query, cb);
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+
+            Comparable lastKey = cursor.typedKey();
+            if (lastKey == null) {
+                Predicate afterId = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+                return cb.and(cb.isNull(key), afterId);
+            }
+            return cb.isTrue(cb.function(ascending ? PostgresRowValueFunctions.ROW_AFTER
+                    : PostgresRowValueFunctions.ROW_BEFORE, Boolean.class, key, id, cb.literal(lastKey),
+                    cb.literal(cursor.id())));
+        };
+    }
+
+    // The section of the keyset pagination following the one of a cursor, see keysetAfter:
+    // the rows without a sort key for ASC, the rows with a key for DESC
+    public static Specification<Inventory> keysetNextSection(String orderBy, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            boolean ascending = direction == Sort.Direction.ASC;
+            Expression<?> key = keysetOrder(orderBy, ascending, root, query, cb);
+            return ascending ? cb.isNull(key) : cb.isNotNull(key);
+        };
+    }
+
+    // Orders by the sort field and the ID and returns the sort field
+    private static Expression<?> keysetOrder(String orderBy, boolean ascending, Root<Inventory> root,
+            CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Expression<?> key;
+        if (OrderByUtils.FOREIGN_SET.contains(orderBy)) {
+            Join<Object, Object> join = root.join(orderBy, JoinType.LEFT);
+            key = join.get(nestedSortField(orderBy));
+        } else {
+            key = root.get(orderBy);
+        }
+        Expression<Integer> id = root.get("id");
+        query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        return key;
+    }
+
     // Filter by creation date
     public static Specification<Inventory> createdBetween(LocalDateTime createdAfter, LocalDateTime createdBefore) {
         return (root, query, cb) -> {
@@ -230,13 +331,69 @@ public class InventorySpecification {
     }
 
     // Filter by search text that can appear in multiple fields
+    // search_text is stored normalized (see StringParser.normalizeSearchText), so the
+    // term is normalized the same way and compared without lower() on the column.
+    // This keeps the predicate usable by the pg_trgm GIN index on search_text.
     public static Specification<Inventory> hasSearchText(String searchText) {
         return (root, query, cb) -> {
-            if (searchText != null && !searchText.isBlank()) {
-                return cb.like(cb.lower(root.get("searchText")), "%" + searchText.toLowerCase() + "%");
+            String term = StringParser.normalizeSearchText(searchText);
+            if (term.isEmpty()) {
+                return cb.conjunction();
             }
-            return cb.conjunction();
+            return cb.like(root.get("searchText"), "%" + escapeLike(term) + "%", LIKE_ESCAPE);
         };
     }
 
+    // Ranked full-text search on search_document with the german dictionary (stemming, stop words)
+    // fts_match and fts_rank are registered in PostgresFullTextFunctions and use the stored tsvector
+    // search_vector with its GIN index.
+    // Results are ordered by relevance, then by ID to keep the paging stable.
+    public static Specification<Inventory> matchesFullText(String searchText) {
+        return (root, query, cb) -> {
+            if (searchText == null || searchText.isBlank()) {
+                return cb.conjunction();
+            }
+            Expression<String> vector = root.get("searchVector");
+            Expression<String> terms = cb.literal(searchText);
+
+            // The count query of a page must not be ordered
+            if (!Long.class.equals(query.getResultType())) {
+                query.orderBy(
+                        cb.desc(cb.function(PostgresFullTextFunctions.FTS_RANK, Float.class, vector, terms)),
+                        cb.asc(root.get("id")));
+            }
+            return cb.isTrue(cb.function(PostgresFullTextFunctions.FTS_MATCH, Boolean.class, vector, terms));
+        };
+    }
+
+    // Subquery selecting the given tags of the inventory item of the outer query
+    private static Subquery<Integer> tagSubquery(Root<Inventory> root, CriteriaQuery<?> query, List<Integer> tagIds) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<Inventory> tagged = subquery.correlate(root);
+        Join<Inventory, Tag> tagJoin = tagged.join("tags");
+        return subquery.select(tagJoin.get("id")).where(tagJoin.get("id").in(tagIds));
+    }
+
+    // Field of the joined table that is used for sorting by a nested field
+    private static String nestedSortField(String joinProperty) {
+        switch (joinProperty) {
+            case "user":
+                return "name"; // Sort by user's name
+            case "company":
+                return "name"; // Sort by company's name
+            case "costCenter":
+                return "description"; // Sort by cost center's description
+            default:
+                throw new BadRequestException("Invalid orderBy field: " + joinProperty);
+        }
+    }
+
+    // Escapes the LIKE wildcards so that "%" and "_" in a search term are matched literally
+    // The escape character is a backslash, the dictionary queries of the repositories use it as well
+    public static String escapeLike(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
 }
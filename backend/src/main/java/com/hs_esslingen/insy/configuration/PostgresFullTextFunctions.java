@@ -0,0 +1,32 @@
+package com.hs_esslingen.insy.configuration;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full-text search functions used by
+ * InventorySpecification.matchesFullText, so they can be used in Criteria queries.
+ * Both take the stored tsvector column inventories.search_vector, which has a
+ * GIN index for the match and is ranked without parsing the document again.
+ *
+ * Registered via META-INF/services/org.hibernate.boot.model.FunctionContributor
+ */
+public class PostgresFullTextFunctions implements FunctionContributor {
+
+    public static final String FTS_MATCH = "fts_match";
+    public static final String FTS_RANK = "fts_rank";
+
+    private static final String QUERY = "websearch_to_tsquery('german', ?2)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                FTS_MATCH, "(?1 @@ " + QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                FTS_RANK, "ts_rank(?1, " + QUERY + ")", types.resolve(StandardBasicTypes.FLOAT));
+    }
+}
@@ -0,0 +1,42 @@
+package com.hs_esslingen.insy.configuration;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers GROUPING SETS of PostgreSQL for the five dimensions of the facets
+ * (see InventoryRepositoryCustomImpl.findFacets), which HQL and Criteria queries
+ * do not support. FACET_GROUPING_SETS is used as the only GROUP BY expression
+ * and groups by each dimension alone and once by nothing for the totals.
+ * FACET_GROUPING tells the grouping set of a row, see GROUPING in the
+ * PostgreSQL documentation.
+ *
+ * Registered via META-INF/services/org.hibernate.boot.model.FunctionContributor
+ */
+public class PostgresGroupingFunctions implements FunctionContributor {
+
+    public static final String FACET_GROUPING_SETS = "facet_grouping_sets";
+    public static final String FACET_GROUPING = "facet_grouping";
+
+    // Values of FACET_GROUPING: the bit of a dimension is 0 if the row is grouped by it,
+    // the first dimension is the highest bit
+    public static final int GROUPED_BY_FIRST = 0b01111;
+    public static final int GROUPED_BY_SECOND = 0b10111;
+    public static final int GROUPED_BY_THIRD = 0b11011;
+    public static final int GROUPED_BY_FOURTH = 0b11101;
+    public static final int GROUPED_BY_FIFTH = 0b11110;
+    public static final int GROUPED_BY_NOTHING = 0b11111;
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                FACET_GROUPING_SETS, "grouping sets ((?1), (?2), (?3), (?4), (?5), ())",
+                types.resolve(StandardBasicTypes.INTEGER));
+        functionContributions.getFunctionRegistry().registerPattern(
+                FACET_GROUPING, "grouping(?1, ?2, ?3, ?4, ?5)", types.resolve(StandardBasicTypes.INTEGER));
+    }
+}
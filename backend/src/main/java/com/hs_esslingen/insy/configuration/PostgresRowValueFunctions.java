@@ -0,0 +1,31 @@
+package com.hs_esslingen.insy.configuration;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers row value comparisons of two columns, used by
+ * InventorySpecification.keysetAfter. Unlike the equivalent combination of OR
+ * and AND, PostgreSQL uses a comparison of (sort key, id) as start of a scan of
+ * an index on both columns, so a page seeks directly to the cursor.
+ * Rows with a NULL in one of the columns never match.
+ *
+ * Registered via META-INF/services/org.hibernate.boot.model.FunctionContributor
+ */
+public class PostgresRowValueFunctions implements FunctionContributor {
+
+    public static final String ROW_AFTER = "row_after";
+    public static final String ROW_BEFORE = "row_before";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                ROW_AFTER, "((?1, ?2) > (?3, ?4))", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                ROW_BEFORE, "((?1, ?2) < (?3, ?4))", types.resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
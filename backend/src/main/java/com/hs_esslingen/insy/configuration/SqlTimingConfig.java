@@ -0,0 +1,93 @@
+package com.hs_esslingen.insy.configuration;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+
+import com.hs_esslingen.insy.service.SqlTimingService;
+import com.hs_esslingen.insy.utils.QueryOrigin;
+import com.hs_esslingen.insy.utils.SqlTimingListener;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Measures every SQL statement (see SqlTimingService, GET /admin/sql-timings).
+ * The DataSource is wrapped in a datasource-proxy ProxyDataSource that reports to
+ * a SqlTimingListener, and every repository call sets
+ * the repository method as origin of the statements it executes.
+ *
+ * Disabled with insy.sql-timing.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "insy.sql-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTimingConfig {
+
+    @Bean
+    public static BeanPostProcessor proxyDataSourcePostProcessor(ObjectProvider<SqlTimingService> sqlTimingService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    // The result sets are proxied, so the listener can count the rows of a query
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .proxyResultSet()
+                            .listener(new SqlTimingListener(sqlTimingService.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor queryOriginPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                // The customizer has to be added before the factory bean creates the repository
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new QueryOriginInterceptor(repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Sets the called repository method as origin of the SQL statements it executes
+    private static class QueryOriginInterceptor implements MethodInterceptor {
+
+        private final Class<?> repositoryInterface;
+        private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+        QueryOriginInterceptor(Class<?> repositoryInterface) {
+            this.repositoryInterface = repositoryInterface;
+        }
+
+        @Override
+        public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+            String origin = names.computeIfAbsent(invocation.getMethod(),
+                    method -> repositoryInterface.getSimpleName() + "." + method.getName());
+            String previous = QueryOrigin.set(origin);
+            try {
+                return invocation.proceed();
+            } finally {
+                QueryOrigin.set(previous);
+            }
+        }
+    }
+}
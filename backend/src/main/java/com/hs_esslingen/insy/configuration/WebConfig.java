@@ -1,20 +1,53 @@
 package com.hs_esslingen.insy.configuration;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import lombok.RequiredArgsConstructor;
+
 // Class for configuring CORS (Cross-Origin Resource Sharing)
 // Sets the allowed origins, methods and headers for CORS requests
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionEtagInterceptor dataVersionEtagInterceptor;
+    private final ExportTimeoutInterceptor exportTimeoutInterceptor;
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:4200") // Frontend-Origin
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                .exposedHeaders(HttpHeaders.ETAG);
         // .allowCredentials(true);
     }
+
+    // ETag and 304 Not Modified for the read endpoints whose responses only depend on the data
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(dataVersionEtagInterceptor)
+                .addPathPatterns("/inventories/**", "/tags/**", "/locations/**", "/serialNumbers/**",
+                        "/companies/**", "/costCenters/**", "/orderers/**", "/dictionaries/**", "/statistics/**",
+                        "/orders/**")
+                // Streamed, the response is not worth keeping in the client
+                .excludePathPatterns("/inventories/export")
+                // Single items carry their own version as ETag for If-Match
+                .excludePathPatterns("/inventories/{id:\\d+}",
+                        "/inventories/{id:\\d+}/components/{componentId:\\d+}")
+                // Moving the history out of the outbox does not change the data version
+                .excludePathPatterns("/inventories/{id:\\d+}/history");
+    }
+
+    // Longer timeout for the streaming export only
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(exportTimeoutInterceptor);
+    }
 }
@@ -0,0 +1,34 @@
+package com.hs_esslingen.insy.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hs_esslingen.insy.dto.DictionaryPageDTO;
+import com.hs_esslingen.insy.service.DictionaryService;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/dictionaries")
+public class DictionaryController {
+
+    private final DictionaryService dictionaryService;
+
+    // Get a page of the distinct locations, serialNumbers, companies, users or costCenters
+    // The "next" value of the response is passed as "after" to get the next page
+    @GetMapping("/{dictionary}")
+    public ResponseEntity<DictionaryPageDTO> getValues(
+            @PathVariable("dictionary") String dictionary,
+            @RequestParam(name = "prefix", required = false) String prefix,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false, defaultValue = "50") int limit) {
+        DictionaryPageDTO values = dictionaryService.getValues(dictionary, prefix, after, limit);
+        return new ResponseEntity<>(values, HttpStatus.OK);
+    }
+}
@@ -2,6 +2,8 @@ package com.hs_esslingen.insy.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,12 +12,14 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.hs_esslingen.insy.dto.ExtensionCreateDTO;
 import com.hs_esslingen.insy.dto.ExtensionResponseDTO;
 import com.hs_esslingen.insy.service.ExtensionService;
+import com.hs_esslingen.insy.utils.ETagUtils;
 
 @RestController
 @RequestMapping("/inventories/{id}/components")
@@ -48,21 +52,33 @@ public class ExtensionController {
             @PathVariable(name = "componentId") Integer componentId) {
 
         ExtensionResponseDTO extension = extensionsService.getExtensionById(id, componentId);
-        return ResponseEntity.ok(extension);
+        // The ETag is the version of the extension, for If-Match of PATCH and DELETE
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETagUtils.of(extension.getVersion()))
+                .body(extension);
     }
 
+    // With If-Match, 412 if the extension has been changed in the meantime
     @PatchMapping("/{componentId}")
     public ResponseEntity<ExtensionResponseDTO> updateExtension(@PathVariable(name = "id") Integer id,
-            @PathVariable(name = "componentId") Integer componentId, @RequestBody ExtensionCreateDTO extensionData) {
+            @PathVariable(name = "componentId") Integer componentId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody ExtensionCreateDTO extensionData) {
 
-        ExtensionResponseDTO updatedExtension = extensionsService.updateExtension(id, componentId, extensionData);
-        return ResponseEntity.ok(updatedExtension);
+        ExtensionResponseDTO updatedExtension = extensionsService.updateExtension(id, componentId, extensionData,
+                ifMatch);
+        return ResponseEntity.ok()
+                .eTag(ETagUtils.of(updatedExtension.getVersion()))
+                .body(updatedExtension);
     }
 
+    // With If-Match, 412 if the extension has been changed in the meantime
     @DeleteMapping("/{componentId}")
     public ResponseEntity<Void> deleteExtension(@PathVariable(name = "id") Integer id,
-            @PathVariable(name = "componentId") Integer componentId) {
-        extensionsService.deleteExtension(id, componentId);
+            @PathVariable(name = "componentId") Integer componentId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        extensionsService.deleteExtension(id, componentId, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
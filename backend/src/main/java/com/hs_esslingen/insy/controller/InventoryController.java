@@ -1,63 +1,131 @@
 package com.hs_esslingen.insy.controller;
 
-import java.time.LocalDate;
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryBatchResultDTO;
+import com.hs_esslingen.insy.dto.InventoryBulkPatchDTO;
+import com.hs_esslingen.insy.dto.InventoryBulkResultDTO;
 import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.dto.InventoryCursorPageDTO;
+import com.hs_esslingen.insy.dto.InventoryFacetsDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.dto.InventoryMetadataDTO;
+import com.hs_esslingen.insy.dto.SuggestionDTO;
+import com.hs_esslingen.insy.service.InventoryBatchService;
+import com.hs_esslingen.insy.service.InventoryBulkService;
+import com.hs_esslingen.insy.service.InventoryExportService;
+import com.hs_esslingen.insy.service.InventoryMetadataService;
 import com.hs_esslingen.insy.service.InventoryService;
+import com.hs_esslingen.insy.service.InventorySuggestService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/inventories")
 public class InventoryController {
 
     private final InventoryService inventoriesService;
+    private final InventorySuggestService suggestService;
+    private final InventoryExportService exportService;
+    private final InventoryMetadataService metadataService;
+    private final InventoryBatchService batchService;
+    private final InventoryBulkService bulkService;
 
-    InventoryController(InventoryService inventoriesService) {
+    InventoryController(InventoryService inventoriesService, InventorySuggestService suggestService,
+            InventoryExportService exportService, InventoryMetadataService metadataService,
+            InventoryBatchService batchService, InventoryBulkService bulkService) {
         this.inventoriesService = inventoriesService;
+        this.suggestService = suggestService;
+        this.exportService = exportService;
+        this.metadataService = metadataService;
+        this.batchService = batchService;
+        this.bulkService = bulkService;
     }
 
     // Get all elements from the inventory list
+    // The filters are bound from the query parameters, see InventoryFilterDTO
     @GetMapping
-    public Page<InventoriesResponseDTO> getAllInventories(
-            @RequestParam(name = "tags", required = false) List<Integer> tags,
-            @RequestParam(name = "minId", required = false) Integer minId,
-            @RequestParam(name = "maxId", required = false) Integer maxId,
-            @RequestParam(name = "minPrice", required = false) Integer minPrice,
-            @RequestParam(name = "maxPrice", required = false) Integer maxPrice,
-            @RequestParam(name = "isDeinventoried", required = false) Boolean isDeinventoried,
-            @RequestParam(name = "orderer", required = false) List<String> orderers,
-            @RequestParam(name = "company", required = false) List<String> companies,
-            @RequestParam(name = "location", required = false) List<String> locations,
-            @RequestParam(name = "costCenter", required = false) List<String> costCenters,
-            @RequestParam(name = "serialNumber", required = false) List<String> serialNumbers,
-            @RequestParam(name = "createdAfter", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
-            @RequestParam(name = "createdBefore", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdBefore,
+    public Slice<InventoriesResponseDTO> getAllInventories(
+            @ModelAttribute InventoryFilterDTO filter,
             @RequestParam(name = "orderBy", required = false, defaultValue = "id") String orderBy,
             @RequestParam(name = "direction", required = false, defaultValue = "asc") String direction,
-            @RequestParam(name = "searchText", required = false) String searchText,
+            @RequestParam(name = "searchMode", required = false, defaultValue = "substring") String searchMode,
+            @RequestParam(name = "countMode", required = false, defaultValue = "exact") String countMode,
             @PageableDefault(size = 50) Pageable pageable) {
 
-        return inventoriesService.getAllInventories(tags, minId, maxId, minPrice, maxPrice,
-                isDeinventoried, orderers, companies, locations, costCenters, serialNumbers, createdAfter,
-                createdBefore, orderBy, direction, searchText, pageable);
+        return inventoriesService.getAllInventories(filter, orderBy, direction, searchMode, countMode, pageable);
+    }
+
+    // Get elements from the inventory list page by page with a cursor
+    // The cursor of the response is passed to get the next page
+    @GetMapping("/scroll")
+    public InventoryCursorPageDTO scrollInventories(
+            @ModelAttribute InventoryFilterDTO filter,
+            @RequestParam(name = "orderBy", required = false, defaultValue = "id") String orderBy,
+            @RequestParam(name = "direction", required = false, defaultValue = "asc") String direction,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false, defaultValue = "50") int size) {
+
+        return inventoriesService.scrollInventories(filter, orderBy, direction, cursor, size);
+    }
+
+    // Get the number of items per filter value for the filtered inventory list
+    @GetMapping("/facets")
+    public InventoryFacetsDTO getFacets(@ModelAttribute InventoryFilterDTO filter) {
+        return inventoriesService.getFacets(filter);
+    }
+
+    // Stream all elements matching the filters as NDJSON or CSV, without paging
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInventories(
+            @ModelAttribute InventoryFilterDTO filter,
+            @RequestParam(name = "orderBy", required = false, defaultValue = "id") String orderBy,
+            @RequestParam(name = "direction", required = false, defaultValue = "asc") String direction,
+            @RequestParam(name = "format", required = false, defaultValue = "ndjson") String format,
+            Principal principal,
+            HttpServletRequest request) {
+
+        // The rate limit applies per user, or per address for anonymous requests
+        String clientId = principal != null ? principal.getName() : request.getRemoteAddr();
+        return exportService.exportInventories(filter, orderBy, direction, format, clientId);
+    }
+
+    // Get the values for the filters of the inventory list (ID and price bounds, locations,
+    // serial numbers, companies and cost centers) in one request
+    @GetMapping("/metadata")
+    public InventoryMetadataDTO getMetadata() {
+        return metadataService.getMetadata();
+    }
+
+    // Suggest inventory items for the text typed so far (search-as-you-type)
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggest(
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "limit", required = false, defaultValue = "10") int limit) {
+
+        return suggestService.suggest(text, limit);
     }
 
     // Get one element from the inventory list
@@ -74,17 +142,36 @@ public class InventoryController {
         return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
     }
 
+    // Add several elements to the inventory list at once
+    // Returns one result per element, elements that cannot be created do not prevent the others
+    @PostMapping("/batch")
+    public List<InventoryBatchResultDTO> addInventories(@RequestBody List<InventoryCreateRequestDTO> requestDTOs) {
+        return batchService.addInventories(requestDTOs);
+    }
+
+    // Update several elements of the inventory list at once
+    // The elements are given by ids in the body or selected by the filters of the inventory list
+    @PatchMapping("/bulk")
+    public InventoryBulkResultDTO updateInventories(@ModelAttribute InventoryFilterDTO filter,
+            @RequestBody InventoryBulkPatchDTO request) {
+        return bulkService.patchInventories(filter, request);
+    }
+
     // Delete one element from the inventory list
+    // With If-Match (the ETag of GET /inventories/{id}), 412 if the element has been changed in the meantime
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteInventory(@PathVariable Integer id) {
-        return inventoriesService.deleteInventory(id);
+    public ResponseEntity<Void> deleteInventory(@PathVariable Integer id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return inventoriesService.deleteInventory(id, ifMatch);
     }
 
     // Update one element in the inventory list
+    // With If-Match (the ETag of GET /inventories/{id}), 412 if the element has been changed in the meantime
     @PatchMapping("/{id}")
     public ResponseEntity<InventoriesResponseDTO> updateInventory(@PathVariable Integer id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Object> patchData) {
 
-        return inventoriesService.updateInventory(id, patchData);
+        return inventoriesService.updateInventory(id, patchData, ifMatch);
     }
 }
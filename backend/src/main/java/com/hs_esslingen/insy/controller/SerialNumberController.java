@@ -2,22 +2,37 @@ package com.hs_esslingen.insy.controller;
 
 
 import com.hs_esslingen.insy.dto.SerialNumberDTO;
+import com.hs_esslingen.insy.dto.SerialNumberMatchDTO;
+import com.hs_esslingen.insy.service.SerialNumberIndexService;
 import com.hs_esslingen.insy.service.SerialNumberService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/serialNumbers")
 public class SerialNumberController {
 
     private final SerialNumberService serialNumberService;
+    private final SerialNumberIndexService serialNumberIndexService;
 
     @GetMapping
     public ResponseEntity<SerialNumberDTO> getAllSerialNumbers() {
         SerialNumberDTO serialNumbers = serialNumberService.getAllSerialNumbers();
         return new ResponseEntity<>(serialNumbers, HttpStatus.OK);
     }
+
+    // Find the serial numbers and inventory numbers closest to a possibly misread one
+    @GetMapping("/search")
+    public ResponseEntity<List<SerialNumberMatchDTO>> searchSerialNumbers(
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "maxDistance", required = false, defaultValue = "2") int maxDistance,
+            @RequestParam(name = "limit", required = false, defaultValue = "10") int limit) {
+        List<SerialNumberMatchDTO> matches = serialNumberIndexService.search(text, maxDistance, limit);
+        return new ResponseEntity<>(matches, HttpStatus.OK);
+    }
 }
\ No newline at end of file
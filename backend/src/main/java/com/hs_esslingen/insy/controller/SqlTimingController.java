@@ -0,0 +1,36 @@
+package com.hs_esslingen.insy.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hs_esslingen.insy.dto.SqlTimingsDTO;
+import com.hs_esslingen.insy.service.SqlTimingService;
+
+import lombok.RequiredArgsConstructor;
+
+// Restricted to the role ADMIN in production, see SecurityConfig
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/sql-timings")
+public class SqlTimingController {
+
+    private final SqlTimingService sqlTimingService;
+
+    // Get the slowest recent SQL statements and the statements with the highest total duration
+    @GetMapping
+    public ResponseEntity<SqlTimingsDTO> getSqlTimings(
+            @RequestParam(name = "limit", required = false, defaultValue = "50") int limit) {
+        return ResponseEntity.ok(sqlTimingService.getTimings(limit));
+    }
+
+    // Discard all recorded timings
+    @DeleteMapping
+    public ResponseEntity<Void> resetSqlTimings() {
+        sqlTimingService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hs_esslingen.insy.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DictionaryPageDTO {
+    private List<String> values;
+    // Value to pass as "after" to get the next page, null on the last page
+    private String next;
+    @JsonProperty("has_next")
+    private boolean hasNext;
+}
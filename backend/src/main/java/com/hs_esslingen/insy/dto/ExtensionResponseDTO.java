@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Data;
@@ -24,4 +25,8 @@ public class ExtensionResponseDTO {
     @JsonProperty("created_at")
     @JsonFormat(pattern = "dd.MM.yyyy HH:mm:ss", shape = JsonFormat.Shape.STRING)
     private LocalDateTime createdAt;
+
+    // Sent as ETag header, see ExtensionController
+    @JsonIgnore
+    private Long version;
 }
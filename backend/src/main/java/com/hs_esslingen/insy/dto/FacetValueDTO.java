@@ -0,0 +1,17 @@
+package com.hs_esslingen.insy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetValueDTO {
+    // Only set for facets with an ID (tags)
+    private Integer id;
+    private String value;
+    private Long count;
+}
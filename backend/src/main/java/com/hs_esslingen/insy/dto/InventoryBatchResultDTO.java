@@ -0,0 +1,23 @@
+package com.hs_esslingen.insy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Result for one item of POST /inventories/batch, in the order of the request
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryBatchResultDTO {
+    @JsonProperty("inventories_id")
+    private Integer inventoriesId;
+    private boolean created;
+    // The created inventory item, null if it was not created
+    private InventoriesResponseDTO inventory;
+    // Why the item was not created, null if it was created
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.hs_esslingen.insy.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Body of PATCH /inventories/bulk
+// Without ids, the items are selected by the filters of the inventory list (query parameters)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryBulkPatchDTO {
+    private List<Integer> ids;
+    // Field names and values as for PATCH /inventories/{id}
+    private Map<String, Object> patch;
+    // Author of the history entries
+    @JsonProperty("user_name")
+    private String userName;
+}
@@ -0,0 +1,18 @@
+package com.hs_esslingen.insy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Result of PATCH /inventories/bulk
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryBulkResultDTO {
+    // Number of selected items
+    private int matched;
+    // Number of updated items, lower than matched if some of the given ids do not exist
+    private int updated;
+}
@@ -0,0 +1,20 @@
+package com.hs_esslingen.insy.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryCursorPageDTO {
+    private List<InventoriesResponseDTO> content;
+    private Integer size;
+    // Opaque token for the next page, null if this is the last page
+    private String nextCursor;
+    private Boolean hasNext;
+}
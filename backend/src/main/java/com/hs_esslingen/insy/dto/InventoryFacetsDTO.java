@@ -0,0 +1,28 @@
+package com.hs_esslingen.insy.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryFacetsDTO {
+    private Long total;
+    private List<FacetValueDTO> companies;
+    private List<FacetValueDTO> locations;
+    private List<FacetValueDTO> costCenters;
+    private List<FacetValueDTO> orderers;
+    private List<FacetValueDTO> tags;
+    private Map<Boolean, Long> isDeinventoried;
+    private Integer minId;
+    private Integer maxId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,39 @@
+package com.hs_esslingen.insy.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Filters of the inventory list, bound from the query parameters
+// The field names are the names of the query parameters (e.g. ?company=A&company=B)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryFilterDTO {
+    private List<Integer> tags;
+    // "any" (default) or "all"
+    private String tagMatch;
+    private List<Integer> excludeTags;
+    private Integer minId;
+    private Integer maxId;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Boolean isDeinventoried;
+    private List<String> orderer;
+    private List<String> company;
+    private List<String> location;
+    private List<String> costCenter;
+    private List<String> serialNumber;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdAfter;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdBefore;
+    private String searchText;
+}
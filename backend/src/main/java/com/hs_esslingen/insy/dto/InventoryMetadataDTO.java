@@ -0,0 +1,26 @@
+package com.hs_esslingen.insy.dto;
+
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryMetadataDTO {
+    private IdDTO ids;
+    private PriceDTO prices;
+    private Set<String> locations;
+    @JsonProperty("serial_numbers")
+    private Set<String> serialNumbers;
+    private List<String> companies;
+    @JsonProperty("cost_centers")
+    private List<String> costCenters;
+}
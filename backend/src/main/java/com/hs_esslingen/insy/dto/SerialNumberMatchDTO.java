@@ -0,0 +1,24 @@
+package com.hs_esslingen.insy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SerialNumberMatchDTO {
+    @JsonProperty("inventory_id")
+    private Integer inventoryId;
+    // Null if the match is the serial number of the inventory item itself
+    @JsonProperty("extension_id")
+    private Integer extensionId;
+    // "serial_number" or "inventory_number"
+    private String field;
+    private String value;
+    private Integer distance;
+}
@@ -0,0 +1,29 @@
+package com.hs_esslingen.insy.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryDTO {
+    private String sql;
+    // Repository method that executed the statement
+    private String origin;
+    @JsonProperty("duration_ms")
+    private double durationMs;
+    private long rows;
+    // Types of the bind parameters, e.g. "(Integer, String, NULL)"
+    private String parameters;
+    @JsonProperty("executed_at")
+    @JsonFormat(pattern = "dd.MM.yyyy HH:mm:ss", shape = JsonFormat.Shape.STRING)
+    private LocalDateTime executedAt;
+}
@@ -0,0 +1,26 @@
+package com.hs_esslingen.insy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlStatementStatsDTO {
+    private String sql;
+    // Repository method that last executed the statement
+    private String origin;
+    private long executions;
+    @JsonProperty("total_ms")
+    private double totalMs;
+    @JsonProperty("average_ms")
+    private double averageMs;
+    @JsonProperty("max_ms")
+    private double maxMs;
+    private long rows;
+}
@@ -0,0 +1,20 @@
+package com.hs_esslingen.insy.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlTimingsDTO {
+    @JsonProperty("slow_queries")
+    private List<SlowQueryDTO> slowQueries;
+    private List<SqlStatementStatsDTO> statements;
+}
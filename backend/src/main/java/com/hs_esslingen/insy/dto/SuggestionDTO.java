@@ -0,0 +1,19 @@
+package com.hs_esslingen.insy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDTO {
+    private Integer id;
+    private String description;
+    @JsonProperty("serial_number")
+    private String serialNumber;
+}
@@ -0,0 +1,18 @@
+package com.hs_esslingen.insy.event;
+
+import java.util.Set;
+
+/**
+ * Published whenever inventory items were created, updated or deleted.
+ * Listeners receive it after the surrounding transaction has been committed
+ * (see TransactionalEventListener) and use the IDs to refresh derived data
+ * such as in-memory search indexes.
+ *
+ * @param inventoryIds the IDs of the affected inventory items
+ */
+public record InventoryChangedEvent(Set<Integer> inventoryIds) {
+
+    public static InventoryChangedEvent of(Integer... inventoryIds) {
+        return new InventoryChangedEvent(Set.of(inventoryIds));
+    }
+}
@@ -1,5 +1,6 @@
 package com.hs_esslingen.insy.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -33,4 +34,23 @@ public class GlobalExceptionHandler {
     public ErrorResponseDTO BadRequest(Exception e) {
         return new ErrorResponseDTO(400, e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponseDTO PreconditionFailed(Exception e) {
+        return new ErrorResponseDTO(412, e.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponseDTO TooManyRequests(Exception e) {
+        return new ErrorResponseDTO(429, e.getMessage());
+    }
+
+    // Another request has changed the same row between reading and writing it
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponseDTO OptimisticLockingFailure(Exception e) {
+        return new ErrorResponseDTO(412, "The resource has been changed concurrently, reload it and try again");
+    }
+}
@@ -0,0 +1,12 @@
+package com.hs_esslingen.insy.exception;
+
+/**
+ * Custom exception class to handle failed preconditions.
+ * This exception is thrown when the If-Match header of a request does not match
+ * the current version of the resource, i.e. it has been changed in the meantime.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.hs_esslingen.insy.exception;
+
+/**
+ * Custom exception class to handle requests that exceed a limit.
+ * This exception is thrown when too many requests of the same kind are running
+ * and the client should try again later.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
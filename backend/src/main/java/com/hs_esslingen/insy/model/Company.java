@@ -31,7 +31,7 @@ public class Company {
     @Column(name = "id", nullable = false)
     private Integer id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String name;
 
     @OneToMany(mappedBy = "company", cascade = CascadeType.ALL)
@@ -30,6 +30,7 @@ public class CostCenter {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Column(unique = true)
     String description; // ToDo: Feld überhaupt nötig? Kostenstelle ist nur als Nummer in Inventarliste vorhanden, diese könnte man als Primary Key verwenden
 
     @Column(name = "is_archived")
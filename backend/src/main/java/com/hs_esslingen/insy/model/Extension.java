@@ -14,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -52,6 +53,11 @@ public class Extension {
     @Column(name = "created_at", nullable = false)
     private final LocalDateTime createdAt = LocalDateTime.now(ZoneId.of("Europe/Berlin"));
 
+    // Incremented on every update, null until the extension has been inserted
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Builder
     public Extension(Inventory inventory, Company company, String description, String serialNumber,
             BigDecimal price) {
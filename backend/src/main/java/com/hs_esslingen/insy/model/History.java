@@ -36,10 +36,10 @@ public class History {
     @Column(name = "attribute_changed", nullable = false)
     private String attributeChanged;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "TEXT")
     private String valueFrom;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "TEXT")
     private String valueTo;
 
     @Column(nullable = false)
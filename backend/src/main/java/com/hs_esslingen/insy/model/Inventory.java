@@ -19,6 +19,7 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -70,6 +71,14 @@ public class Inventory {
     @Column(nullable = true, columnDefinition = "TEXT")
     private String searchText;
 
+    // Space separated words for the ranked full-text search (tsvector, german)
+    @Column(name = "search_document", nullable = true, columnDefinition = "TEXT")
+    private String searchDocument;
+
+    // tsvector of searchDocument, generated by the database (see V12__add_search_vector.sql)
+    @Column(name = "search_vector", insertable = false, updatable = false, columnDefinition = "tsvector")
+    private String searchVector;
+
     @Column(name = "created_at", nullable = true)
     private LocalDateTime createdAt = LocalDateTime.now(ZoneId.of("Europe/Berlin"));
 
@@ -77,6 +86,11 @@ public class Inventory {
     @Builder.Default
     private LocalDateTime deletedAt = null;
 
+    // Incremented on every update, null until the item has been inserted
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "inventories", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<Comment> comments = new ArrayList<>();
@@ -23,6 +23,7 @@ public class User {
     @Column(nullable = false)
     private Integer id;
 
+    @Column(unique = true)
     private String name;
 
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
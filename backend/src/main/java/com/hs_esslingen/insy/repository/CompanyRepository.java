@@ -4,9 +4,12 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.model.Company;
 
@@ -16,10 +19,29 @@ public interface CompanyRepository extends JpaRepository<Company, Integer> {
     @Query("SELECT c FROM Company c WHERE c.name = ?1")
     Optional<Company> findByName(String name);
 
+    @Query("SELECT c.id FROM Company c WHERE c.name = ?1")
+    Optional<Integer> findIdByName(String name);
+
+    // Inserts the row, or returns the ID of the existing row with the same name (unique, see V4 migration)
+    // The no-op update on conflict makes RETURNING report the existing row as well
+    @Transactional
+    @Query(value = "INSERT INTO companies (name) VALUES (:name) "
+            + "ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id", nativeQuery = true)
+    Integer upsertByName(@Param("name") String name);
+
     Company getCompaniesByName(String name);
 
     @Query("SELECT c.name FROM Company c")
     List<String> findAllCompanyNames();
 
     List<Company> findByNameIn(Collection<String> names);
+
+    // Distinct names starting with the prefix (lowercase, LIKE-escaped, ending with %) after a name, ordered by
+    // their lowercase form in the collation "C" along the index of V9, see DictionaryService
+    @Query(value = "SELECT c.name FROM companies c "
+            + "WHERE (lower(c.name) COLLATE \"C\", c.name) > (lower(:after), :after) "
+            + "AND lower(c.name) COLLATE \"C\" LIKE :prefix ESCAPE '\\' "
+            + "GROUP BY lower(c.name) COLLATE \"C\", c.name "
+            + "ORDER BY lower(c.name) COLLATE \"C\", c.name", nativeQuery = true)
+    List<String> findNamesByPrefix(@Param("prefix") String prefix, @Param("after") String after, Limit limit);
 }
@@ -2,9 +2,12 @@ package com.hs_esslingen.insy.repository;
 
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.model.CostCenter;
 
@@ -17,6 +20,26 @@ public interface CostCenterRepository extends JpaRepository<CostCenter, Integer>
     @Query("SELECT c FROM CostCenter c WHERE c.description = ?1")
     Optional<CostCenter> findByName(String name);
 
+    @Query("SELECT c.id FROM CostCenter c WHERE c.description = ?1")
+    Optional<Integer> findIdByName(String name);
+
+    // Inserts the row, or returns the ID of the existing row with the same description (unique, see V4 migration)
+    // The no-op update on conflict makes RETURNING report the existing row as well
+    @Transactional
+    @Query(value = "INSERT INTO cost_centers (description, is_archived) VALUES (:name, false) "
+            + "ON CONFLICT (description) DO UPDATE SET description = EXCLUDED.description RETURNING id",
+            nativeQuery = true)
+    Integer upsertByName(@Param("name") String name);
+
     List<CostCenter> findByDescriptionIn(Collection<String> descriptions);
 
+    // Distinct descriptions starting with the prefix (lowercase, LIKE-escaped, ending with %) after a description,
+    // ordered by their lowercase form in the collation "C" along the index of V9, see DictionaryService
+    @Query(value = "SELECT c.description FROM cost_centers c "
+            + "WHERE (lower(c.description) COLLATE \"C\", c.description) > (lower(:after), :after) "
+            + "AND lower(c.description) COLLATE \"C\" LIKE :prefix ESCAPE '\\' "
+            + "GROUP BY lower(c.description) COLLATE \"C\", c.description "
+            + "ORDER BY lower(c.description) COLLATE \"C\", c.description", nativeQuery = true)
+    List<String> findDescriptionsByPrefix(@Param("prefix") String prefix, @Param("after") String after, Limit limit);
+
 }
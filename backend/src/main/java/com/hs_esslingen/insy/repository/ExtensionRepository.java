@@ -1,6 +1,11 @@
 package com.hs_esslingen.insy.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.hs_esslingen.insy.model.Extension;
 
@@ -9,4 +14,10 @@ public interface ExtensionRepository extends JpaRepository<Extension, Integer> {
     // For example, to find extensions by inventory ID:
     // List<Extensions> findByInventoryId(Integer inventoryId);
 
+    @Query("SELECT e.id, e.inventory.id, e.serialNumber FROM Extension e WHERE e.serialNumber IS NOT NULL")
+    List<Object[]> findAllSerialNumbers();
+
+    @Query("SELECT e.id, e.inventory.id, e.serialNumber FROM Extension e "
+            + "WHERE e.serialNumber IS NOT NULL AND e.inventory.id IN :inventoriesIds")
+    List<Object[]> findSerialNumbersByInventoryIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
 }
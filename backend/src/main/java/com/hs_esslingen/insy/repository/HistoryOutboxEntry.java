@@ -0,0 +1,11 @@
+package com.hs_esslingen.insy.repository;
+
+/**
+ * A history entry in the outbox that has not been moved to the history yet
+ * (see HistoryWriter). Only the fields needed to move it are read.
+ *
+ * @param id         the ID of the outbox row
+ * @param authorName the name of the author, created if it does not exist
+ */
+public record HistoryOutboxEntry(long id, String authorName) {
+}
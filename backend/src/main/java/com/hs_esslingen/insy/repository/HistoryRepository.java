@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import com.hs_esslingen.insy.model.History;
 
 @Repository
-public interface HistoryRepository extends JpaRepository<History, Integer> {
+public interface HistoryRepository extends JpaRepository<History, Integer>, HistoryRepositoryCustom {
 
     List<History> getHistoriesByInventory_Id(Integer inventoryId);
 
@@ -0,0 +1,59 @@
+package com.hs_esslingen.insy.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.hs_esslingen.insy.model.History;
+
+public interface HistoryRepositoryCustom {
+
+        /**
+         * Inserts history entries into the outbox with one JDBC batch, bypassing
+         * the persistence context. The inventory item is only read for its ID, the
+         * author is replaced by the given name. Must be called within the
+         * transaction of the change, so the entries are committed with it.
+         *
+         * @param histories  the entries to insert
+         * @param authorName the name of the author
+         */
+        void insertIntoOutbox(List<History> histories, String authorName);
+
+        /**
+         * Locks the oldest entries of the outbox. Entries locked by another
+         * transaction are skipped, so several writers never take the same entries.
+         *
+         * @param maxAttempts entries that failed this often are left out
+         * @param limit       the maximum number of entries
+         * @return the locked entries, ordered by ID
+         */
+        List<HistoryOutboxEntry> lockOutbox(int maxAttempts, int limit);
+
+        /**
+         * Locks all entries of the outbox of an inventory item. Waits for entries
+         * locked by another transaction, which are left out once it has moved them.
+         *
+         * @param inventoryId the ID of the inventory item
+         * @param maxAttempts entries that failed this often are left out
+         * @return the locked entries, ordered by ID
+         */
+        List<HistoryOutboxEntry> lockOutboxOf(Integer inventoryId, int maxAttempts);
+
+        /**
+         * Moves entries from the outbox to the history with one statement. The
+         * authors are looked up by name and must exist. Entries already moved by
+         * another transaction are left out.
+         *
+         * @param ids the IDs of the outbox entries
+         * @return the number of moved entries
+         */
+        int moveFromOutbox(Collection<Long> ids);
+
+        /**
+         * Records a failed attempt to move an entry of the outbox.
+         *
+         * @param id    the ID of the outbox entry
+         * @param error the error of the attempt
+         * @return the number of failed attempts of the entry, 0 if it no longer exists
+         */
+        int recordOutboxFailure(long id, String error);
+}
@@ -0,0 +1,122 @@
+package com.hs_esslingen.insy.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.Session;
+
+import com.hs_esslingen.insy.model.History;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class HistoryRepositoryCustomImpl implements HistoryRepositoryCustom {
+
+    private static final String INSERT_OUTBOX = "INSERT INTO history_outbox (author_name, inventory_id, "
+            + "attribute_changed, value_from, value_to, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String LOCK_OUTBOX = "SELECT id, author_name FROM history_outbox WHERE attempts < ? "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LOCK_OUTBOX_OF = "SELECT id, author_name FROM history_outbox "
+            + "WHERE inventory_id = ? AND attempts < ? ORDER BY id FOR UPDATE";
+
+    // Deleting the entries locks them, so an entry is never moved twice
+    private static final String MOVE_FROM_OUTBOX = "WITH moved AS (DELETE FROM history_outbox WHERE id = ANY(?) "
+            + "RETURNING id, author_name, inventory_id, attribute_changed, value_from, value_to, created_at) "
+            + "INSERT INTO histories (author_user_id, inventory_id, attribute_changed, value_from, value_to, "
+            + "created_at) SELECT u.id, m.inventory_id, m.attribute_changed, m.value_from, m.value_to, m.created_at "
+            + "FROM moved m LEFT JOIN users u ON u.name = m.author_name ORDER BY m.id";
+
+    private static final String RECORD_OUTBOX_FAILURE = "UPDATE history_outbox "
+            + "SET attempts = attempts + 1, last_error = ? WHERE id = ? RETURNING attempts";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertIntoOutbox(List<History> histories, String authorName) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        // Runs on the connection of the current transaction
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_OUTBOX)) {
+                for (History history : histories) {
+                    statement.setString(1, authorName);
+                    statement.setInt(2, history.getInventory().getId());
+                    statement.setString(3, history.getAttributeChanged());
+                    statement.setString(4, history.getValueFrom());
+                    statement.setString(5, history.getValueTo());
+                    statement.setObject(6, history.getCreatedAt());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public List<HistoryOutboxEntry> lockOutbox(int maxAttempts, int limit) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(LOCK_OUTBOX)) {
+                statement.setInt(1, maxAttempts);
+                statement.setInt(2, limit);
+                return readEntries(statement);
+            }
+        });
+    }
+
+    @Override
+    public List<HistoryOutboxEntry> lockOutboxOf(Integer inventoryId, int maxAttempts) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(LOCK_OUTBOX_OF)) {
+                statement.setInt(1, inventoryId);
+                statement.setInt(2, maxAttempts);
+                return readEntries(statement);
+            }
+        });
+    }
+
+    @Override
+    public int moveFromOutbox(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(MOVE_FROM_OUTBOX)) {
+                Array idArray = connection.createArrayOf("bigint", ids.toArray());
+                statement.setArray(1, idArray);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public int recordOutboxFailure(long id, String error) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(RECORD_OUTBOX_FAILURE)) {
+                statement.setString(1, error);
+                statement.setLong(2, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    private static List<HistoryOutboxEntry> readEntries(PreparedStatement statement) throws SQLException {
+        List<HistoryOutboxEntry> entries = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                entries.add(new HistoryOutboxEntry(resultSet.getLong(1), resultSet.getString(2)));
+            }
+        }
+        return entries;
+    }
+}
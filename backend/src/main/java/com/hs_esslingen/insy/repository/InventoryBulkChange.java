@@ -0,0 +1,47 @@
+package com.hs_esslingen.insy.repository;
+
+/**
+ * A new value for one field of many inventory items, see
+ * InventoryRepositoryCustom.bulkUpdate.
+ *
+ * @param field        the changed field
+ * @param value        the new column value, the ID for references
+ * @param historyValue the new value as recorded in the history
+ */
+public record InventoryBulkChange(Field field, Object value, String historyValue) {
+
+    // Fields that can be set for many items at once, with the history attribute
+    // and the SQL expression of the current value as recorded in the history.
+    // The attributes and values are the ones of the history of single updates,
+    // see InventoryDiff
+    public enum Field {
+        LOCATION("location", "location", "i.location"),
+        COST_CENTER("cost_centers_id", "costCenter",
+                "(SELECT cc.description FROM cost_centers cc WHERE cc.id = i.cost_centers_id)"),
+        COMPANY("companies_id", "company", "(SELECT c.name FROM companies c WHERE c.id = i.companies_id)"),
+        ORDERER("users_id", "orderer", "CAST(i.users_id AS text)"),
+        IS_DEINVENTORIED("is_deinventoried", "isDeinventoried", "CAST(i.is_deinventoried AS text)");
+
+        private final String column;
+        private final String attribute;
+        private final String currentValue;
+
+        Field(String column, String attribute, String currentValue) {
+            this.column = column;
+            this.attribute = attribute;
+            this.currentValue = currentValue;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        public String attribute() {
+            return attribute;
+        }
+
+        public String currentValue() {
+            return currentValue;
+        }
+    }
+}
@@ -1,30 +1,99 @@
 package com.hs_esslingen.insy.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hs_esslingen.insy.model.Inventory;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface InventoryRepository
-        extends JpaRepository<Inventory, Integer>, JpaSpecificationExecutor<Inventory> {
+        extends JpaRepository<Inventory, Integer>, JpaSpecificationExecutor<Inventory>, InventoryRepositoryCustom {
         // Define custom query methods here if needed
-        @Query("SELECT i.location FROM Inventory i WHERE i.location IS NOT NULL ORDER BY i.location ASC")
+        @Query("SELECT DISTINCT i.location FROM Inventory i WHERE i.location IS NOT NULL ORDER BY i.location ASC")
         Set<String> findAllLocations();
 
-        @Query("SELECT i.serialNumber FROM Inventory i WHERE i.serialNumber IS NOT NULL ORDER BY i.serialNumber ASC")
+        // Distinct values starting with the prefix (lowercase, LIKE-escaped, ending with %) after a value, ordered by
+        // their lowercase form in the collation "C" along the index of V9, see DictionaryService
+        @Query(value = "SELECT i.location FROM inventories i "
+                        + "WHERE (lower(i.location) COLLATE \"C\", i.location) > (lower(:after), :after) "
+                        + "AND lower(i.location) COLLATE \"C\" LIKE :prefix ESCAPE '\\' "
+                        + "GROUP BY lower(i.location) COLLATE \"C\", i.location "
+                        + "ORDER BY lower(i.location) COLLATE \"C\", i.location", nativeQuery = true)
+        List<String> findLocationsByPrefix(@Param("prefix") String prefix, @Param("after") String after, Limit limit);
+
+        @Query("SELECT DISTINCT i.serialNumber FROM Inventory i WHERE i.serialNumber IS NOT NULL ORDER BY i.serialNumber ASC")
         Set<String> findAllSerialNumbers();
 
+        @Query(value = "SELECT i.serial_number FROM inventories i "
+                        + "WHERE (lower(i.serial_number) COLLATE \"C\", i.serial_number) > (lower(:after), :after) "
+                        + "AND lower(i.serial_number) COLLATE \"C\" LIKE :prefix ESCAPE '\\' "
+                        + "GROUP BY lower(i.serial_number) COLLATE \"C\", i.serial_number "
+                        + "ORDER BY lower(i.serial_number) COLLATE \"C\", i.serial_number", nativeQuery = true)
+        List<String> findSerialNumbersByPrefix(@Param("prefix") String prefix, @Param("after") String after,
+                        Limit limit);
+
+        @Query("SELECT i.id, i.serialNumber FROM Inventory i")
+        List<Object[]> findAllIdsAndSerialNumbers();
+
+        @Query("SELECT i.id, i.serialNumber FROM Inventory i WHERE i.id IN :inventoriesIds")
+        List<Object[]> findIdsAndSerialNumbersByIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
+
         @Query("SELECT i.id FROM Inventory i WHERE i.id IN :inventoriesIds")
         Set<Integer> findInventoriesIdIn(@Param("inventoriesIds") List<Integer> inventoriesIds);
 
+        @Query("SELECT i.id, i.searchText FROM Inventory i")
+        List<Object[]> findAllSearchTexts();
+
+        @Query("SELECT i.id, i.searchText FROM Inventory i WHERE i.id IN :inventoriesIds")
+        List<Object[]> findSearchTextsByIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
+
+        // Loads the fields of the search columns (see StringParser) with one query. Read-only, the
+        // persistence context keeps no snapshot and never writes the items back.
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+        @Query("SELECT DISTINCT i FROM Inventory i LEFT JOIN FETCH i.costCenter LEFT JOIN FETCH i.user "
+                        + "LEFT JOIN FETCH i.company LEFT JOIN FETCH i.extensions WHERE i.id IN :inventoriesIds")
+        List<Inventory> findWithSearchFieldsByIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
+
+        // Row estimate of the planner, updated by ANALYZE / autovacuum (-1 if never analyzed)
+        @Query(value = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'inventories'::regclass", nativeQuery = true)
+        Long estimateRowCount();
+
+        // Global data version, incremented by every write transaction (see V10__create_data_version.sql)
+        @Query(value = "SELECT version FROM data_version", nativeQuery = true)
+        long findDataVersion();
+
+        // Versions of the dimensions of the inventory metadata (see V13__create_metadata_versions.sql)
+        @Query(value = "SELECT dimension, version FROM metadata_versions", nativeQuery = true)
+        List<Object[]> findMetadataVersions();
+
+        @Query("SELECT i.id, i.description, i.serialNumber, i.price, i.location, i.createdAt, c.name, cc.description, u.name "
+                        + "FROM Inventory i LEFT JOIN i.company c LEFT JOIN i.costCenter cc LEFT JOIN i.user u")
+        List<Object[]> findAllSuggestFields();
+
+        @Query("SELECT i.id, i.description, i.serialNumber, i.price, i.location, i.createdAt, c.name, cc.description, u.name "
+                        + "FROM Inventory i LEFT JOIN i.company c LEFT JOIN i.costCenter cc LEFT JOIN i.user u "
+                        + "WHERE i.id IN :inventoriesIds")
+        List<Object[]> findSuggestFieldsByIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
+
+        @Query("SELECT i.id, t.id FROM Inventory i LEFT JOIN i.tags t")
+        List<Object[]> findAllTagIds();
+
+        @Query("SELECT i.id, t.id FROM Inventory i LEFT JOIN i.tags t WHERE i.id IN :inventoriesIds")
+        List<Object[]> findTagIdsByIdIn(@Param("inventoriesIds") Collection<Integer> inventoriesIds);
+
         @Query("SELECT MAX(i.price) from Inventory i")
         BigDecimal findMaxPrice();
 
@@ -37,6 +106,10 @@ public interface InventoryRepository
         @Query("SELECT MIN(i.id) from Inventory i")
         Integer findMinId();
 
+        // One row of the lowest and the highest price, both read from the end of a price index
+        @Query("SELECT MIN(i.price), MAX(i.price) FROM Inventory i")
+        List<Object[]> findPriceBounds();
+
         //statistic queries
         @Query("SELECT COUNT(i) FROM Inventory i WHERE i.deletedAt IS NULL AND i.isDeinventoried = false")
         Long countActiveInventories();
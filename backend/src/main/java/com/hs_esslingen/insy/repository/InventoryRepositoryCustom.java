@@ -0,0 +1,114 @@
+package com.hs_esslingen.insy.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryFacetsDTO;
+import com.hs_esslingen.insy.model.Inventory;
+
+// Custom queries of the InventoryRepository that cannot be expressed
+// with derived queries or Specifications alone
+public interface InventoryRepositoryCustom {
+
+        /**
+         * Loads a range of the inventory list as DTOs without running a count query.
+         * Only the columns shown in the list are selected, no entities are loaded
+         * into the persistence context. The tags are loaded with a second query.
+         *
+         * @param spec   the filter, may also define the ordering
+         * @param sort   additional sorting, may be unsorted
+         * @param offset number of rows to skip
+         * @param limit  maximum number of rows to return
+         * @return the inventory items in the requested range
+         */
+        List<InventoriesResponseDTO> findListRange(Specification<Inventory> spec, Sort sort, long offset, int limit);
+
+        /**
+         * Counts the filtered inventory items per company, location, cost center,
+         * orderer, tag and deinventoried status and determines the bounds of ID and
+         * price. Needs one grouped query over the items and one over their tags.
+         *
+         * @param spec the filter
+         * @return the facets of the filtered inventory items
+         */
+        InventoryFacetsDTO findFacets(Specification<Inventory> spec);
+
+        /**
+         * Inserts a new inventory item and flushes it, so that an existing item with
+         * the same ID is reported right here by a constraint violation. Unlike save,
+         * no SELECT is run beforehand to find out whether the item is new. Must be
+         * called within a transaction.
+         *
+         * @param inventory the new inventory item with its assigned ID
+         */
+        void insert(Inventory inventory);
+
+        /**
+         * Inserts new inventory items and their tag assignments with one JDBC batch
+         * each, bypassing the persistence context. Items whose ID already exists
+         * are skipped. Cost center, company, orderer and tags only need their IDs.
+         * Must be called within a transaction.
+         *
+         * @param inventories the new inventory items with their assigned IDs
+         * @return the IDs of the inserted items
+         */
+        Set<Integer> insertAll(List<Inventory> inventories);
+
+        /**
+         * Returns the IDs of the filtered inventory items without loading them.
+         *
+         * @param spec  the filter
+         * @param limit maximum number of IDs to return
+         * @return the IDs of the matching inventory items
+         */
+        List<Integer> findIds(Specification<Inventory> spec, int limit);
+
+        /**
+         * Sets fields of many inventory items with set-based statements, bypassing
+         * the persistence context: one history insert per field for the items whose
+         * value changes and one update of the items (including their version). The
+         * search columns are not refreshed, see updateSearchColumns. Must be called
+         * within a transaction.
+         *
+         * @param ids       the IDs of the inventory items
+         * @param changes   the new values, at most one per field
+         * @param authorId  the ID of the user recorded as author of the history, may be null
+         * @param changedAt the time recorded in the history
+         * @return the number of updated items
+         */
+        int bulkUpdate(Collection<Integer> ids, List<InventoryBulkChange> changes, Integer authorId,
+                        LocalDateTime changedAt);
+
+        /**
+         * Writes search_text and search_document of the given inventory items with
+         * one JDBC batch, bypassing the persistence context. Nothing else is
+         * changed, not even the version. Must be called within a transaction.
+         *
+         * @param inventories the inventory items with their new search columns
+         */
+        void updateSearchColumns(List<Inventory> inventories);
+
+        /**
+         * Finds the serial numbers of inventory items and extensions and the
+         * inventory numbers whose normalized form (see
+         * StringParser.normalizeSerialNumber) has a trigram similarity of at least
+         * the threshold to the query. Uses the trigram indexes of the normalized
+         * values, so only candidates are read, not every item. Must be called within
+         * a transaction, which the threshold is set for.
+         *
+         * @param normalizedQuery the normalized serial number or inventory number
+         * @param threshold       the minimum trigram similarity, between 0 and 1
+         * @param limit           the maximum number of candidates per kind (item
+         *                        serial numbers, extension serial numbers, inventory
+         *                        numbers), the most similar ones are returned
+         * @return rows of inventory ID, extension ID (null for the item itself),
+         *         field ("serial_number" or "inventory_number") and value
+         */
+        List<Object[]> findSimilarSerialNumbers(String normalizedQuery, double threshold, int limit);
+}
@@ -0,0 +1,447 @@
+package com.hs_esslingen.insy.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.hs_esslingen.insy.configuration.PostgresGroupingFunctions;
+import com.hs_esslingen.insy.dto.FacetValueDTO;
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryFacetsDTO;
+import com.hs_esslingen.insy.dto.TagDTO;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+
+    // Most frequent values first, then alphabetically
+    private static final Comparator<FacetValueDTO> FACET_ORDER = Comparator
+            .comparing(FacetValueDTO::getCount, Comparator.reverseOrder())
+            .thenComparing(FacetValueDTO::getValue, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // An existing ID is skipped instead of failing the whole batch
+    private static final String INSERT_INVENTORY = "INSERT INTO inventories (id, cost_centers_id, users_id, "
+            + "companies_id, description, serial_number, is_deinventoried, price, location, search_text, "
+            + "search_document, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private static final String INSERT_INVENTORY_TAG = "INSERT INTO inventory_tag (inventory_id, tag_id) VALUES (?, ?)";
+
+    private static final String UPDATE_SEARCH_COLUMNS = "UPDATE inventories SET search_text = ?, search_document = ? "
+            + "WHERE id = ?";
+
+    // Normalization of StringParser.normalizeSerialNumber, matches the trigram indexes of V8
+    private static final String NORMALIZED_SERIAL_NUMBER =
+            "translate(regexp_replace(upper(%s.serial_number), '[^[:alnum:]]', '', 'g'), 'OI', '01')";
+
+    // The operator % compares the trigram similarity to pg_trgm.similarity_threshold and uses the trigram indexes
+    private static final String FIND_SIMILAR_SERIAL_NUMBERS = "(SELECT i.id, CAST(NULL AS integer), 'serial_number', "
+            + "i.serial_number FROM inventories i WHERE " + NORMALIZED_SERIAL_NUMBER.formatted("i") + " % ? "
+            + "ORDER BY similarity(" + NORMALIZED_SERIAL_NUMBER.formatted("i") + ", ?) DESC LIMIT ?) "
+            + "UNION ALL (SELECT e.inventory_id, e.id, 'serial_number', e.serial_number FROM extensions e "
+            + "WHERE " + NORMALIZED_SERIAL_NUMBER.formatted("e") + " % ? "
+            + "ORDER BY similarity(" + NORMALIZED_SERIAL_NUMBER.formatted("e") + ", ?) DESC LIMIT ?) "
+            + "UNION ALL (SELECT i.id, CAST(NULL AS integer), 'inventory_number', CAST(i.id AS text) "
+            + "FROM inventories i WHERE CAST(i.id AS text) % ? "
+            + "ORDER BY similarity(CAST(i.id AS text), ?) DESC LIMIT ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<InventoriesResponseDTO> findListRange(Specification<Inventory> spec, Sort sort, long offset,
+            int limit) {
+        List<Tuple> rows = listQuery(spec, sort)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<InventoriesResponseDTO> inventories = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            inventories.add(toListDto(row));
+        }
+        addTags(inventories);
+        return inventories;
+    }
+
+    // Query of the columns of InventoriesResponseDTO
+    private TypedQuery<Tuple> listQuery(Specification<Inventory> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Inventory> root = query.from(Inventory.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        // Select only the columns of InventoriesResponseDTO
+        Join<Inventory, CostCenter> costCenter = root.join("costCenter", JoinType.LEFT);
+        Join<Inventory, Company> company = root.join("company", JoinType.LEFT);
+        Join<Inventory, User> user = root.join("user", JoinType.LEFT);
+        query.multiselect(
+                root.get("id"),
+                root.get("description"),
+                root.get("serialNumber"),
+                root.get("price"),
+                root.get("location"),
+                costCenter.get("description"),
+                company.get("name"),
+                user.get("name"),
+                root.get("isDeinventoried"),
+                root.get("createdAt"));
+
+        // Keep an ordering set by the Specification (e.g. keyset or nested sorting)
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private static InventoriesResponseDTO toListDto(Tuple row) {
+        return new InventoriesResponseDTO(
+                row.get(0, Integer.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, BigDecimal.class),
+                row.get(4, String.class),
+                row.get(5, String.class),
+                row.get(6, String.class),
+                row.get(7, String.class),
+                row.get(8, Boolean.class),
+                row.get(9, LocalDateTime.class),
+                new ArrayList<>());
+    }
+
+    @Override
+    public InventoryFacetsDTO findFacets(Specification<Inventory> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        // One grouping set per dimension and one for the totals, so a single scan of the filtered items
+        // returns one row per value of each dimension instead of one per combination of the values
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Inventory> root = query.from(Inventory.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Join<Inventory, Company> company = root.join("company", JoinType.LEFT);
+        Join<Inventory, CostCenter> costCenter = root.join("costCenter", JoinType.LEFT);
+        Join<Inventory, User> user = root.join("user", JoinType.LEFT);
+        Path<String> companyName = company.get("name");
+        Path<String> location = root.get("location");
+        Path<String> costCenterDescription = costCenter.get("description");
+        Path<String> userName = user.get("name");
+        Path<Boolean> isDeinventoried = root.get("isDeinventoried");
+        Path<Integer> id = root.get("id");
+        Path<BigDecimal> price = root.get("price");
+        query.multiselect(companyName, location, costCenterDescription, userName, isDeinventoried,
+                cb.count(root), cb.min(id), cb.max(id), cb.min(price), cb.max(price),
+                cb.function(PostgresGroupingFunctions.FACET_GROUPING, Integer.class, companyName, location,
+                        costCenterDescription, userName, isDeinventoried))
+                .groupBy(cb.function(PostgresGroupingFunctions.FACET_GROUPING_SETS, Integer.class, companyName,
+                        location, costCenterDescription, userName, isDeinventoried));
+
+        Map<String, Long> companies = new HashMap<>();
+        Map<String, Long> locations = new HashMap<>();
+        Map<String, Long> costCenters = new HashMap<>();
+        Map<String, Long> orderers = new HashMap<>();
+        Map<Boolean, Long> deinventoried = new HashMap<>();
+        long total = 0;
+        Integer minId = null;
+        Integer maxId = null;
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            long count = row.get(5, Long.class);
+            switch (row.get(10, Integer.class)) {
+                case PostgresGroupingFunctions.GROUPED_BY_FIRST ->
+                    addCount(companies, row.get(0, String.class), count);
+                case PostgresGroupingFunctions.GROUPED_BY_SECOND ->
+                    addCount(locations, row.get(1, String.class), count);
+                case PostgresGroupingFunctions.GROUPED_BY_THIRD ->
+                    addCount(costCenters, row.get(2, String.class), count);
+                case PostgresGroupingFunctions.GROUPED_BY_FOURTH ->
+                    addCount(orderers, row.get(3, String.class), count);
+                case PostgresGroupingFunctions.GROUPED_BY_FIFTH ->
+                    addCount(deinventoried, row.get(4, Boolean.class), count);
+                case PostgresGroupingFunctions.GROUPED_BY_NOTHING -> {
+                    total = count;
+                    minId = row.get(6, Integer.class);
+                    maxId = row.get(7, Integer.class);
+                    minPrice = row.get(8, BigDecimal.class);
+                    maxPrice = row.get(9, BigDecimal.class);
+                }
+                default -> throw new IllegalStateException("Unexpected grouping set " + row.get(10));
+            }
+        }
+
+        return InventoryFacetsDTO.builder()
+                .total(total)
+                .companies(toFacetValues(companies))
+                .locations(toFacetValues(locations))
+                .costCenters(toFacetValues(costCenters))
+                .orderers(toFacetValues(orderers))
+                .tags(findTagFacets(spec))
+                .isDeinventoried(deinventoried)
+                .minId(minId)
+                .maxId(maxId)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .build();
+    }
+
+    // Counts the filtered inventory items per tag
+    private List<FacetValueDTO> findTagFacets(Specification<Inventory> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Inventory> root = query.from(Inventory.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Join<Inventory, Tag> tag = root.join("tags");
+        query.multiselect(tag.get("id"), tag.get("name"), cb.count(root))
+                .groupBy(tag.get("id"), tag.get("name"));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new FacetValueDTO(row.get(0, Integer.class), row.get(1, String.class),
+                        row.get(2, Long.class)))
+                .sorted(FACET_ORDER)
+                .toList();
+    }
+
+    private static <K> void addCount(Map<K, Long> counts, K value, long count) {
+        // Items without a value (e.g. without company) are not part of the facet
+        if (value != null) {
+            counts.merge(value, count, Long::sum);
+        }
+    }
+
+    private static List<FacetValueDTO> toFacetValues(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetValueDTO(null, entry.getKey(), entry.getValue()))
+                .sorted(FACET_ORDER)
+                .toList();
+    }
+
+    // Loads the tags of all inventory items of the range with a single query
+    private void addTags(List<InventoriesResponseDTO> inventories) {
+        if (inventories.isEmpty()) {
+            return;
+        }
+        Map<Integer, InventoriesResponseDTO> byId = new HashMap<>();
+        for (InventoriesResponseDTO inventory : inventories) {
+            byId.put(inventory.getId(), inventory);
+        }
+
+        List<Object[]> tags = entityManager
+                .createQuery("SELECT i.id, t.id, t.name FROM Inventory i JOIN i.tags t WHERE i.id IN :inventoriesIds",
+                        Object[].class)
+                .setParameter("inventoriesIds", byId.keySet())
+                .getResultList();
+        for (Object[] tag : tags) {
+            byId.get((Integer) tag[0]).getTags().add(new TagDTO((Integer) tag[1], (String) tag[2]));
+        }
+    }
+
+    @Override
+    public void insert(Inventory inventory) {
+        entityManager.persist(inventory);
+        entityManager.flush();
+    }
+
+    @Override
+    public Set<Integer> insertAll(List<Inventory> inventories) {
+        if (inventories.isEmpty()) {
+            return Set.of();
+        }
+        // Runs on the connection of the current transaction
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Set<Integer> inserted = new HashSet<>();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_INVENTORY)) {
+                for (Inventory inventory : inventories) {
+                    statement.setInt(1, inventory.getId());
+                    statement.setObject(2, inventory.getCostCenter() == null ? null : inventory.getCostCenter().getId(),
+                            Types.INTEGER);
+                    statement.setObject(3, inventory.getUser() == null ? null : inventory.getUser().getId(),
+                            Types.INTEGER);
+                    statement.setObject(4, inventory.getCompany() == null ? null : inventory.getCompany().getId(),
+                            Types.INTEGER);
+                    statement.setString(5, inventory.getDescription());
+                    statement.setString(6, inventory.getSerialNumber());
+                    statement.setBoolean(7, Boolean.TRUE.equals(inventory.getIsDeinventoried()));
+                    statement.setBigDecimal(8, inventory.getPrice());
+                    statement.setString(9, inventory.getLocation());
+                    statement.setString(10, inventory.getSearchText());
+                    statement.setString(11, inventory.getSearchDocument());
+                    statement.setObject(12, inventory.getCreatedAt());
+                    statement.addBatch();
+                }
+                int[] counts = statement.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    // No row if the ID already exists
+                    if (counts[i] != 0) {
+                        inserted.add(inventories.get(i).getId());
+                    }
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_INVENTORY_TAG)) {
+                for (Inventory inventory : inventories) {
+                    if (!inserted.contains(inventory.getId())) {
+                        continue;
+                    }
+                    for (Tag tag : inventory.getTags()) {
+                        statement.setInt(1, inventory.getId());
+                        statement.setInt(2, tag.getId());
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public void updateSearchColumns(List<Inventory> inventories) {
+        if (inventories.isEmpty()) {
+            return;
+        }
+        // Runs on the connection of the current transaction
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_SEARCH_COLUMNS)) {
+                for (Inventory inventory : inventories) {
+                    statement.setString(1, inventory.getSearchText());
+                    statement.setString(2, inventory.getSearchDocument());
+                    statement.setInt(3, inventory.getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public List<Integer> findIds(Specification<Inventory> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<Inventory> root = query.from(Inventory.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int bulkUpdate(Collection<Integer> ids, List<InventoryBulkChange> changes, Integer authorId,
+            LocalDateTime changedAt) {
+        if (ids.isEmpty() || changes.isEmpty()) {
+            return 0;
+        }
+        // Runs on the connection of the current transaction
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Array idArray = connection.createArrayOf("integer", ids.toArray());
+
+            // The history needs the values before the update
+            for (InventoryBulkChange change : changes) {
+                String insertHistory = "INSERT INTO histories (author_user_id, inventory_id, attribute_changed, "
+                        + "value_from, value_to, created_at) "
+                        + "SELECT ?, i.id, ?, COALESCE(" + change.field().currentValue() + ", 'null'), ?, ? "
+                        + "FROM inventories i WHERE i.id = ANY(?) AND i." + change.field().column()
+                        + " IS DISTINCT FROM ?";
+                try (PreparedStatement statement = connection.prepareStatement(insertHistory)) {
+                    statement.setObject(1, authorId, Types.INTEGER);
+                    statement.setString(2, change.field().attribute());
+                    statement.setString(3, change.historyValue());
+                    statement.setObject(4, changedAt);
+                    statement.setArray(5, idArray);
+                    statement.setObject(6, change.value());
+                    statement.executeUpdate();
+                }
+            }
+
+            String assignments = changes.stream()
+                    .map(change -> change.field().column() + " = ?")
+                    .collect(Collectors.joining(", "));
+            int updated;
+            try (PreparedStatement statement = connection
+                    .prepareStatement("UPDATE inventories SET " + assignments + ", version = version + 1 WHERE id = ANY(?)")) {
+                int index = 1;
+                for (InventoryBulkChange change : changes) {
+                    statement.setObject(index++, change.value());
+                }
+                statement.setArray(index, idArray);
+                updated = statement.executeUpdate();
+            }
+            idArray.free();
+            return updated;
+        });
+    }
+
+    @Override
+    public List<Object[]> findSimilarSerialNumbers(String normalizedQuery, double threshold, int limit) {
+        // Runs on the connection of the current transaction
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            // Only valid until the end of the transaction
+            try (PreparedStatement statement = connection
+                    .prepareStatement("SELECT set_config('pg_trgm.similarity_threshold', ?, true)")) {
+                statement.setString(1, Double.toString(threshold));
+                statement.execute();
+            }
+            List<Object[]> rows = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(FIND_SIMILAR_SERIAL_NUMBERS)) {
+                for (int kind = 0; kind < 3; kind++) {
+                    statement.setString(kind * 3 + 1, normalizedQuery);
+                    statement.setString(kind * 3 + 2, normalizedQuery);
+                    statement.setInt(kind * 3 + 3, limit);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(new Object[] { resultSet.getInt(1), resultSet.getObject(2, Integer.class),
+                                resultSet.getString(3), resultSet.getString(4) });
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+}
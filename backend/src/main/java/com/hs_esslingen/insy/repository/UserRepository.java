@@ -4,9 +4,12 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.model.User;
 
@@ -17,6 +20,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     @Query("SELECT u FROM User u WHERE u.name = ?1")
     Optional<User> findByName(String name);
+
+    @Query("SELECT u.id FROM User u WHERE u.name = ?1")
+    Optional<Integer> findIdByName(String name);
+
+    // Inserts the row, or returns the ID of the existing row with the same name (unique, see V4 migration)
+    // The no-op update on conflict makes RETURNING report the existing row as well
+    @Transactional
+    @Query(value = "INSERT INTO users (name) VALUES (:name) "
+            + "ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id", nativeQuery = true)
+    Integer upsertByName(@Param("name") String name);
     
     User getUsersByName(String name);
 
@@ -25,4 +38,13 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     List<User> findByNameIn(Collection<String> names);
 
+    // Distinct names starting with the prefix (lowercase, LIKE-escaped, ending with %) after a name, ordered by
+    // their lowercase form in the collation "C" along the index of V9, see DictionaryService
+    @Query(value = "SELECT u.name FROM users u "
+            + "WHERE (lower(u.name) COLLATE \"C\", u.name) > (lower(:after), :after) "
+            + "AND lower(u.name) COLLATE \"C\" LIKE :prefix ESCAPE '\\' "
+            + "GROUP BY lower(u.name) COLLATE \"C\", u.name "
+            + "ORDER BY lower(u.name) COLLATE \"C\", u.name", nativeQuery = true)
+    List<String> findNamesByPrefix(@Param("prefix") String prefix, @Param("after") String after, Limit limit);
+
 }
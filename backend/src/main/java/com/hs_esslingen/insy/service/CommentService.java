@@ -4,7 +4,6 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.hs_esslingen.insy.model.User;
-import com.hs_esslingen.insy.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,7 +23,7 @@ public class CommentService {
 
         private final CommentRepository commentRepository;
         private final InventoryRepository inventoryRepository;
-        private final UserRepository userRepository;
+        private final UserService userService;
 
         /**
          * Retrieves all comments for a specific inventory item by its ID.
@@ -63,12 +62,13 @@ public class CommentService {
          * @return the created CommentDTO
          * @throws NotFoundException if the inventory with the given ID does not exist
          */
+        @Transactional
         public CommentDTO createComment(Integer inventoryId, CommentDTO commentDTO) {
                 Inventory inventory = inventoryRepository.findById(inventoryId)
                         .orElseThrow(() -> new NotFoundException("Inventory with id: " + inventoryId + " not found"));
 
-                User author = userRepository.findByName(commentDTO.getAuthor())
-                        .orElseGet(() -> userRepository.save(new User(commentDTO.getAuthor())));
+                // Comments without author are shown as "Unknown"
+                User author = commentDTO.getAuthor() != null ? userService.resolveUser(commentDTO.getAuthor()) : null;
 
                 Comment comment = Comment.builder()
                         .inventories(inventory)
@@ -82,7 +82,7 @@ public class CommentService {
                         .id(savedComment.getId())
                         .description(savedComment.getDescription())
                         .createdAt(savedComment.getCreatedAt())
-                        .author(author.getName())
+                        .author(savedComment.getAuthor() != null ? savedComment.getAuthor().getName() : "Unknown")
                         .build();
         }
 
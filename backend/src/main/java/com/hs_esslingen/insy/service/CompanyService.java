@@ -1,16 +1,23 @@
 package com.hs_esslingen.insy.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.dto.CompanyDTO;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.exception.NotFoundException;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.repository.CompanyRepository;
+import com.hs_esslingen.insy.utils.NameIdCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,6 +26,8 @@ import lombok.RequiredArgsConstructor;
 public class CompanyService {
 
     private final CompanyRepository companyRepository;
+    // IDs of the companies resolved by name, see resolveCompany
+    private final NameIdCache companyIds = new NameIdCache(10_000);
 
     /**
      * Retrieves all companies from the repository and returns them as a CompanyDTO.
@@ -60,23 +69,70 @@ public class CompanyService {
     /**
      * Resolves a company based on the provided identifier.
      * The company can be either an Integer (company ID) or a String (company name).
+     * A company name that does not exist yet is created. Names already resolved
+     * once are looked up in memory without a query. A company resolved by name is
+     * a reference of the persistence context, which is only loaded when a field
+     * other than its ID is read.
      *
      * @param company the identifier of the company
      * @return the resolved Company object
      * @throws NotFoundException   if the company is not found
      * @throws BadRequestException if the company is neither an Integer nor a String
      */
+    @Transactional
     public Company resolveCompany(Object company) {
         if (company instanceof Integer companyId) {
             return companyRepository.findById(companyId)
                     .orElseThrow(() -> new NotFoundException("Company with id: " + companyId + " not found"));
         } else if (company instanceof String companyName) {
-            return companyRepository.findByName(companyName)
-                    .orElseGet(() -> companyRepository.save(new Company(companyName)));
+            Integer companyId = companyIds.get(companyName);
+            if (companyId == null) {
+                // Safe against concurrent creation, the name is unique
+                companyId = companyRepository.findIdByName(companyName)
+                        .orElseGet(() -> companyRepository.upsertByName(companyName));
+                companyIds.putAfterCommit(companyName, companyId);
+            }
+            return companyRepository.getReferenceById(companyId);
         }
         throw new BadRequestException("Company must be of type Integer or String");
     }
 
+    /**
+     * Resolves several companies by name at once, creating the missing ones.
+     * Names that are not cached are looked up with a single query; only names
+     * that do not exist yet need a statement each.
+     *
+     * @param names the names of the companies
+     * @return the companies by name
+     */
+    @Transactional
+    public Map<String, Company> resolveCompaniesByName(Collection<String> names) {
+        Map<String, Company> companies = new HashMap<>();
+        Set<String> uncached = new HashSet<>();
+        for (String name : names) {
+            Integer companyId = companyIds.get(name);
+            if (companyId != null) {
+                companies.put(name, companyRepository.getReferenceById(companyId));
+            } else {
+                uncached.add(name);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return companies;
+        }
+        for (Company company : companyRepository.findByNameIn(uncached)) {
+            companies.put(company.getName(), company);
+            companyIds.putAfterCommit(company.getName(), company.getId());
+            uncached.remove(company.getName());
+        }
+        for (String name : uncached) {
+            Integer companyId = companyRepository.upsertByName(name);
+            companies.put(name, companyRepository.getReferenceById(companyId));
+            companyIds.putAfterCommit(name, companyId);
+        }
+        return companies;
+    }
+
     /**
      * Creates a new company with the given name and saves it to the repository.
      *
@@ -1,15 +1,22 @@
 package com.hs_esslingen.insy.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.dto.CostCenterDTO;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.exception.NotFoundException;
 import com.hs_esslingen.insy.model.CostCenter;
 import com.hs_esslingen.insy.repository.CostCenterRepository;
+import com.hs_esslingen.insy.utils.NameIdCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,12 +25,16 @@ import lombok.RequiredArgsConstructor;
 public class CostCenterService {
 
     private final CostCenterRepository costCenterRepository;
+    // IDs of the cost centers resolved by name, see resolveCostCenter
+    private final NameIdCache costCenterIds = new NameIdCache(10_000);
 
     /**
      * Resolves a cost center based on the provided identifier.
      * If the identifier is an Integer, it looks up the cost center by ID.
      * If it's a String, it looks up the cost center by name, creating a new one if
-     * not found.
+     * not found. Names already resolved once are looked up in memory without a
+     * query. A cost center resolved by name is a reference of the persistence
+     * context, which is only loaded when a field other than its ID is read.
      *
      * @param costCenter the identifier of the cost center (Integer ID or String
      *                   name)
@@ -32,17 +43,60 @@ public class CostCenterService {
      * @throws BadRequestException if the costCenter parameter is neither Integer
      *                             nor String
      */
+    @Transactional
     public CostCenter resolveCostCenter(Object costCenter) {
         if (costCenter instanceof Integer costCenterId) {
             return costCenterRepository.findById(costCenterId)
                     .orElseThrow(() -> new NotFoundException("costCenter with id: " + costCenterId + " not found"));
         } else if (costCenter instanceof String costCenterName) {
-            return costCenterRepository.findByName(costCenterName)
-                    .orElseGet(() -> costCenterRepository.save(new CostCenter(costCenterName)));
+            Integer costCenterId = costCenterIds.get(costCenterName);
+            if (costCenterId == null) {
+                // Safe against concurrent creation, the name is unique
+                costCenterId = costCenterRepository.findIdByName(costCenterName)
+                        .orElseGet(() -> costCenterRepository.upsertByName(costCenterName));
+                costCenterIds.putAfterCommit(costCenterName, costCenterId);
+            }
+            return costCenterRepository.getReferenceById(costCenterId);
         }
         throw new BadRequestException("costCenter must be of type Integer or String");
     }
 
+    /**
+     * Resolves several cost centers by name at once, creating the missing ones.
+     * Names that are not cached are looked up with a single query; only names
+     * that do not exist yet need a statement each.
+     *
+     * @param names the names (descriptions) of the cost centers
+     * @return the cost centers by name
+     */
+    @Transactional
+    public Map<String, CostCenter> resolveCostCentersByName(Collection<String> names) {
+        Map<String, CostCenter> costCenters = new HashMap<>();
+        Set<String> uncached = new HashSet<>();
+        for (String name : names) {
+            Integer costCenterId = costCenterIds.get(name);
+            if (costCenterId != null) {
+                costCenters.put(name, costCenterRepository.getReferenceById(costCenterId));
+            } else {
+                uncached.add(name);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return costCenters;
+        }
+        for (CostCenter costCenter : costCenterRepository.findByDescriptionIn(uncached)) {
+            costCenters.put(costCenter.getDescription(), costCenter);
+            costCenterIds.putAfterCommit(costCenter.getDescription(), costCenter.getId());
+            uncached.remove(costCenter.getDescription());
+        }
+        for (String name : uncached) {
+            Integer costCenterId = costCenterRepository.upsertByName(name);
+            costCenters.put(name, costCenterRepository.getReferenceById(costCenterId));
+            costCenterIds.putAfterCommit(name, costCenterId);
+        }
+        return costCenters;
+    }
+
     /**
      * Retrieves all cost centers from the repository and returns them as a
      * CostCenterDTO.
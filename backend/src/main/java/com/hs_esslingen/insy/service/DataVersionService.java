@@ -0,0 +1,69 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Global version of the data.
+ * The version is stored in the database and incremented by every transaction
+ * that writes to it, at commit and together with the data (see
+ * V10__create_data_version.sql). This covers entities, JDBC batches and the
+ * writes of every instance, and the version survives restarts. Results computed
+ * for one version stay valid until the version changes, which makes it usable
+ * as a cache key and as ETag.
+ *
+ * The in-memory indexes of this instance are only updated after the commit (see
+ * InventoryChangedEvent), so the version also contains a local index generation
+ * that is incremented once they have been updated. A result computed from an
+ * outdated index is therefore never served for the newest version, without a
+ * second write to the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final InventoryRepository inventoryRepository;
+    // Writes of this instance whose in-memory indexes have been updated, see onInventoryChanged
+    private final AtomicLong indexGeneration = new AtomicLong();
+
+    /**
+     * Returns the current data version: the version of the database and the index
+     * generation of this instance. Reads one row, so every call queries the
+     * database.
+     */
+    public String current() {
+        // The generation is read first, so a version never claims newer indexes than the data it names
+        long generation = indexGeneration.get();
+        return inventoryRepository.findDataVersion() + "." + generation;
+    }
+
+    /**
+     * Returns a weak ETag for the current data version, valid for every response
+     * that only depends on the request and the data.
+     */
+    public String etag() {
+        return "W/\"" + current() + "\"";
+    }
+
+    /**
+     * Increments the index generation after the write has been committed.
+     * Runs after the in-memory indexes have been updated, so a result computed for
+     * the new version never sees an outdated index.
+     *
+     * @param event the event of the write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        indexGeneration.incrementAndGet();
+    }
+}
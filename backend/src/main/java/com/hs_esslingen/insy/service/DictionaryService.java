@@ -0,0 +1,84 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hs_esslingen.insy.configuration.InventorySpecification;
+import com.hs_esslingen.insy.dto.DictionaryPageDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.exception.NotFoundException;
+import com.hs_esslingen.insy.repository.CompanyRepository;
+import com.hs_esslingen.insy.repository.CostCenterRepository;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Service
+public class DictionaryService {
+
+    // Maximum number of values per page
+    private static final int MAX_LIMIT = 500;
+
+    private final InventoryRepository inventoryRepository;
+    private final CompanyRepository companyRepository;
+    private final UserRepository userRepository;
+    private final CostCenterRepository costCenterRepository;
+
+    /**
+     * Retrieves a page of the distinct values of a dictionary (locations, serial
+     * numbers, companies, users or cost centers), ordered case-insensitively by
+     * the bytes of their lowercase form (umlauts come after z), with values that
+     * only differ in case next to each other.
+     * Each query walks the index on the lowercase value (see V9) from the last
+     * value of the previous page and stops after the page, so its cost does not
+     * depend on the size of the table.
+     *
+     * @param dictionary "locations", "serialNumbers", "companies", "users" or
+     *                   "costCenters"
+     * @param prefix     only values starting with the prefix (case-insensitive),
+     *                   may be null
+     * @param after      the last value of the previous page, null for the first
+     *                   page
+     * @param limit      the maximum number of values
+     * @return the page of values
+     * @throws NotFoundException   if the dictionary does not exist
+     * @throws BadRequestException if the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public DictionaryPageDTO getValues(String dictionary, String prefix, String after, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String pattern = InventorySpecification.escapeLike(prefix == null ? "" : prefix.toLowerCase(Locale.ROOT))
+                + "%";
+        // Every non-empty value is greater than the empty string
+        String start = after == null ? "" : after;
+        // Load one more value to find out if there is a next page
+        Limit pageLimit = Limit.of(limit + 1);
+
+        List<String> values = switch (dictionary) {
+            case "locations" -> inventoryRepository.findLocationsByPrefix(pattern, start, pageLimit);
+            case "serialNumbers" -> inventoryRepository.findSerialNumbersByPrefix(pattern, start, pageLimit);
+            case "companies" -> companyRepository.findNamesByPrefix(pattern, start, pageLimit);
+            case "users" -> userRepository.findNamesByPrefix(pattern, start, pageLimit);
+            case "costCenters" -> costCenterRepository.findDescriptionsByPrefix(pattern, start, pageLimit);
+            default -> throw new NotFoundException("Dictionary " + dictionary + " not found");
+        };
+
+        boolean hasNext = values.size() > limit;
+        if (hasNext) {
+            values = values.subList(0, limit);
+        }
+        return DictionaryPageDTO.builder()
+                .values(values)
+                .next(hasNext ? values.get(limit - 1) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+}
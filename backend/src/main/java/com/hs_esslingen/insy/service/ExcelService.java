@@ -27,24 +27,24 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.hs_esslingen.insy.dto.InventoryExcel;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
 import com.hs_esslingen.insy.model.Comment;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.model.CostCenter;
 import com.hs_esslingen.insy.model.Inventory;
 import com.hs_esslingen.insy.model.User;
 import com.hs_esslingen.insy.repository.CommentRepository;
-import com.hs_esslingen.insy.repository.CompanyRepository;
-import com.hs_esslingen.insy.repository.CostCenterRepository;
 import com.hs_esslingen.insy.repository.InventoryRepository;
-import com.hs_esslingen.insy.repository.UserRepository;
 import com.hs_esslingen.insy.utils.StringParser;
 
 import lombok.AllArgsConstructor;
@@ -54,10 +54,11 @@ import lombok.AllArgsConstructor;
 public class ExcelService {
 
     private final InventoryRepository inventoryRepository;
-    private final CostCenterRepository costCentersRepository;
-    private final UserRepository userRepository;
-    private final CompanyRepository companyRepository;
+    private final CostCenterService costCenterService;
+    private final UserService userService;
+    private final CompanyService companyService;
     private final CommentRepository commentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Offset to start writing data from the specified row index
     // The first 2 Excel rows are left empty for compatibility purposes
@@ -176,10 +177,12 @@ public class ExcelService {
 
     /**
      * Imports inventory items from an Excel file (.xls or .xlsx format).
+     * The import runs in one transaction.
      *
      * @param file the Excel file to import
      * @throws IOException if an error occurs while reading the file
      */
+    @Transactional
     public void importExcel(MultipartFile file) throws IOException {
         // Check file is not empty
         if (file.isEmpty())
@@ -297,43 +300,12 @@ public class ExcelService {
                                 Collectors.toList() // Collect the comments into a list
                         )));
 
-        // 1. Get all <entity> of Excel Inventory Objects, remove duplicates & null ones
-        // 2. Get all <entity>, that are in the excel sheet, off of the database if they
-        // exist there
-        // 3. Subtract database <entity> from excel <entity> and persist excel <entity>
-        // 4. Get newly persisted <entity> from the database
-        // 5. Merge excel and newly persisted <entity> in one collection, so Inventory
-        // Item can use it for lookup
-
-        // Get all costCenters of the excel Sheet that already exist in the database
-        List<CostCenter> existingCostCenters = costCentersRepository.findByDescriptionIn(excelCostCenters);
-        // Remove the already existing costCenters from the excel's costCenters
-        excelCostCenters.removeAll(existingCostCenters.stream().map(CostCenter::getDescription).toList());
-        // Persist the now remaining excel sheets costCenters (all costCenters that are
-        // new and do not already exist in the DB)
-        // to the database;
-        List<CostCenter> costCenters = costCentersRepository
-                .saveAll(excelCostCenters.stream().map(CostCenter::new).toList());
-        // finally merge the excel sheet costCenters (that were just persisted) and the
-        // database costCenters (that already existed)
-        // and put them in a map for fast & easy access
-        Map<String, CostCenter> costCentersMap = new HashMap<>();
-        existingCostCenters.forEach(cc -> costCentersMap.put(cc.getDescription(), cc));
-        costCenters.forEach(cc -> costCentersMap.put(cc.getDescription(), cc));
-
-        List<User> existingUsers = userRepository.findByNameIn(excelUsers);
-        excelUsers.removeAll(existingUsers.stream().map(User::getName).toList());
-        List<User> users = userRepository.saveAll(excelUsers.stream().map(User::new).toList());
-        Map<String, User> usersMap = new HashMap<>();
-        existingUsers.forEach(u -> usersMap.put(u.getName(), u));
-        users.forEach(u -> usersMap.put(u.getName(), u));
-
-        List<Company> existingCompanies = companyRepository.findByNameIn(excelCompanies);
-        excelCompanies.removeAll(existingCompanies.stream().map(Company::getName).toList());
-        List<Company> companies = companyRepository.saveAll(excelCompanies.stream().map(Company::new).toList());
-        Map<String, Company> companiesMap = new HashMap<>();
-        existingCompanies.forEach(c -> companiesMap.put(c.getName(), c));
-        companies.forEach(c -> companiesMap.put(c.getName(), c));
+        // Missing cost centers, orderers and companies are created with ON CONFLICT,
+        // so a name created concurrently (e.g. by a PATCH or a comment) is reused
+        // instead of aborting the import
+        Map<String, CostCenter> costCentersMap = costCenterService.resolveCostCentersByName(excelCostCenters);
+        Map<Object, User> usersMap = userService.resolveUsers(excelUsers);
+        Map<String, Company> companiesMap = companyService.resolveCompaniesByName(excelCompanies);
 
         // Put Inventory Items to a map, for easier access when creating comments
         Map<Integer, Inventory> inventory = new HashMap<>();
@@ -350,6 +322,7 @@ public class ExcelService {
             inv.setLocation(obj.getLocation());
             inv.setCreatedAt(obj.getCreatedAt() == null ? LocalDateTime.now() : obj.getCreatedAt());
             inv.setSearchText(StringParser.fullTextSearchString(inv));
+            inv.setSearchDocument(StringParser.searchDocument(inv));
             inventory.put(obj.getInventoryNumber(), inv);
         });
         inventoryRepository.saveAll(inventory.values());
@@ -368,6 +341,7 @@ public class ExcelService {
         });
         commentRepository.saveAll(comments);
 
+        eventPublisher.publishEvent(new InventoryChangedEvent(Set.copyOf(inventory.keySet())));
     }
 
     /**
@@ -1,20 +1,27 @@
 package com.hs_esslingen.insy.service;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.hs_esslingen.insy.exception.NotFoundException;
+import com.hs_esslingen.insy.exception.PreconditionFailedException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.dto.ExtensionCreateDTO;
 import com.hs_esslingen.insy.dto.ExtensionResponseDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
 import com.hs_esslingen.insy.mapper.ExtensionMapper;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.model.Extension;
 import com.hs_esslingen.insy.model.Inventory;
-import com.hs_esslingen.insy.repository.CompanyRepository;
 import com.hs_esslingen.insy.repository.ExtensionRepository;
 import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.ETagUtils;
+import com.hs_esslingen.insy.utils.InventoryDiff;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,8 +32,10 @@ public class ExtensionService {
     private final ExtensionRepository extensionRepository;
     private final InventoryService inventoryService;
     private final InventoryRepository inventoryRepository;
-    private final CompanyRepository companyRepository;
+    private final CompanyService companyService;
+    private final HistoryWriter historyWriter;
     private final ExtensionMapper extensionMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieves all extensions for a given inventory.
@@ -51,24 +60,26 @@ public class ExtensionService {
      * @param dto         the data transfer object containing extension details
      * @return the created ExtensionsResponseDTO
      */
+    @Transactional
     public ExtensionResponseDTO addExtension(Integer inventoryId, ExtensionCreateDTO dto) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException("Inventory with id: " + inventoryId + " not found"));
 
+        InventoryDiff diff = InventoryDiff.capture(inventory, List.of(InventoryDiff.EXTENSIONS));
         Extension extension = extensionMapper.toEntity(dto);
         extension.setInventory(inventory);
 
         if (dto.getCompanyName() != null) {
-            Company company = companyRepository
-                    .findByName(dto.getCompanyName())
-                    .orElseGet(() -> companyRepository.save(new Company(dto.getCompanyName())));
+            Company company = companyService.resolveCompany(dto.getCompanyName());
             extension.setCompany(company);
         }
 
         inventory.addExtension(extension);
         inventoryService.changeFullTextSearchString(inventory);
         extensionRepository.save(extension);
+        historyWriter.submit(diff.changes(inventory, null), "Unknown");
         inventoryRepository.flush();
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventoryId));
 
         return extensionMapper.toDto(extension);
     }
@@ -107,12 +118,28 @@ public class ExtensionService {
      * @param componentId the ID of the extension to update
      * @param patchData   the data transfer object containing updated extension
      *                    details
+     * @param ifMatch     the If-Match header, the ETag of the extension as read
+     *                    by the client (may be null)
      * @return the updated ExtensionsResponseDTO
+     * @throws PreconditionFailedException if the extension has been changed since
+     *                                     the client read it
      */
-    public ExtensionResponseDTO updateExtension(Integer id, Integer componentId, ExtensionCreateDTO patchData) {
+    @Transactional
+    public ExtensionResponseDTO updateExtension(Integer id, Integer componentId, ExtensionCreateDTO patchData,
+            String ifMatch) {
 
         Extension extension = extensionRepository.findById(componentId)
                 .orElseThrow(() -> new NotFoundException("Extension not found with id: " + componentId));
+        ETagUtils.checkIfMatch(ifMatch, extension.getVersion(), "Extension with id " + componentId);
+
+        Inventory inventory = extension.getInventory();
+        // Inventories whose search text or price may change
+        Set<Integer> changedInventoryIds = new HashSet<>();
+        changedInventoryIds.add(inventory.getId());
+        // The price and the extensions of the inventory before the change, for its history
+        InventoryDiff diff = InventoryDiff.capture(inventory, List.of(InventoryDiff.PRICE, InventoryDiff.EXTENSIONS));
+        InventoryDiff newInventoryDiff = null;
+        Inventory newInventory = null;
 
         // If CompanyName is present in the patch data and differs from the current one
         if (patchData.getCompanyName() != null
@@ -120,12 +147,9 @@ public class ExtensionService {
 
             // Search for the company by name
             // If the company doesn't exist, create it
-            Company company = companyRepository
-                    .findByName(patchData.getCompanyName())
-                    .orElseGet(() -> companyRepository.save(new Company(patchData.getCompanyName())));
+            Company company = companyService.resolveCompany(patchData.getCompanyName());
 
             extension.setCompany(company);
-            company.addExtension(extension);
         }
 
         // Update the fields present in the patch data
@@ -138,7 +162,6 @@ public class ExtensionService {
         }
 
         if (patchData.getPrice() != null) {
-            Inventory inventory = extension.getInventory();
             // If price is updated, the inventory's price must be adjusted
             if (inventory.getPrice() == null) {
                 inventory.setPrice(patchData.getPrice());
@@ -160,16 +183,26 @@ public class ExtensionService {
             inventoryService.changeFullTextSearchString(oldInventory);
 
             // Find the new inventory
-            Inventory newInventory = inventoryRepository.findById(patchData.getInventoryId())
+            newInventory = inventoryRepository.findById(patchData.getInventoryId())
                     .orElseThrow(
                             () -> new NotFoundException("Inventory not found with id: " + patchData.getInventoryId()));
 
             // Add the extension to the new inventory
+            newInventoryDiff = InventoryDiff.capture(newInventory, List.of(InventoryDiff.EXTENSIONS));
             newInventory.addExtension(extension);
             inventoryService.changeFullTextSearchString(newInventory);
+            changedInventoryIds.add(newInventory.getId());
         }
 
         Extension updated = extensionRepository.save(extension);
+        // The extension endpoints do not receive a user
+        historyWriter.submit(diff.changes(inventory, null), "Unknown");
+        if (newInventoryDiff != null) {
+            historyWriter.submit(newInventoryDiff.changes(newInventory, null), "Unknown");
+        }
+        // Writes the change now, so a concurrent change fails here and the ETag carries the new version
+        extensionRepository.flush();
+        eventPublisher.publishEvent(new InventoryChangedEvent(changedInventoryIds));
         return extensionMapper.toDto(updated);
     }
 
@@ -178,18 +211,28 @@ public class ExtensionService {
      *
      * @param id          the ID of the inventory
      * @param componentId the ID of the extension to delete
+     * @param ifMatch     the If-Match header, the ETag of the extension as read
+     *                    by the client (may be null)
+     * @throws PreconditionFailedException if the extension has been changed since
+     *                                     the client read it
      */
-    public void deleteExtension(Integer id, Integer componentId) {
+    @Transactional
+    public void deleteExtension(Integer id, Integer componentId, String ifMatch) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Inventory not found with id: " + id));
 
         Extension extension = extensionRepository.findById(componentId)
                 .orElseThrow(() -> new NotFoundException("Extension not found with id: " + componentId));
+        ETagUtils.checkIfMatch(ifMatch, extension.getVersion(), "Extension with id " + componentId);
 
         // Remove the Extension from the inventory
+        InventoryDiff diff = InventoryDiff.capture(inventory, List.of(InventoryDiff.EXTENSIONS));
         inventory.removeExtension(extension);
 
         // Remove the Extension from the database
         extensionRepository.delete(extension);
+        // The extension endpoints do not receive a user
+        historyWriter.submit(diff.changes(inventory, null), "Unknown");
+        eventPublisher.publishEvent(InventoryChangedEvent.of(id));
     }
 }
@@ -16,15 +16,18 @@ import lombok.AllArgsConstructor;
 public class HistoryService {
 
     private final HistoryRepository historyRepository;
+    private final HistoryWriter historyWriter;
 
     /**
      * Retrieves the history of changes for a specific inventory item by its ID.
-     * The history is sorted by creation date in ascending order.
+     * The history is sorted by creation date in ascending order and contains the
+     * entries that are still in the outbox of the HistoryWriter.
      *
      * @param id the ID of the inventory item
      * @return a ResponseEntity containing a list of HistoryResponseDTO objects
      */
     public ResponseEntity<List<HistoryResponseDTO>> getHistory(Integer id) {
+        historyWriter.flush(id);
         List<History> history = historyRepository.getHistoriesByInventory_IdOrderByCreatedAtAsc(id);
         List<HistoryResponseDTO> historyDTO = history.stream().map(entry -> {
             HistoryResponseDTO historyResponseDTO = new HistoryResponseDTO();
@@ -0,0 +1,284 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hs_esslingen.insy.model.History;
+import com.hs_esslingen.insy.repository.HistoryOutboxEntry;
+import com.hs_esslingen.insy.repository.HistoryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes the history of inventory changes through a transactional outbox, so
+ * that a PATCH does not wait for resolving the author and inserting into the
+ * history. A change inserts its entries into history_outbox within its own
+ * transaction, so they are exactly as durable as the change. A background
+ * thread resolves the authors and moves the entries to histories, one batch of
+ * up to MAX_BATCH_SIZE entries per transaction.
+ *
+ * The writer is woken up after every commit and also polls the outbox, which
+ * picks up the entries of other instances and of a previous run. On shutdown,
+ * the writer stops after the web server, so no new changes arrive, and moves
+ * all entries before the database connections are closed; entries it cannot
+ * move in time stay in the outbox for the next start. Entries that fail are
+ * kept in the outbox with their error and retried up to MAX_ATTEMPTS times.
+ * Reading the history calls flush first, so a client always sees its own
+ * changes.
+ */
+@Slf4j
+@Service
+public class HistoryWriter implements SmartLifecycle {
+
+    // Maximum number of entries moved in one transaction
+    private static final int MAX_BATCH_SIZE = 500;
+    // Entries that failed this often are no longer retried and stay in the outbox
+    private static final int MAX_ATTEMPTS = 5;
+    // Interval of polling the outbox when the writer is not woken up
+    private static final long POLL_INTERVAL_MILLIS = 5_000;
+    // Maximum time to move the remaining entries on shutdown
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final HistoryRepository historyRepository;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Guards running and wakeUpRequested
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private boolean running;
+    // Whether entries have been committed since the writer last looked at the outbox
+    private boolean wakeUpRequested;
+
+    private Thread writer;
+
+    public HistoryWriter(HistoryRepository historyRepository, UserService userService,
+            PlatformTransactionManager transactionManager) {
+        this.historyRepository = historyRepository;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Every batch is committed on its own, also when flush is called within a transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Inserts history entries into the outbox within the transaction of the
+     * change, so the history of a rolled back change is never written and the
+     * history of a committed change is never lost. The writer is woken up once
+     * the transaction has been committed.
+     *
+     * @param histories  the entries, their author is set when they are moved
+     * @param authorName the name of the author, created if it does not exist
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void submit(List<History> histories, String authorName) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("History entries must be submitted within the transaction of the change");
+        }
+        historyRepository.insertIntoOutbox(histories, authorName);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestWakeUp();
+            }
+        });
+    }
+
+    /**
+     * Moves all entries of an inventory item from the outbox to the history.
+     * Returns once the entries the writer is moving right now are in the
+     * history as well.
+     *
+     * @param inventoryId the ID of the inventory item
+     */
+    public void flush(Integer inventoryId) {
+        move(() -> historyRepository.lockOutboxOf(inventoryId, MAX_ATTEMPTS));
+    }
+
+    private void requestWakeUp() {
+        lock.lock();
+        try {
+            wakeUpRequested = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Loop of the writer thread, ends once stopped and the outbox is empty
+    private void run() {
+        while (true) {
+            boolean stopping;
+            lock.lock();
+            try {
+                if (running && !wakeUpRequested) {
+                    wakeUp.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                wakeUpRequested = false;
+                stopping = !running;
+            } catch (InterruptedException e) {
+                // The entries stay in the outbox
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                while (move(() -> historyRepository.lockOutbox(MAX_ATTEMPTS, MAX_BATCH_SIZE)) == MAX_BATCH_SIZE) {
+                    // The outbox may contain more entries
+                }
+            } catch (RuntimeException e) {
+                // E.g. the database is not reachable, the entries stay in the outbox
+                log.error("Could not move history entries from the outbox", e);
+            }
+            if (stopping) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Locks entries of the outbox, resolves their authors and moves them to the
+     * history in one transaction. If that fails, e.g. because of a single broken
+     * entry, the entries are moved one by one, so only the failing ones stay in
+     * the outbox.
+     *
+     * @param lockEntries locks the entries to move
+     * @return the number of locked entries
+     */
+    private int move(Supplier<List<HistoryOutboxEntry>> lockEntries) {
+        List<HistoryOutboxEntry> locked = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                locked.addAll(lockEntries.get());
+                moveEntries(locked);
+            });
+            return locked.size();
+        } catch (RuntimeException e) {
+            if (locked.size() <= 1) {
+                if (locked.isEmpty()) {
+                    throw e;
+                }
+                recordFailure(locked.get(0), e);
+                return 1;
+            }
+            log.warn("Could not move {} history entries in one batch, moving them one by one", locked.size(), e);
+        }
+        for (HistoryOutboxEntry entry : locked) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> moveEntries(List.of(entry)));
+            } catch (RuntimeException e) {
+                recordFailure(entry, e);
+            }
+        }
+        return locked.size();
+    }
+
+    private void moveEntries(List<HistoryOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Set<String> authorNames = new LinkedHashSet<>();
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (HistoryOutboxEntry entry : entries) {
+            authorNames.add(entry.authorName());
+            ids.add(entry.id());
+        }
+        // Creates the authors that do not exist yet, the move looks them up by name
+        userService.resolveUsers(authorNames);
+        historyRepository.moveFromOutbox(ids);
+    }
+
+    // Keeps the entry in the outbox with its error, it is retried until MAX_ATTEMPTS
+    private void recordFailure(HistoryOutboxEntry entry, RuntimeException error) {
+        int attempts;
+        try {
+            attempts = transactionTemplate.execute(status -> historyRepository.recordOutboxFailure(entry.id(),
+                    String.valueOf(error)));
+        } catch (RuntimeException e) {
+            log.error("Could not move history entry {} from the outbox, it stays there", entry.id(), error);
+            return;
+        }
+        if (attempts >= MAX_ATTEMPTS) {
+            log.error("Could not move history entry {} from the outbox after {} attempts, "
+                    + "it is no longer retried and stays in history_outbox", entry.id(), attempts, error);
+        } else {
+            log.error("Could not move history entry {} from the outbox (attempt {}), it will be retried",
+                    entry.id(), attempts, error);
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            // Moves the entries left over from a previous run
+            wakeUpRequested = true;
+        } finally {
+            lock.unlock();
+        }
+        writer = new Thread(this::run, "history-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("History writer did not finish within {} s, the remaining entries stay in the outbox",
+                    TimeUnit.MILLISECONDS.toSeconds(SHUTDOWN_TIMEOUT_MILLIS));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lower phases are stopped later: after the web server, before the data source is closed
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,241 @@
+package com.hs_esslingen.insy.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hs_esslingen.insy.dto.InventoryBatchResultDTO;
+import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.mapper.InventoryMapper;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.repository.TagRepository;
+import com.hs_esslingen.insy.utils.StringParser;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Creates many inventory items in one request, e.g. for a goods receipt.
+ * Instead of the statements of addInventory per item, every distinct cost
+ * center, company, orderer and tag is resolved with one query per kind (cost
+ * centers, companies and orderers only for the otherwise valid items), the
+ * existing IDs are checked with one query, and the items and their tags are
+ * inserted with one JDBC batch each. Invalid items are reported per item and do
+ * not prevent the others from being created.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryBatchService {
+
+    // Maximum number of items per request
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final TagRepository tagRepository;
+    private final CostCenterService costCenterService;
+    private final CompanyService companyService;
+    private final UserService userService;
+    private final InventoryMapper inventoriesMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Creates the given inventory items.
+     *
+     * @param dtos the inventory items to create
+     * @return one result per item, in the order of the request
+     * @throws BadRequestException if the request is empty or too large
+     */
+    @Transactional
+    public List<InventoryBatchResultDTO> addInventories(List<InventoryCreateRequestDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new BadRequestException("At least one inventory item is required");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " inventory items are allowed per request");
+        }
+        if (dtos.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Inventory items must not be null");
+        }
+
+        // One query each for the existing IDs and the tags of the request
+        List<Integer> ids = dtos.stream()
+                .map(InventoryCreateRequestDTO::getInventoriesId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Set<Integer> existingIds = ids.isEmpty() ? Set.of() : inventoryRepository.findInventoriesIdIn(ids);
+        Set<Integer> tagIds = dtos.stream()
+                .filter(dto -> dto.getTags() != null)
+                .flatMap(dto -> dto.getTags().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Tag> tags = tagIds.isEmpty() ? Map.of()
+                : tagRepository.findAllById(tagIds).stream().collect(Collectors.toMap(Tag::getId, Function.identity()));
+
+        // Validate the items first, so that rejected items create no cost centers, companies or users
+        InventoryBatchResultDTO[] results = new InventoryBatchResultDTO[dtos.size()];
+        List<Integer> valid = new ArrayList<>();
+        Set<Integer> requestedIds = new HashSet<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            InventoryCreateRequestDTO dto = dtos.get(i);
+            String error = validate(dto, existingIds, requestedIds, tags);
+            if (error != null) {
+                results[i] = failed(dto, error);
+                continue;
+            }
+            requestedIds.add(dto.getInventoriesId());
+            valid.add(i);
+        }
+
+        // One query per kind for all distinct values of the valid items
+        List<InventoryCreateRequestDTO> validDtos = valid.stream().map(dtos::get).toList();
+        Map<String, CostCenter> costCenters = costCenterService.resolveCostCentersByName(
+                distinctValues(validDtos, InventoryCreateRequestDTO::getCostCenter));
+        Map<String, Company> companies = companyService.resolveCompaniesByName(
+                distinctValues(validDtos, InventoryCreateRequestDTO::getCompany));
+        Map<Object, User> users = userService.resolveUsers(
+                distinctValues(validDtos, InventoryCreateRequestDTO::getOrderer));
+
+        List<Inventory> inventories = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i : valid) {
+            InventoryCreateRequestDTO dto = dtos.get(i);
+            String error = validateReferences(dto, costCenters, companies, users);
+            if (error != null) {
+                results[i] = failed(dto, error);
+                continue;
+            }
+            inventories.add(toInventory(dto, costCenters, companies, users, tags));
+            positions.add(i);
+        }
+
+        Set<Integer> insertedIds = inventoryRepository.insertAll(inventories);
+        for (int i = 0; i < inventories.size(); i++) {
+            Inventory inventory = inventories.get(i);
+            // Created concurrently since the check above
+            boolean created = insertedIds.contains(inventory.getId());
+            results[positions.get(i)] = InventoryBatchResultDTO.builder()
+                    .inventoriesId(inventory.getId())
+                    .created(created)
+                    .inventory(created ? inventoriesMapper.toDto(inventory) : null)
+                    .error(created ? null : "Inventory with id " + inventory.getId() + " already exists")
+                    .build();
+        }
+        if (!insertedIds.isEmpty()) {
+            eventPublisher.publishEvent(new InventoryChangedEvent(insertedIds));
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Checks the ID, price and tags of an item, before any reference is resolved.
+     *
+     * @return the reason why the item cannot be created, or null if it is valid
+     */
+    private String validate(InventoryCreateRequestDTO dto, Set<Integer> existingIds, Set<Integer> requestedIds,
+            Map<Integer, Tag> tags) {
+        Integer id = dto.getInventoriesId();
+        if (id == null) {
+            return "Inventory id is required";
+        }
+        if (existingIds.contains(id)) {
+            return "Inventory with id " + id + " already exists";
+        }
+        if (requestedIds.contains(id)) {
+            return "Inventory with id " + id + " is contained more than once";
+        }
+        if (dto.getPrice() != null && dto.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            return "Price cannot be negative.";
+        }
+        if (dto.getTags() != null) {
+            for (Integer tagId : dto.getTags()) {
+                if (!tags.containsKey(tagId)) {
+                    return "Tag with id: " + tagId + " not found";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the cost center, company and orderer of a valid item against the
+     * values resolved for the valid items of the request.
+     *
+     * @return the reason why the item cannot be created, or null if it is valid
+     */
+    private String validateReferences(InventoryCreateRequestDTO dto, Map<String, CostCenter> costCenters,
+            Map<String, Company> companies, Map<Object, User> users) {
+        if (!costCenters.containsKey(dto.getCostCenter())) {
+            return "costCenter must be of type Integer or String";
+        }
+        if (!companies.containsKey(dto.getCompany())) {
+            return "Company must be of type Integer or String";
+        }
+        if (!users.containsKey(dto.getOrderer())) {
+            return dto.getOrderer() instanceof Integer userId
+                    ? "Orderer with id: " + userId + " not found"
+                    : "orderer must be of type Integer or String.";
+        }
+        return null;
+    }
+
+    private static InventoryBatchResultDTO failed(InventoryCreateRequestDTO dto, String error) {
+        return InventoryBatchResultDTO.builder()
+                .inventoriesId(dto.getInventoriesId())
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Builds the inventory item like addInventory does.
+     */
+    private Inventory toInventory(InventoryCreateRequestDTO dto, Map<String, CostCenter> costCenters,
+            Map<String, Company> companies, Map<Object, User> users, Map<Integer, Tag> tags) {
+        Inventory inventory = new Inventory();
+        inventory.setId(dto.getInventoriesId());
+        inventory.setCostCenter(costCenters.get(dto.getCostCenter()));
+        inventory.setCompany(companies.get(dto.getCompany()));
+        inventory.setUser(users.get(dto.getOrderer()));
+        // Make sure that the price has always 2 descendants, 0 if not set
+        inventory.setPrice(dto.getPrice() == null ? BigDecimal.ZERO : dto.getPrice().setScale(2, RoundingMode.HALF_UP));
+        inventory.setDescription(dto.getDescription());
+        inventory.setSerialNumber(dto.getSerialNumber());
+        inventory.setLocation(dto.getLocation());
+        if (dto.getTags() != null) {
+            dto.getTags().forEach(tagId -> inventory.getTags().add(tags.get(tagId)));
+        }
+        inventory.setSearchText(StringParser.fullTextSearchString(inventory));
+        inventory.setSearchDocument(StringParser.searchDocument(inventory));
+        return inventory;
+    }
+
+    // Distinct non-null values of a field over all items
+    private static <T> Set<T> distinctValues(List<InventoryCreateRequestDTO> dtos,
+            Function<InventoryCreateRequestDTO, T> field) {
+        Set<T> values = new HashSet<>();
+        for (InventoryCreateRequestDTO dto : dtos) {
+            T value = field.apply(dto);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,162 @@
+package com.hs_esslingen.insy.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hs_esslingen.insy.dto.InventoryBulkPatchDTO;
+import com.hs_esslingen.insy.dto.InventoryBulkResultDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.repository.InventoryBulkChange;
+import com.hs_esslingen.insy.repository.InventoryBulkChange.Field;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.StringParser;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Changes many inventory items at once, e.g. moving a room to another location
+ * or deinventorying all items of a cost center.
+ * Instead of loading, diffing and saving every item like updateInventory, the
+ * items are changed with set-based statements: one history insert per changed
+ * field and one update of the items. Their search columns are then computed
+ * with StringParser from one query and written with one JDBC batch.
+ * Only the fields that are shared by many items can be changed this way.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryBulkService {
+
+    // Maximum number of items per request
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    private final CostCenterService costCenterService;
+    private final CompanyService companyService;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Applies the patch to the given inventory items, or to all items matching the
+     * filter if no IDs are given.
+     *
+     * @param filter  Filters of the inventory list, used if no IDs are given
+     * @param request the IDs, the patch and the author
+     * @return the number of selected and updated items
+     * @throws BadRequestException if the patch is invalid, no items are selected
+     *                             or too many items are selected
+     */
+    @Transactional
+    public InventoryBulkResultDTO patchInventories(InventoryFilterDTO filter, InventoryBulkPatchDTO request) {
+        if (request == null || request.getPatch() == null || request.getPatch().isEmpty()) {
+            throw new BadRequestException("Patch is required");
+        }
+        // Check the patch before selecting the items
+        List<InventoryBulkChange> changes = resolveChanges(request.getPatch());
+        if (changes.isEmpty()) {
+            throw new BadRequestException("Patch does not contain any value");
+        }
+
+        Set<Integer> ids;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getIds().stream().anyMatch(Objects::isNull)) {
+                throw new BadRequestException("Inventory ids must not be null");
+            }
+            ids = new LinkedHashSet<>(request.getIds());
+        } else {
+            // Load one more to find out if there are too many
+            ids = new LinkedHashSet<>(inventoryService.findInventoryIds(filter, MAX_BULK_SIZE + 1));
+        }
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("At most " + MAX_BULK_SIZE + " inventory items can be changed at once");
+        }
+        if (ids.isEmpty()) {
+            return new InventoryBulkResultDTO(0, 0);
+        }
+
+        String userName = request.getUserName();
+        User author = userService.resolveUser(userName != null && !userName.isBlank() ? userName : "Unknown");
+
+        int updated = inventoryRepository.bulkUpdate(ids, changes, author.getId(),
+                LocalDateTime.now(ZoneId.of("Europe/Berlin")));
+        if (updated > 0) {
+            refreshSearchColumns(ids);
+            eventPublisher.publishEvent(new InventoryChangedEvent(ids));
+        }
+        return new InventoryBulkResultDTO(ids.size(), updated);
+    }
+
+    // The search columns contain the changed fields, computed with StringParser like for created items
+    private void refreshSearchColumns(Set<Integer> ids) {
+        List<Inventory> inventories = inventoryRepository.findWithSearchFieldsByIdIn(ids);
+        for (Inventory inventory : inventories) {
+            inventory.setSearchText(StringParser.fullTextSearchString(inventory));
+            inventory.setSearchDocument(StringParser.searchDocument(inventory));
+        }
+        inventoryRepository.updateSearchColumns(inventories);
+    }
+
+    /**
+     * Converts the patch into the new column values, resolving the referenced
+     * entities like updateInventory. Null values are ignored like in
+     * updateInventory.
+     */
+    private List<InventoryBulkChange> resolveChanges(Map<String, Object> patch) {
+        List<InventoryBulkChange> changes = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            Object fieldValue = entry.getValue();
+            if (fieldValue == null) {
+                continue;
+            }
+            switch (entry.getKey()) {
+                case "location":
+                    if (!(fieldValue instanceof String location)) {
+                        throw new BadRequestException("location must be of type String");
+                    }
+                    changes.add(new InventoryBulkChange(Field.LOCATION, location, location));
+                    break;
+                case "cost_center":
+                    CostCenter costCenter = costCenterService.resolveCostCenter(fieldValue);
+                    changes.add(new InventoryBulkChange(Field.COST_CENTER, costCenter.getId(),
+                            costCenter.getDescription()));
+                    break;
+                case "company":
+                    Company company = companyService.resolveCompany(fieldValue);
+                    changes.add(new InventoryBulkChange(Field.COMPANY, company.getId(), company.getName()));
+                    break;
+                case "orderer":
+                    User user = userService.resolveUser(fieldValue);
+                    // The history of single updates records the ID of the orderer
+                    changes.add(new InventoryBulkChange(Field.ORDERER, user.getId(), user.getId().toString()));
+                    break;
+                case "is_deinventoried":
+                    if (!(fieldValue instanceof Boolean isDeinventoried)) {
+                        throw new BadRequestException("is_deinventoried must be of type Boolean");
+                    }
+                    changes.add(new InventoryBulkChange(Field.IS_DEINVENTORIED, isDeinventoried,
+                            isDeinventoried.toString()));
+                    break;
+                default:
+                    throw new BadRequestException(
+                            "Field " + entry.getKey() + " cannot be changed for several items at once");
+            }
+        }
+        return changes;
+    }
+}
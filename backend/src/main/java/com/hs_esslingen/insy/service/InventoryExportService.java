@@ -0,0 +1,240 @@
+package com.hs_esslingen.insy.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryCursorPageDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.dto.TagDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.exception.InternalServerErrorException;
+import com.hs_esslingen.insy.exception.TooManyRequestsException;
+import com.hs_esslingen.insy.utils.OrderByUtils;
+import com.hs_esslingen.insy.utils.TokenBucket;
+
+/**
+ * Streams complete filtered result sets of the inventory list as NDJSON or CSV.
+ * The rows are read page by page with keyset pagination (see
+ * InventoryService.scrollInventories), every page in its own short transaction,
+ * and written page by page, so memory use does not depend on the size of the
+ * result and no database connection is held while the rows are written. Every
+ * client has a token bucket that limits the rows per second; it waits after a
+ * page has been read, so a throttled export does not hold a connection either.
+ * The number of concurrent exports is limited in total and per client, further
+ * exports are rejected with 429 Too Many Requests.
+ *
+ * Since the pages are read in separate transactions, an export is not a single
+ * snapshot: an item changed during the export appears in the state of the page
+ * it was read with.
+ */
+@Service
+public class InventoryExportService {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private static final String[] CSV_HEADER = {
+            "id", "description", "serial_number", "price", "location", "cost_center", "company", "orderer",
+            "is_deinventoried", "created_at", "tags"
+    };
+
+    private enum Format {
+        NDJSON, CSV
+    }
+
+    private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final int rowsPerSecond;
+    private final int maxExportsPerClient;
+    // Rate limit per client, dropped when the client has not exported for a while
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .maximumSize(10_000)
+            .build();
+    // Running exports in total and per client
+    private final Semaphore exportSlots;
+    private final ConcurrentHashMap<String, Integer> runningExports = new ConcurrentHashMap<>();
+
+    public InventoryExportService(
+            InventoryService inventoryService,
+            ObjectMapper objectMapper,
+            @Value("${insy.export.page-size:500}") int pageSize,
+            @Value("${insy.export.rows-per-second:5000}") int rowsPerSecond,
+            @Value("${insy.export.max-concurrent:4}") int maxExports,
+            @Value("${insy.export.max-concurrent-per-client:1}") int maxExportsPerClient) {
+        this.inventoryService = inventoryService;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+        this.rowsPerSecond = rowsPerSecond;
+        this.maxExportsPerClient = maxExportsPerClient;
+        this.exportSlots = new Semaphore(maxExports);
+    }
+
+    /**
+     * Exports all inventory items matching the filters.
+     * The filters and the ordering behave like in
+     * InventoryService.getAllInventories.
+     *
+     * @param filter    Filters of the inventory list
+     * @param orderBy   Field to order results by
+     * @param direction Direction of sorting (asc/desc)
+     * @param format    "ndjson" (one JSON object per line) or "csv"
+     * @param clientId  Identifies the client for the rate and concurrency limits (e.g.
+     *                  the user)
+     * @return ResponseEntity whose body writes the rows while they are read
+     * @throws BadRequestException      if the format or the orderBy field is unknown
+     * @throws TooManyRequestsException if too many exports are running in total
+     *                                  or for this client
+     */
+    public ResponseEntity<StreamingResponseBody> exportInventories(
+            InventoryFilterDTO filter,
+            String orderBy,
+            String direction,
+            String format,
+            String clientId) {
+
+        Format exportFormat = parseFormat(format);
+        // Checked before the response is started, the body runs after this method has returned
+        if (orderBy != null && !orderBy.isEmpty() && !OrderByUtils.ALLOWED_ORDER_BY_FIELDS.contains(orderBy)) {
+            throw new BadRequestException("Invalid orderBy-field: " + orderBy);
+        }
+        TokenBucket bucket = buckets.get(clientId, id -> new TokenBucket(rowsPerSecond, rowsPerSecond));
+        // Released when the body has been written
+        acquireSlot(clientId);
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                if (exportFormat == Format.CSV) {
+                    writeCsvRow(writer, CSV_HEADER);
+                }
+                String cursor = null;
+                do {
+                    InventoryCursorPageDTO page = inventoryService.scrollInventories(filter, orderBy, direction,
+                            cursor, pageSize);
+                    // The page has been read and its transaction is finished, waiting holds no connection
+                    bucket.acquire(page.getContent().size());
+                    for (InventoriesResponseDTO inventory : page.getContent()) {
+                        if (exportFormat == Format.CSV) {
+                            writeCsvRow(writer, toCsvRow(inventory));
+                        } else {
+                            writer.write(objectMapper.writeValueAsString(inventory));
+                            writer.write('\n');
+                        }
+                    }
+                    // Send every page right away instead of buffering the whole response
+                    writer.flush();
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InternalServerErrorException("Export was interrupted");
+            } finally {
+                releaseSlot(clientId);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == Format.CSV ? CSV : NDJSON);
+        if (exportFormat == Format.CSV) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventories.csv\"");
+        }
+        return response.body(body);
+    }
+
+    // Takes one of the slots of all exports and one of the slots of the client
+    private void acquireSlot(String clientId) {
+        if (!exportSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports are running, try again later");
+        }
+        boolean[] acquired = new boolean[1];
+        runningExports.compute(clientId, (id, running) -> {
+            int count = running == null ? 0 : running;
+            if (count >= maxExportsPerClient) {
+                return running;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        if (!acquired[0]) {
+            exportSlots.release();
+            throw new TooManyRequestsException("An export of this client is already running, try again later");
+        }
+    }
+
+    private void releaseSlot(String clientId) {
+        runningExports.computeIfPresent(clientId, (id, running) -> running <= 1 ? null : running - 1);
+        exportSlots.release();
+    }
+
+    private static Format parseFormat(String format) {
+        if (format == null || format.isEmpty()) {
+            return Format.NDJSON;
+        }
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid format: " + format);
+        }
+    }
+
+    private static String[] toCsvRow(InventoriesResponseDTO inventory) {
+        List<TagDTO> tags = inventory.getTags();
+        return new String[] {
+                String.valueOf(inventory.getId()),
+                inventory.getDescription(),
+                inventory.getSerialNumber(),
+                inventory.getPrice() == null ? null : inventory.getPrice().toPlainString(),
+                inventory.getLocation(),
+                inventory.getCostCenter(),
+                inventory.getCompany(),
+                inventory.getOrderer(),
+                inventory.getIsDeinventoried() == null ? null : inventory.getIsDeinventoried().toString(),
+                inventory.getCreatedAt() == null ? null : inventory.getCreatedAt().toString(),
+                tags == null ? null : tags.stream().map(TagDTO::getName).collect(Collectors.joining(";"))
+        };
+    }
+
+    // Writes one CSV line as described in RFC 4180, null values are written as empty fields
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
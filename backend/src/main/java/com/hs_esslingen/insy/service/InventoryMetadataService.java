@@ -0,0 +1,195 @@
+package com.hs_esslingen.insy.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hs_esslingen.insy.dto.IdDTO;
+import com.hs_esslingen.insy.dto.InventoryMetadataDTO;
+import com.hs_esslingen.insy.dto.PriceDTO;
+import com.hs_esslingen.insy.exception.InternalServerErrorException;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filter metadata of the inventory list in one response: ID and price bounds,
+ * locations, serial numbers, companies and cost centers.
+ * Every dimension has its own version in the database, which only changes with
+ * the data of the dimension (see V13__create_metadata_versions.sql). The result
+ * is cached, and after a write only the lookups of the changed dimensions run
+ * again, in parallel. The versions are shared by all instances. If the refresh
+ * takes longer than insy.metadata.refresh-timeout, the previous result is
+ * returned while the refresh completes in the background.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryMetadataService {
+
+    // Dimensions of the metadata, as stored in metadata_versions
+    private static final String IDS = "ids";
+    private static final String PRICES = "prices";
+    private static final String LOCATIONS = "locations";
+    private static final String SERIAL_NUMBERS = "serial_numbers";
+    private static final String COMPANIES = "companies";
+    private static final String COST_CENTERS = "cost_centers";
+
+    // Result of the lookups for the versions of the dimensions
+    private record Snapshot(Map<String, Long> versions, InventoryMetadataDTO metadata) {
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final LocationService locationService;
+    private final SerialNumberService serialNumberService;
+    private final CompanyService companyService;
+    private final CostCenterService costCenterService;
+
+    // One thread per lookup, see load
+    private final ExecutorService executor = Executors.newFixedThreadPool(6, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "inventory-metadata-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private volatile Snapshot snapshot;
+    private CompletableFuture<Snapshot> refresh;
+
+    @Value("${insy.metadata.refresh-timeout:PT0.5S}")
+    private Duration refreshTimeout;
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the filter metadata of the inventory list.
+     *
+     * @return the metadata of the current versions, or of previous ones if the
+     *         refresh is slow
+     * @throws InternalServerErrorException if the metadata could not be loaded
+     *                                      and there is no previous result
+     */
+    public InventoryMetadataDTO getMetadata() {
+        Map<String, Long> versions = new HashMap<>();
+        for (Object[] row : inventoryRepository.findMetadataVersions()) {
+            versions.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        Snapshot current = snapshot;
+        if (current != null && current.versions().equals(versions)) {
+            return current.metadata();
+        }
+
+        CompletableFuture<Snapshot> pending = startRefresh(versions);
+        if (current == null) {
+            try {
+                return pending.join().metadata();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new InternalServerErrorException("Could not load the inventory metadata");
+            }
+        }
+
+        try {
+            return pending.get(refreshTimeout.toMillis(), TimeUnit.MILLISECONDS).metadata();
+        } catch (TimeoutException e) {
+            // Serve the previous result, the refresh continues in the background
+            return current.metadata();
+        } catch (ExecutionException e) {
+            log.warn("Refreshing the inventory metadata failed, serving the previous result", e.getCause());
+            return current.metadata();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return current.metadata();
+        }
+    }
+
+    // Only one refresh runs at a time, later requests wait for the running one
+    private synchronized CompletableFuture<Snapshot> startRefresh(Map<String, Long> versions) {
+        if (refresh == null || refresh.isDone()) {
+            refresh = load(snapshot, versions).thenApply(loaded -> {
+                snapshot = loaded;
+                return loaded;
+            });
+        }
+        return refresh;
+    }
+
+    // Runs the lookups of the dimensions whose version differs from the previous result
+    private CompletableFuture<Snapshot> load(Snapshot previous, Map<String, Long> versions) {
+        InventoryMetadataDTO old = previous != null ? previous.metadata() : null;
+        CompletableFuture<IdDTO> ids = lookup(previous, versions, IDS,
+                () -> old.getIds(), this::loadIds);
+        CompletableFuture<PriceDTO> prices = lookup(previous, versions, PRICES,
+                () -> old.getPrices(), this::loadPrices);
+        CompletableFuture<Set<String>> locations = lookup(previous, versions, LOCATIONS,
+                () -> old.getLocations(), () -> locationService.getAllLocations().getLocations());
+        CompletableFuture<Set<String>> serialNumbers = lookup(previous, versions, SERIAL_NUMBERS,
+                () -> old.getSerialNumbers(), () -> serialNumberService.getAllSerialNumbers().getSerialNumbers());
+        CompletableFuture<List<String>> companies = lookup(previous, versions, COMPANIES,
+                () -> old.getCompanies(), () -> companyService.getAllCompanies().getCompanies());
+        CompletableFuture<List<String>> costCenters = lookup(previous, versions, COST_CENTERS,
+                () -> old.getCostCenters(), () -> costCenterService.getAllCostCenter().getCostCenters());
+
+        return CompletableFuture.allOf(ids, prices, locations, serialNumbers, companies, costCenters)
+                .thenApply(done -> new Snapshot(versions, InventoryMetadataDTO.builder()
+                        .ids(ids.join())
+                        .prices(prices.join())
+                        .locations(locations.join())
+                        .serialNumbers(serialNumbers.join())
+                        .companies(companies.join())
+                        .costCenters(costCenters.join())
+                        .build()));
+    }
+
+    // Keeps the previous value of an unchanged dimension, otherwise runs the lookup on the executor
+    private <T> CompletableFuture<T> lookup(Snapshot previous, Map<String, Long> versions, String dimension,
+            Supplier<T> previousValue, Supplier<T> loader) {
+        if (previous != null && versions.containsKey(dimension)
+                && versions.get(dimension).equals(previous.versions().get(dimension))) {
+            return CompletableFuture.completedFuture(previousValue.get());
+        }
+        return CompletableFuture.supplyAsync(loader, executor);
+    }
+
+    private IdDTO loadIds() {
+        return new IdDTO(inventoryRepository.findMaxId(), inventoryRepository.findMinId());
+    }
+
+    // Rounded outwards like PriceService, so the bounds include every price
+    private PriceDTO loadPrices() {
+        List<Object[]> bounds = inventoryRepository.findPriceBounds();
+        BigDecimal minPrice = bounds.isEmpty() ? null : (BigDecimal) bounds.get(0)[0];
+        BigDecimal maxPrice = bounds.isEmpty() ? null : (BigDecimal) bounds.get(0)[1];
+        return new PriceDTO(
+                maxPrice == null ? null : maxPrice.setScale(0, RoundingMode.CEILING).intValue(),
+                minPrice == null ? null : minPrice.setScale(0, RoundingMode.FLOOR).intValue());
+    }
+}
@@ -0,0 +1,149 @@
+package com.hs_esslingen.insy.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache for the results of the inventory list.
+ * Results are cached per data version (see DataVersionService), normalized
+ * filter, sorting and page. Every write increments the data version, so a cached result is never
+ * outdated: after a write, requests use new keys and the old entries are evicted
+ * by size or age. The version is stored in the database (see
+ * DataVersionService), so writes of other instances invalidate the cache as
+ * well.
+ *
+ * A result is loaded within a read-only transaction that only a cache miss
+ * opens; a hit just reads the data version.
+ *
+ * Hits, misses and evictions are exported as cache.* metrics with the name
+ * "inventoryQueries".
+ */
+@Service
+public class InventoryQueryCacheService {
+
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Cache<Key, Slice<InventoriesResponseDTO>> cache;
+
+    public InventoryQueryCacheService(
+            DataVersionService dataVersionService,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${insy.cache.inventory-queries.enabled:true}") boolean enabled,
+            @Value("${insy.cache.inventory-queries.max-size:1000}") long maxSize,
+            @Value("${insy.cache.inventory-queries.ttl:PT5M}") Duration ttl) {
+        this.dataVersionService = dataVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventoryQueries");
+    }
+
+    /**
+     * Returns the cached result of the inventory list or loads and caches it.
+     *
+     * @param filter     Filters of the inventory list
+     * @param orderBy    Field to order results by
+     * @param direction  Direction of sorting
+     * @param searchMode Search mode of the search text
+     * @param countMode  How the total is determined
+     * @param pageable   Pagination information
+     * @param loader     Loads the result on a cache miss, runs within a read-only
+     *                   transaction
+     * @return the result of the inventory list
+     */
+    public Slice<InventoriesResponseDTO> get(
+            InventoryFilterDTO filter,
+            String orderBy,
+            String direction,
+            String searchMode,
+            String countMode,
+            Pageable pageable,
+            Supplier<Slice<InventoriesResponseDTO>> loader) {
+
+        if (!enabled) {
+            return load(loader);
+        }
+        // The version is read before loading, so a result is never cached for a newer version than it saw
+        Key key = new Key(dataVersionService.current(), FilterKey.of(filter), orderBy == null ? "" : orderBy.trim(),
+                normalize(direction), normalize(searchMode), normalize(countMode), pageable);
+        return cache.get(key, k -> load(loader));
+    }
+
+    private Slice<InventoriesResponseDTO> load(Supplier<Slice<InventoriesResponseDTO>> loader) {
+        return transactionTemplate.execute(status -> loader.get());
+    }
+
+    // Values that are compared case-insensitively by InventoryService
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Sorted without duplicates, null for an empty list; the list filters only check membership
+    private static <T extends Comparable<? super T>> List<T> normalize(List<T> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().distinct().sorted(Comparator.nullsFirst(Comparator.naturalOrder())).toList();
+    }
+
+    private record Key(String version, FilterKey filter, String orderBy, String direction,
+            String searchMode, String countMode, Pageable pageable) {
+    }
+
+    // Immutable copy of the filter in which filters with the same result are equal, so a later change of
+    // the DTO does not affect the key. Blank search texts and an empty or "any" tag match mean no filter,
+    // like in InventoryService.
+    private record FilterKey(List<Integer> tags, String tagMatch, List<Integer> excludeTags, Integer minId,
+            Integer maxId, Integer minPrice, Integer maxPrice, Boolean isDeinventoried, List<String> orderer,
+            List<String> company, List<String> location, List<String> costCenter, List<String> serialNumber,
+            LocalDate createdAfter, LocalDate createdBefore, String searchText) {
+
+        static FilterKey of(InventoryFilterDTO filter) {
+            String tagMatch = filter.getTagMatch() == null ? "" : filter.getTagMatch().toLowerCase(Locale.ROOT);
+            String searchText = filter.getSearchText();
+            return new FilterKey(
+                    normalize(filter.getTags()),
+                    tagMatch.isEmpty() || tagMatch.equals("any") ? null : tagMatch,
+                    normalize(filter.getExcludeTags()),
+                    filter.getMinId(),
+                    filter.getMaxId(),
+                    filter.getMinPrice(),
+                    filter.getMaxPrice(),
+                    filter.getIsDeinventoried(),
+                    normalize(filter.getOrderer()),
+                    normalize(filter.getCompany()),
+                    normalize(filter.getLocation()),
+                    normalize(filter.getCostCenter()),
+                    normalize(filter.getSerialNumber()),
+                    filter.getCreatedAfter(),
+                    filter.getCreatedBefore(),
+                    searchText == null || searchText.isBlank() ? null : searchText.trim());
+        }
+    }
+}
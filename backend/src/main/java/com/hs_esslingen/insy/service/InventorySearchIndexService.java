@@ -0,0 +1,136 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.NGramIndex;
+import com.hs_esslingen.insy.utils.StringParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional in-process search engine for the inventory full-text search.
+ * Keeps an n-gram index over the search_text column in memory, so that a
+ * searchText filter can be resolved to a set of inventory IDs without a database
+ * scan. The index is built at startup and updated incrementally after every
+ * committed write (see InventoryChangedEvent).
+ *
+ * Enabled with insy.search.ngram-index.enabled=true. Since the index lives in the
+ * JVM, it only sees writes of its own instance and is meant for single-instance
+ * deployments.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventorySearchIndexService {
+
+    private final InventoryRepository inventoryRepository;
+    private final NGramIndex index = new NGramIndex();
+
+    @Value("${insy.search.ngram-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    private final Object buildLock = new Object();
+    // IDs of the items changed while the index is built, null otherwise. Guarded by buildLock.
+    private Set<Integer> changedDuringBuild;
+
+    /**
+     * Builds the index from all inventory items once the application has started.
+     * Items changed while the index is built may be read in an older state, so
+     * their events are collected and re-indexed once the build has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        synchronized (buildLock) {
+            changedDuringBuild = new HashSet<>();
+        }
+        index.clear();
+        for (Object[] row : inventoryRepository.findAllSearchTexts()) {
+            index.put((Integer) row[0], (String) row[1]);
+        }
+        Set<Integer> changed;
+        synchronized (buildLock) {
+            changed = changedDuringBuild;
+            changedDuringBuild = null;
+        }
+        // Read again after the build, so the index contains at least the committed state of the events
+        reindex(changed);
+        ready = true;
+        log.info("Built inventory search index with {} items in {} ms", index.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-indexes the changed inventory items after the write has been committed.
+     * Items that no longer exist are removed from the index. While the index is
+     * built, the IDs are only collected and re-indexed by buildIndex.
+     *
+     * @param event the event containing the IDs of the changed inventory items
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before the index generation is incremented, see DataVersionService
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!enabled || event.inventoryIds().isEmpty()) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.addAll(event.inventoryIds());
+                return;
+            }
+        }
+        reindex(event.inventoryIds());
+    }
+
+    private void reindex(Set<Integer> inventoryIds) {
+        if (inventoryIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> deleted = new HashSet<>(inventoryIds);
+        for (Object[] row : inventoryRepository.findSearchTextsByIdIn(inventoryIds)) {
+            Integer id = (Integer) row[0];
+            index.put(id, (String) row[1]);
+            deleted.remove(id);
+        }
+        deleted.forEach(index::remove);
+    }
+
+    /**
+     * Returns whether the index is enabled and has been built.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Finds all inventory items whose search text contains the given text.
+     *
+     * @param searchText the text to search for
+     * @return the IDs of all matching inventory items
+     */
+    public BitSet search(String searchText) {
+        return index.search(StringParser.normalizeSearchText(searchText));
+    }
+}
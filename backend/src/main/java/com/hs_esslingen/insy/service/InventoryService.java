@@ -2,41 +2,56 @@ package com.hs_esslingen.insy.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.javers.core.Javers;
-import org.javers.core.diff.Diff;
-import org.javers.core.diff.changetype.ValueChange;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.configuration.InventorySpecification;
 import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
 import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.dto.InventoryCursorPageDTO;
+import com.hs_esslingen.insy.dto.InventoryFacetsDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.exception.NotFoundException;
+import com.hs_esslingen.insy.exception.PreconditionFailedException;
 import com.hs_esslingen.insy.mapper.InventoryMapper;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.model.CostCenter;
-import com.hs_esslingen.insy.model.History;
 import com.hs_esslingen.insy.model.Inventory;
 import com.hs_esslingen.insy.model.User;
-import com.hs_esslingen.insy.repository.HistoryRepository;
 import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.InventoryCursor;
+import com.hs_esslingen.insy.utils.ETagUtils;
+import com.hs_esslingen.insy.utils.InventoryDiff;
 import com.hs_esslingen.insy.utils.OrderByUtils;
 import com.hs_esslingen.insy.utils.RelationUtils;
 import com.hs_esslingen.insy.utils.StringParser;
@@ -53,12 +68,29 @@ public class InventoryService {
     private final InventoryMapper inventoriesMapper;
     private final UserService userService;
     private final CostCenterService costCenterService;
-    private final HistoryRepository historyRepository;
-    private final Javers javers;
+    private final HistoryWriter historyWriter;
+    private final InventorySearchIndexService searchIndexService;
+    private final TagIndexService tagIndexService;
+    private final InventoryQueryCacheService queryCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // How the total number of items of the inventory list is determined
+    private enum CountMode {
+        EXACT, NONE, ESTIMATE
+    }
+
+    // Maximum page size of the cursor-based inventory list
+    private static final int MAX_SCROLL_SIZE = 1000;
+
+    // SQLSTATE of PostgreSQL for a duplicate key
+    private static final String UNIQUE_VIOLATION = "23505";
 
     /**
      * Retrieves an inventory item by its ID.
      *
+     * The response carries the version of the item as ETag, for the If-Match
+     * header of updateInventory and deleteInventory.
+     *
      * @param id the ID of the inventory item
      * @return ResponseEntity containing the inventory item if found,
      *         or a 404 Not Found status if the item does not exist.
@@ -67,7 +99,10 @@ public class InventoryService {
         Optional<Inventory> inventory = inventoryRepository.findById(id);
         if (inventory.isPresent()) {
             InventoriesResponseDTO responseDTO = inventoriesMapper.toDto(inventory.get());
-            return ResponseEntity.ok(responseDTO);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(ETagUtils.of(inventory.get().getVersion()))
+                    .body(responseDTO);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -75,78 +110,58 @@ public class InventoryService {
 
     /**
      * Retrieves all inventory items based on the provided filters and pagination.
+     * Not transactional, only a cache miss opens a transaction (see
+     * InventoryQueryCacheService).
      *
-     * @param tags            List of tag IDs to filter by
-     * @param minId           Minimum ID for filtering
-     * @param maxId           Maximum ID for filtering
-     * @param minPrice        Minimum price for filtering
-     * @param maxPrice        Maximum price for filtering
-     * @param isDeinventoried Filter by deinventoried status
-     * @param orderers        List of orderer IDs to filter by
-     * @param companies       List of company names to filter by
-     * @param locations       List of locations to filter by
-     * @param costCenters     List of cost center descriptions to filter by
-     * @param serialNumbers   List of serial numbers to filter by
-     * @param createdAfter    Filter for creation date after this date
-     * @param createdBefore   Filter for creation date before this date
-     * @param orderBy         Field to order results by
-     * @param direction       Direction of sorting (asc/desc)
-     * @param searchText      Text to search in inventory items
-     * @param pageable        Pagination information
-     * @return Page containing filtered and sorted inventory items as DTOs
+     * @param filter     Filters of the inventory list
+     * @param orderBy    Field to order results by
+     * @param direction  Direction of sorting (asc/desc)
+     * @param searchMode "substring" (default) or "ranked" for the stemmed,
+     *                   relevance-ranked full-text search
+     * @param countMode  "exact" (default) counts all matching items,
+     *                   "none" skips the count and returns a Slice,
+     *                   "estimate" uses the planner's row estimate for
+     *                   unfiltered lists and counts exactly otherwise
+     * @param pageable   Pagination information
+     * @return Page (or Slice for countMode "none") containing filtered and sorted
+     *         inventory items as DTOs, cached until the next write (see
+     *         InventoryQueryCacheService)
      */
-    public Page<InventoriesResponseDTO> getAllInventories(
-            List<Integer> tags,
-            Integer minId,
-            Integer maxId,
-            Integer minPrice,
-            Integer maxPrice,
-            Boolean isDeinventoried,
-            List<String> orderers,
-            List<String> companies,
-            List<String> locations,
-            List<String> costCenters,
-            List<String> serialNumbers,
-            LocalDate createdAfter,
-            LocalDate createdBefore,
+    public Slice<InventoriesResponseDTO> getAllInventories(
+            InventoryFilterDTO filter,
             String orderBy,
             String direction,
-            String searchText,
+            String searchMode,
+            String countMode,
             Pageable pageable) {
 
-        // Convert LocalDate query parameters to LocalDateTime
-        // to make filtering work with the database
+        return queryCacheService.get(filter, orderBy, direction, searchMode, countMode, pageable,
+                () -> loadAllInventories(filter, orderBy, direction, searchMode, countMode, pageable));
+    }
 
-        // Set start time to 00:00 to include all entries from this date
-        LocalDateTime createdAfterTime = createdAfter != null ? createdAfter.atStartOfDay() : null;
-        // Set end time to 23:59:59 to include all entries until this date
-        LocalDateTime createdBeforeTime = createdBefore != null ? createdBefore.plusDays(1).atStartOfDay().minusNanos(1)
-                : null;
+    // Runs the query of the inventory list, see getAllInventories
+    private Slice<InventoriesResponseDTO> loadAllInventories(
+            InventoryFilterDTO filter,
+            String orderBy,
+            String direction,
+            String searchMode,
+            String countMode,
+            Pageable pageable) {
 
-        /*
-         * Creates SQL-like query with the following form:
-         * SELECT * FROM inventories
-         * WHERE
-         * tag_id IN (...)
-         * AND id BETWEEN ...
-         * AND price BETWEEN ...
-         * AND ...
-         */
-        Specification<Inventory> spec = Specification
-                .where(InventorySpecification.hasTagId(tags))
-                .and(InventorySpecification.idBetween(minId, maxId))
-                .and(InventorySpecification.priceBetween(minPrice, maxPrice))
-                .and(InventorySpecification.isDeinventoried(isDeinventoried))
-                .and(InventorySpecification.hasOrderers(orderers))
-                .and(InventorySpecification.hasCompanies(companies))
-                .and(InventorySpecification.hasLocations(locations))
-                .and(InventorySpecification.hasCostCenters(costCenters))
-                .and(InventorySpecification.hasSerialNumbers(serialNumbers))
-                .and(InventorySpecification.createdBetween(createdAfterTime, createdBeforeTime))
-                .and(InventorySpecification.hasSearchText(searchText));
+        CountMode mode = parseCountMode(countMode);
+        String searchText = filter.getSearchText();
+        boolean rankedSearch = isRankedSearch(searchMode) && searchText != null && !searchText.isBlank();
+
+        Specification<Inventory> spec = filterSpecification(filter)
+                .and(rankedSearch
+                        ? InventorySpecification.matchesFullText(searchText)
+                        : searchTextSpecification(searchText));
 
         // Create sorting
-        if (orderBy != null && !orderBy.isEmpty()) {
+        // A ranked search is always sorted by relevance, see InventorySpecification.matchesFullText
+        if (rankedSearch) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        } else if (orderBy != null && !orderBy.isEmpty()) {
             // Check if the orderBy field is allowed
             if (!OrderByUtils.ALLOWED_ORDER_BY_FIELDS.contains(orderBy)) {
                 throw new BadRequestException("Invalid orderBy-field: " + orderBy);
@@ -174,40 +189,365 @@ public class InventoryService {
             }
         }
 
-        Page<Inventory> page = inventoryRepository.findAll(spec, pageable);
+        // Without a filter the planner's row estimate of the table replaces the count
+        if (mode == CountMode.ESTIMATE && isUnfiltered(filter)) {
+            return estimatedPage(spec, pageable);
+        }
+
+        // Skip the count and only check if there is a next page
+        if (mode == CountMode.NONE) {
+            List<InventoriesResponseDTO> inventories = inventoryRepository.findListRange(spec, pageable.getSort(),
+                    pageable.getOffset(), pageable.getPageSize() + 1);
+            boolean hasNext = inventories.size() > pageable.getPageSize();
+            if (hasNext) {
+                inventories = inventories.subList(0, pageable.getPageSize());
+            }
+            return new SliceImpl<>(inventories, pageable, hasNext);
+        }
+
+        // The count query is skipped if the page already shows the total (e.g. the last page)
+        Specification<Inventory> listSpec = spec;
+        List<InventoriesResponseDTO> inventories = inventoryRepository.findListRange(listSpec, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(inventories, pageable, () -> inventoryRepository.count(listSpec));
+    }
+
+    /**
+     * Creates a page whose total is the planner's row estimate of the inventory
+     * table instead of an exact count.
+     * The total is corrected with the rows that were actually loaded, so it is
+     * exact on the last page and never smaller than the rows seen so far.
+     *
+     * @param spec     the Specification of the query
+     * @param pageable the requested page
+     * @return the page with an estimated total
+     */
+    private Page<InventoriesResponseDTO> estimatedPage(Specification<Inventory> spec, Pageable pageable) {
+        List<InventoriesResponseDTO> inventories = inventoryRepository.findListRange(spec, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = inventories.size() > pageable.getPageSize();
+        if (hasNext) {
+            inventories = inventories.subList(0, pageable.getPageSize());
+        }
+
+        long seen = pageable.getOffset() + inventories.size();
+        long total;
+        if (!hasNext) {
+            total = seen;
+        } else {
+            Long estimate = inventoryRepository.estimateRowCount();
+            // The estimate is negative as long as the table has never been analyzed
+            total = estimate != null && estimate >= 0 ? Math.max(estimate, seen + 1) : inventoryRepository.count();
+        }
+
+        return new PageImpl<>(inventories, pageable, total);
+    }
+
+    /**
+     * Checks which count mode is requested.
+     *
+     * @param countMode the count mode, "exact", "none" or "estimate" (null means
+     *                  "exact")
+     * @return the count mode
+     * @throws BadRequestException if the count mode is unknown
+     */
+    private static CountMode parseCountMode(String countMode) {
+        if (countMode == null || countMode.isEmpty()) {
+            return CountMode.EXACT;
+        }
+        try {
+            return CountMode.valueOf(countMode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid countMode: " + countMode);
+        }
+    }
+
+    // Checks if none of the filters of the inventory list is set (tagMatch alone does not filter)
+    private static boolean isUnfiltered(InventoryFilterDTO filter) {
+        return isUnset(filter.getTags(), filter.getExcludeTags(), filter.getMinId(), filter.getMaxId(),
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getIsDeinventoried(), filter.getOrderer(),
+                filter.getCompany(), filter.getLocation(), filter.getCostCenter(), filter.getSerialNumber(),
+                filter.getCreatedAfter(), filter.getCreatedBefore(), filter.getSearchText());
+    }
+
+    // Checks if none of the values is set, empty lists and blank strings count as not set
+    private static boolean isUnset(Object... values) {
+        for (Object filter : values) {
+            if (filter instanceof Collection<?> collection) {
+                if (!collection.isEmpty()) {
+                    return false;
+                }
+            } else if (filter instanceof String string) {
+                if (!string.isBlank()) {
+                    return false;
+                }
+            } else if (filter != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves inventory items with keyset (cursor) pagination.
+     * Instead of skipping a number of rows, every page starts right after the
+     * last row of the previous page, which is stored in the cursor. This keeps
+     * the cost of a page independent of its depth in the list.
+     * The filters behave like in
+     * {@link #getAllInventories}, the ranked search mode is not supported.
+     *
+     * @param filter    Filters of the inventory list
+     * @param orderBy   Field to order results by
+     * @param direction Direction of sorting (asc/desc)
+     * @param cursor    Cursor returned with the previous page, null for the first
+     *                  page
+     * @param size      Number of items per page
+     * @return the page of inventory items and the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public InventoryCursorPageDTO scrollInventories(
+            InventoryFilterDTO filter,
+            String orderBy,
+            String direction,
+            String cursor,
+            int size) {
+
+        if (orderBy == null || orderBy.isEmpty()) {
+            orderBy = "id";
+        }
+        if (!OrderByUtils.ALLOWED_ORDER_BY_FIELDS.contains(orderBy)) {
+            throw new BadRequestException("Invalid orderBy-field: " + orderBy);
+        }
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        InventoryCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = InventoryCursor.decode(cursor);
+            // A cursor is only valid for the ordering it was created with
+            if (!orderBy.equals(after.orderBy()) || !sortDirection.name().equals(after.direction())) {
+                throw new BadRequestException("Cursor does not match orderBy and direction");
+            }
+        }
+
+        Specification<Inventory> spec = filterSpecification(filter)
+                .and(searchTextSpecification(filter.getSearchText()));
+
+        // Load one more row to find out if there is a next page
+        List<InventoriesResponseDTO> inventories = inventoryRepository.findListRange(
+                spec.and(InventorySpecification.keysetAfter(orderBy, sortDirection, after)), Sort.unsorted(), 0,
+                size + 1);
+        // The cursor only continues within the rows with or without a sort key, a short page
+        // is completed with the following ones (see InventorySpecification.keysetAfter)
+        boolean sectionFollows = after != null && !"id".equals(orderBy)
+                && (after.key() != null) == (sortDirection == Sort.Direction.ASC);
+        if (sectionFollows && inventories.size() <= size) {
+            List<InventoriesResponseDTO> page = new ArrayList<>(inventories);
+            page.addAll(inventoryRepository.findListRange(
+                    spec.and(InventorySpecification.keysetNextSection(orderBy, sortDirection)), Sort.unsorted(), 0,
+                    size + 1 - inventories.size()));
+            inventories = page;
+        }
+        boolean hasNext = inventories.size() > size;
+        if (hasNext) {
+            inventories = inventories.subList(0, size);
+        }
+
+        return InventoryCursorPageDTO.builder()
+                .content(inventories)
+                .size(inventories.size())
+                .nextCursor(hasNext
+                        ? InventoryCursor.after(orderBy, sortDirection, inventories.get(size - 1)).encode()
+                        : null)
+                .hasNext(hasNext)
+                .build();
+    }
 
-        return page.map(inventoriesMapper::toDto);
+    /**
+     * Retrieves the facets of the inventory list for the given filters: the number
+     * of matching items per company, location, cost center, orderer, tag and
+     * deinventoried status, and the bounds of ID and price.
+     *
+     * @param filter Filters of the inventory list
+     * @return the facets of the filtered inventory items
+     */
+    @Transactional(readOnly = true)
+    public InventoryFacetsDTO getFacets(InventoryFilterDTO filter) {
+        Specification<Inventory> spec = filterSpecification(filter)
+                .and(searchTextSpecification(filter.getSearchText()));
+        return inventoryRepository.findFacets(spec);
+    }
+
+    /**
+     * Retrieves the IDs of the inventory items matching the filters of the
+     * inventory list, e.g. for changing all of them at once. The search text is
+     * matched as substring.
+     *
+     * @param filter Filters of the inventory list, at least one must be set
+     * @param limit  Maximum number of IDs
+     * @return the IDs of the filtered inventory items
+     * @throws BadRequestException if no filter is set
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> findInventoryIds(InventoryFilterDTO filter, int limit) {
+        if (isUnfiltered(filter)) {
+            throw new BadRequestException("At least one filter is required");
+        }
+        Specification<Inventory> spec = filterSpecification(filter)
+                .and(searchTextSpecification(filter.getSearchText()));
+        return inventoryRepository.findIds(spec, limit);
+    }
+
+    /**
+     * Creates the filter shared by the inventory list, the cursor-based list and
+     * the facets. The search text is not part of it, since the list supports
+     * different search modes.
+     *
+     * @param filter Filters of the inventory list
+     * @return the Specification combining all set filters
+     */
+    private Specification<Inventory> filterSpecification(InventoryFilterDTO filter) {
+        LocalDate createdAfter = filter.getCreatedAfter();
+        LocalDate createdBefore = filter.getCreatedBefore();
+
+        // Convert LocalDate query parameters to LocalDateTime
+        // to make filtering work with the database
+
+        // Set start time to 00:00 to include all entries from this date
+        LocalDateTime createdAfterTime = createdAfter != null ? createdAfter.atStartOfDay() : null;
+        // Set end time to 23:59:59 to include all entries until this date
+        LocalDateTime createdBeforeTime = createdBefore != null ? createdBefore.plusDays(1).atStartOfDay().minusNanos(1)
+                : null;
+
+        /*
+         * Creates SQL-like query with the following form:
+         * SELECT * FROM inventories
+         * WHERE
+         * tag_id IN (...)
+         * AND id BETWEEN ...
+         * AND price BETWEEN ...
+         * AND ...
+         */
+        return Specification
+                .where(tagSpecification(filter.getTags(), filter.getTagMatch(), filter.getExcludeTags()))
+                .and(InventorySpecification.idBetween(filter.getMinId(), filter.getMaxId()))
+                .and(InventorySpecification.priceBetween(filter.getMinPrice(), filter.getMaxPrice()))
+                .and(InventorySpecification.isDeinventoried(filter.getIsDeinventoried()))
+                .and(InventorySpecification.hasOrderers(filter.getOrderer()))
+                .and(InventorySpecification.hasCompanies(filter.getCompany()))
+                .and(InventorySpecification.hasLocations(filter.getLocation()))
+                .and(InventorySpecification.hasCostCenters(filter.getCostCenter()))
+                .and(InventorySpecification.hasSerialNumbers(filter.getSerialNumber()))
+                .and(InventorySpecification.createdBetween(createdAfterTime, createdBeforeTime));
+    }
+
+    /**
+     * Creates the filter for the tags.
+     * If the in-memory tag index is enabled, the filter is resolved to a set of IDs
+     * with bitmap operations. Otherwise, or if too many items match for an ID
+     * filter, the tags are checked with subqueries on inventory_tag.
+     *
+     * @param tags        the tags to match
+     * @param tagMatch    "any" (default) or "all"
+     * @param excludeTags the tags an item must not have
+     * @return the Specification filtering by the tags
+     * @throws BadRequestException if tagMatch is unknown
+     */
+    private Specification<Inventory> tagSpecification(List<Integer> tags, String tagMatch, List<Integer> excludeTags) {
+        boolean matchAll = isMatchAll(tagMatch);
+        boolean hasTags = tags != null && !tags.isEmpty();
+        boolean hasExcludedTags = excludeTags != null && !excludeTags.isEmpty();
+        if (!hasTags && !hasExcludedTags) {
+            return InventorySpecification.hasTagId(tags);
+        }
+
+        if (tagIndexService.isReady()) {
+            BitSet ids = tagIndexService.match(tags, matchAll, excludeTags);
+            if (ids.cardinality() <= InventorySpecification.MAX_ID_FILTER_SIZE) {
+                return InventorySpecification.idIn(ids);
+            }
+        }
+        return Specification
+                .where(matchAll ? InventorySpecification.hasAllTagIds(tags) : InventorySpecification.hasTagId(tags))
+                .and(InventorySpecification.hasNoneOfTagIds(excludeTags));
+    }
+
+    /**
+     * Checks how the tags of the tag filter are combined.
+     *
+     * @param tagMatch "any" or "all" (null means "any")
+     * @return true if an item needs all tags
+     * @throws BadRequestException if tagMatch is unknown
+     */
+    private static boolean isMatchAll(String tagMatch) {
+        if (tagMatch == null || tagMatch.isEmpty() || "any".equalsIgnoreCase(tagMatch)) {
+            return false;
+        }
+        if ("all".equalsIgnoreCase(tagMatch)) {
+            return true;
+        }
+        throw new BadRequestException("Invalid tagMatch: " + tagMatch);
+    }
+
+    /**
+     * Checks which search mode is requested.
+     *
+     * @param searchMode the search mode, "substring" or "ranked" (null means
+     *                   "substring")
+     * @return true if the ranked full-text search is requested
+     * @throws BadRequestException if the search mode is unknown
+     */
+    private static boolean isRankedSearch(String searchMode) {
+        if (searchMode == null || searchMode.isEmpty() || "substring".equalsIgnoreCase(searchMode)) {
+            return false;
+        }
+        if ("ranked".equalsIgnoreCase(searchMode)) {
+            return true;
+        }
+        throw new BadRequestException("Invalid searchMode: " + searchMode);
+    }
+
+    /**
+     * Creates the filter for the full-text search.
+     * If the in-memory search index is enabled, the search text is resolved to a
+     * set of IDs without touching the database. Otherwise, or if the search matches
+     * too many items for an ID filter, the search runs on the search_text column.
+     *
+     * @param searchText the text to search for
+     * @return the Specification filtering by the search text
+     */
+    private Specification<Inventory> searchTextSpecification(String searchText) {
+        if (searchText == null || searchText.isBlank() || !searchIndexService.isReady()) {
+            return InventorySpecification.hasSearchText(searchText);
+        }
+        BitSet ids = searchIndexService.search(searchText);
+        if (ids.cardinality() > InventorySpecification.MAX_ID_FILTER_SIZE) {
+            return InventorySpecification.hasSearchText(searchText);
+        }
+        return InventorySpecification.idIn(ids);
     }
 
     /**
      * Adds a new inventory item.
+     * Runs in one transaction with a fixed number of statements: one query for the
+     * tags and the inserts of the item and its tag assignments, plus the lookups of
+     * cost center, company and orderer that are not cached yet. The response is
+     * built from the new entity without reading it back.
      *
      * @param dto the DTO containing the inventory item data
      * @return ResponseEntity containing the created inventory item
      * @throws BadRequestException if the inventory ID already exists
+     * @throws NotFoundException   if any of the tags does not exist
      */
+    @Transactional
     public InventoriesResponseDTO addInventory(InventoryCreateRequestDTO dto) {
         Inventory inventory = new Inventory();
 
-        // Check if an inventory with this ID already exists
-        if (inventoryRepository.existsById(dto.getInventoriesId())) {
-            // If it exists throw an exception
-            throw new BadRequestException("Inventory with id " + dto.getInventoriesId() + " already exists");
-        }
         // Set ID
         inventory.setId(dto.getInventoriesId());
 
-        // Get or create the CostCenter
-        CostCenter costCenter = costCenterService.resolveCostCenter(dto.getCostCenter());
-        inventory.setCostCenter(costCenter);
-
-        // Get or create the Company
-        Company company = companyService.resolveCompany(dto.getCompany());
-        inventory.setCompany(company);
-
-        // Get or create the User
-        User user = userService.resolveUser(dto.getOrderer());
-
         // Check if price is a valid positive number and set price if true, else throw
         // an exception
         if (dto.getPrice() != null) {
@@ -221,25 +561,41 @@ public class InventoryService {
             // If price is not set, set it to 0
             inventory.setPrice(BigDecimal.ZERO);
         }
+
+        // Get or create the CostCenter
+        CostCenter costCenter = costCenterService.resolveCostCenter(dto.getCostCenter());
+        inventory.setCostCenter(costCenter);
+
+        // Get or create the Company
+        Company company = companyService.resolveCompany(dto.getCompany());
+        inventory.setCompany(company);
+
+        // Get or create the User
+        User user = userService.resolveUser(dto.getOrderer());
+
         // Set remaining fields
         inventory.setDescription(dto.getDescription());
         inventory.setSerialNumber(dto.getSerialNumber());
         inventory.setLocation(dto.getLocation());
         inventory.setUser(user);
+        inventory.setTags(tagService.resolveTags(dto.getTags()));
 
         inventory.setSearchText(StringParser.fullTextSearchString(inventory));
+        inventory.setSearchDocument(StringParser.searchDocument(inventory));
+
+        // The primary key rejects an existing ID, no need to check it beforehand
+        try {
+            inventoryRepository.insert(inventory);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new BadRequestException("Inventory with id " + dto.getInventoriesId() + " already exists");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventory.getId()));
 
-        // Save to allow adding tags to inventory
-        inventoryRepository.save(inventory);
-
-        // 6. Link tags
-
-        tagService.addTagsToInventory(inventory.getId(), dto.getTags());
-
-        // Needs to be fetched again because the newly added Tags are not in the DTO
-        Inventory updatedInventory = inventoryRepository.findById(inventory.getId()).orElseThrow();
-
-        return inventoriesMapper.toDto(updatedInventory);
+        return inventoriesMapper.toDto(inventory);
     }
 
     /**
@@ -247,13 +603,18 @@ public class InventoryService {
      * If the item does not exist, returns a 404 Not Found status.
      *
      * @param id
+     * @param ifMatch the If-Match header, the ETag of the item as read by the client (may be null)
      * @return ResponseEntity with no content if the item was deleted,
      *         or a 404 Not Found status if the item does not exist.
+     * @throws PreconditionFailedException if the item has been changed since the client read it
      */
-    public ResponseEntity<Void> deleteInventory(Integer id) {
+    @Transactional
+    public ResponseEntity<Void> deleteInventory(Integer id, String ifMatch) {
         Optional<Inventory> inventory = inventoryRepository.findById(id);
         if (inventory.isPresent()) {
+            ETagUtils.checkIfMatch(ifMatch, inventory.get().getVersion(), "Inventory with id " + id);
             inventoryRepository.delete(inventory.get());
+            eventPublisher.publishEvent(InventoryChangedEvent.of(id));
             return ResponseEntity.noContent().build();
         } else {
             throw new NotFoundException("Inventory with id " + id + " not found.");
@@ -265,22 +626,32 @@ public class InventoryService {
      * The patch data is a map where the keys are field names and the values are the
      * new values for those fields.
      *
+     * Concurrent updates are detected by the version of the item: the update
+     * fails if the item has been changed since the client read it (If-Match) or
+     * since it was loaded here (optimistic locking). The check, the change and
+     * its history are written in one transaction.
+     *
      * @param id
      * @param patchData
+     * @param ifMatch   the If-Match header, the ETag of the item as read by the client (may be null)
      * @return ResponseEntity of type InventoriesResponseDTO containing the updated
-     *         inventory item,
+     *         inventory item and its new ETag,
      *         or a 404 Not Found status if the item does not exist.
+     * @throws PreconditionFailedException if the item has been changed since the client read it
      */
-    public ResponseEntity<InventoriesResponseDTO> updateInventory(Integer id, Map<String, Object> patchData) {
+    @Transactional
+    public ResponseEntity<InventoriesResponseDTO> updateInventory(Integer id, Map<String, Object> patchData,
+            String ifMatch) {
         Optional<Inventory> inventoryOptional = inventoryRepository.findById(id);
         if (inventoryOptional.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
         Inventory inventory = inventoryOptional.get();
+        ETagUtils.checkIfMatch(ifMatch, inventory.getVersion(), "Inventory with id " + id);
 
-        // Inventory before change
-        InventoryCreateRequestDTO inventoryOld = InventoryService.mapInventoryToDto(inventory);
+        // Values of the patched fields before the change
+        InventoryDiff diff = InventoryDiff.capture(inventory, patchData.keySet());
 
         for (Map.Entry<String, Object> entry : patchData.entrySet()) {
             String fieldName = entry.getKey();
@@ -352,64 +723,55 @@ public class InventoryService {
                         inventory.setIsDeinventoried((Boolean) fieldValue);
                     }
                     break;
+                case InventoryDiff.TAGS:
+                    // Replaces the tags of the item
+                    if (fieldValue != null) {
+                        inventory.setTags(tagService.resolveTags(toTagIds(fieldValue)));
+                    }
+                    break;
                 default:
                     break;
             }
         }
 
-        Inventory updatedInventory = inventoryRepository.save(inventory);
         inventory.setSearchText(StringParser.fullTextSearchString(inventory));
-        inventoryRepository.save(updatedInventory);
-
-        // Inventory after change
-        InventoryCreateRequestDTO inventoryNew = InventoryService.mapInventoryToDto(updatedInventory);
+        inventory.setSearchDocument(StringParser.searchDocument(inventory));
+        Inventory updatedInventory = inventoryRepository.save(inventory);
+        // Writes the change now, so a concurrent change fails here and the ETag carries the new version
+        inventoryRepository.flush();
 
         Object userNameRaw = patchData.get("user_name");
-        User author = userService.resolveUser(
-                userNameRaw instanceof String userName && !userName.isBlank() ? userName : "Unknown");
-
-        // Store the changes to History entity
-        List<History> historyList = new ArrayList<>();
-        Diff diff = javers.compare(inventoryOld, inventoryNew);
-
-        diff.getChangesByType(ValueChange.class).forEach(change -> {
-            String property = change.getPropertyName();
-            Object before = change.getLeft();
-            Object after = change.getRight();
-
-            History history = new History();
-            history.setAuthor(author); // Replace this with user from JWT token
-            history.setAttributeChanged(property);
-            history.setValueFrom(before == null ? "null" : before.toString());
-            history.setValueTo(after.toString());
-            history.setInventory(inventory);
-            historyList.add(history);
-        });
-        historyRepository.saveAll(historyList);
+        String authorName = userNameRaw instanceof String userName && !userName.isBlank() ? userName : "Unknown";
+
+        // Store the changes to History entity, the author is resolved by the writer
+        historyWriter.submit(diff.changes(updatedInventory, null), authorName); // Replace author with user from JWT token
+        eventPublisher.publishEvent(InventoryChangedEvent.of(id));
 
         InventoriesResponseDTO responseDTO = inventoriesMapper.toDto(updatedInventory);
-        return ResponseEntity.ok(responseDTO);
+        return ResponseEntity.ok()
+                .eTag(ETagUtils.of(updatedInventory.getVersion()))
+                .body(responseDTO);
     }
 
     /**
-     * Maps an Inventory object to an InventoryCreateRequestDTO.
-     * This method is used to convert an Inventory entity to a DTO for
-     * creating an update history entry.
+     * Converts the tags of a patch (a JSON array of tag IDs) into a list of IDs.
      *
-     * @param inventory the Inventory entity to map
-     * @return the mapped InventoryCreateRequestDTO
+     * @param fieldValue the value of the patch
+     * @return the tag IDs
+     * @throws BadRequestException if the value is not an array of integers
      */
-    private static InventoryCreateRequestDTO mapInventoryToDto(Inventory inventory) {
-        InventoryCreateRequestDTO dto = new InventoryCreateRequestDTO();
-        dto.setInventoriesId(inventory.getId());
-        dto.setDescription(inventory.getDescription() == null ? null : inventory.getDescription().toString());
-        dto.setSerialNumber(inventory.getSerialNumber() == null ? null : inventory.getSerialNumber().toString());
-        dto.setPrice(inventory.getPrice());
-        dto.setLocation(inventory.getLocation() == null ? null : inventory.getLocation().toString());
-        dto.setCostCenter(inventory.getCostCenter() == null ? null : inventory.getCostCenter().getDescription());
-        dto.setCompany(inventory.getCompany() == null ? null : inventory.getCompany().getName());
-        dto.setOrderer(inventory.getUser() == null ? null : inventory.getUser().getId());
-        return dto;
+    private static List<Integer> toTagIds(Object fieldValue) {
+        if (!(fieldValue instanceof List<?> values)) {
+            throw new BadRequestException("tags must be an array of tag ids");
+        }
+        List<Integer> tagIds = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof Integer tagId)) {
+                throw new BadRequestException("tags must be an array of tag ids");
+            }
+            tagIds.add(tagId);
+        }
+        return tagIds;
     }
 
     /**
@@ -448,7 +810,8 @@ public class InventoryService {
         allFields.addAll(extensionFields);
 
         // Set the search text for the Inventory
-        inventory.setSearchText(String.join("", allFields));
+        inventory.setSearchText(StringParser.normalizeSearchText(String.join("", allFields)));
+        inventory.setSearchDocument(StringParser.searchDocument(inventory));
     }
 
 }
@@ -0,0 +1,166 @@
+package com.hs_esslingen.insy.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hs_esslingen.insy.configuration.InventorySpecification;
+import com.hs_esslingen.insy.dto.SuggestionDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.StringParser;
+import com.hs_esslingen.insy.utils.TokenIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search-as-you-type for the inventory list.
+ * Keeps a sorted token index over the fields of the full-text search (see
+ * StringParser.fullTextSearchString) and a preview of every item in memory, so
+ * suggestions are answered without a database query. The index is built at
+ * startup and updated after every committed write (see InventoryChangedEvent).
+ *
+ * Enabled with insy.search.suggest-index.enabled=true. Without the index the
+ * suggestions are loaded from the search_text column.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventorySuggestService {
+
+    // Maximum number of suggestions per request
+    private static final int MAX_LIMIT = 50;
+
+    // Date format of the creation date in the full-text search
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d.M.yyyy");
+
+    private final InventoryRepository inventoryRepository;
+    private final TokenIndex index = new TokenIndex();
+    private final Map<Integer, SuggestionDTO> previews = new ConcurrentHashMap<>();
+
+    @Value("${insy.search.suggest-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    /**
+     * Builds the index from all inventory items once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        index.clear();
+        previews.clear();
+        inventoryRepository.findAllSuggestFields().forEach(this::put);
+        ready = true;
+        log.info("Built inventory suggest index with {} items in {} ms", index.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-indexes the changed inventory items after the write has been committed.
+     * Items that no longer exist are removed from the index.
+     *
+     * @param event the event containing the IDs of the changed inventory items
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before the index generation is incremented, see DataVersionService
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!enabled || event.inventoryIds().isEmpty()) {
+            return;
+        }
+        Set<Integer> deleted = new HashSet<>(event.inventoryIds());
+        for (Object[] row : inventoryRepository.findSuggestFieldsByIdIn(event.inventoryIds())) {
+            put(row);
+            deleted.remove((Integer) row[0]);
+        }
+        for (Integer id : deleted) {
+            index.remove(id);
+            previews.remove(id);
+        }
+    }
+
+    /**
+     * Suggests inventory items for the text typed so far.
+     * Every word of the text must be the beginning of a word of the item.
+     * Items containing the last word completely are ranked first.
+     *
+     * @param text  the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggested inventory items
+     * @throws BadRequestException if the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public List<SuggestionDTO> suggest(String text, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        if (!enabled || !ready) {
+            // Without the index, a substring search limited to the first items is used
+            return inventoryRepository
+                    .findListRange(InventorySpecification.hasSearchText(text), Sort.by("id"), 0, limit).stream()
+                    .map(inventory -> new SuggestionDTO(inventory.getId(), inventory.getDescription(),
+                            inventory.getSerialNumber()))
+                    .toList();
+        }
+
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+        for (Integer id : index.suggest(new ArrayList<>(StringParser.searchTokens(text)), limit)) {
+            SuggestionDTO preview = previews.get(id);
+            if (preview != null) {
+                suggestions.add(preview);
+            }
+        }
+        return suggestions;
+    }
+
+    // Row of findAllSuggestFields: id, description, serial number, price, location, created at,
+    // company, cost center, orderer
+    private void put(Object[] row) {
+        Integer id = (Integer) row[0];
+        String description = (String) row[1];
+        String serialNumber = (String) row[2];
+        BigDecimal price = (BigDecimal) row[3];
+        LocalDateTime createdAt = (LocalDateTime) row[5];
+
+        index.put(id, StringParser.searchTokens(
+                id.toString(),
+                description,
+                serialNumber,
+                price == null ? null : price.toString(),
+                (String) row[4],
+                createdAt == null ? null : createdAt.format(DATE_FORMAT),
+                (String) row[6],
+                (String) row[7],
+                (String) row[8]));
+        previews.put(id, new SuggestionDTO(id, description, serialNumber));
+    }
+}
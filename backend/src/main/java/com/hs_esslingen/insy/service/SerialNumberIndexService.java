@@ -0,0 +1,218 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hs_esslingen.insy.dto.SerialNumberMatchDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.repository.ExtensionRepository;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.BKTree;
+import com.hs_esslingen.insy.utils.StringParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fuzzy lookup of serial numbers and inventory numbers.
+ * Serial numbers are typed by hand from stickers, so a transposed or misread
+ * character is common. The serial numbers of all inventory items and extensions
+ * and the inventory numbers are kept in a BK-tree, which returns the closest
+ * entries by edit distance without comparing the query to every entry. The
+ * index is built at startup and updated after every committed write (see
+ * InventoryChangedEvent).
+ *
+ * Enabled with insy.search.serial-index.enabled=true. Without the index the
+ * database finds candidates with the trigram indexes of the normalized values
+ * (pg_trgm), and only those are compared by edit distance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SerialNumberIndexService {
+
+    public static final String SERIAL_NUMBER = "serial_number";
+    public static final String INVENTORY_NUMBER = "inventory_number";
+
+    // Maximum edit distance and number of results per request
+    private static final int MAX_DISTANCE = 3;
+    private static final int MAX_LIMIT = 50;
+    // Candidates per kind read from the trigram indexes without the in-memory index
+    private static final int MAX_CANDIDATES = 500;
+    private static final double MIN_SIMILARITY = 0.01;
+
+    private static final Comparator<SerialNumberMatchDTO> BY_DISTANCE = Comparator
+            .comparing(SerialNumberMatchDTO::getDistance)
+            .thenComparing(SerialNumberMatchDTO::getValue)
+            .thenComparing(SerialNumberMatchDTO::getInventoryId);
+
+    // An indexed serial number or inventory number
+    private record Entry(Integer inventoryId, Integer extensionId, String field, String value) {
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final ExtensionRepository extensionRepository;
+    private final BKTree<Entry> index = new BKTree<>();
+    // Entries per inventory item, to replace them when the item changes
+    private final Map<Integer, List<Entry>> entriesByInventory = new HashMap<>();
+
+    @Value("${insy.search.serial-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    /**
+     * Builds the index from all inventory items and extensions once the
+     * application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void buildIndex() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        index.clear();
+        entriesByInventory.clear();
+        loadEntries(inventoryRepository.findAllIdsAndSerialNumbers(), extensionRepository.findAllSerialNumbers())
+                .forEach(this::put);
+        ready = true;
+        log.info("Built serial number index with {} entries in {} ms", index.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-indexes the changed inventory items and their extensions after the
+     * write has been committed. Entries of deleted items are removed.
+     *
+     * @param event the event containing the IDs of the changed inventory items
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before the index generation is incremented, see DataVersionService
+    public synchronized void onInventoryChanged(InventoryChangedEvent event) {
+        if (!enabled || event.inventoryIds().isEmpty()) {
+            return;
+        }
+        Set<Integer> inventoryIds = event.inventoryIds();
+        for (Integer inventoryId : inventoryIds) {
+            List<Entry> old = entriesByInventory.remove(inventoryId);
+            if (old != null) {
+                old.forEach(entry -> index.remove(StringParser.normalizeSerialNumber(entry.value()), entry));
+            }
+        }
+        loadEntries(inventoryRepository.findIdsAndSerialNumbersByIdIn(inventoryIds),
+                extensionRepository.findSerialNumbersByInventoryIdIn(inventoryIds))
+                .forEach(this::put);
+    }
+
+    /**
+     * Finds the serial numbers and inventory numbers closest to the given text.
+     * Case, separators and the confusion of O/0 and I/1 are ignored; the
+     * distance counts inserted, deleted, replaced and swapped characters.
+     *
+     * @param text        the serial number or inventory number to look up
+     * @param maxDistance the maximum edit distance
+     * @param limit       the maximum number of results
+     * @return the matches, closest first
+     * @throws BadRequestException if maxDistance or limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public List<SerialNumberMatchDTO> search(String text, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new BadRequestException("maxDistance must be between 0 and " + MAX_DISTANCE);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String query = StringParser.normalizeSerialNumber(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        List<SerialNumberMatchDTO> matches = new ArrayList<>();
+        if (enabled && ready) {
+            for (BKTree.Match<Entry> match : index.search(query, maxDistance)) {
+                matches.add(toDto(match.value(), match.distance()));
+            }
+        } else {
+            // Without the index, the trigram indexes of the database find the candidates
+            for (Object[] row : inventoryRepository.findSimilarSerialNumbers(query,
+                    similarityThreshold(query.length(), maxDistance), MAX_CANDIDATES)) {
+                Entry entry = new Entry((Integer) row[0], (Integer) row[1], (String) row[2], (String) row[3]);
+                int distance = BKTree.distance(query, StringParser.normalizeSerialNumber(entry.value()));
+                if (distance <= maxDistance) {
+                    matches.add(toDto(entry, distance));
+                }
+            }
+        }
+        matches.sort(BY_DISTANCE);
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Lower bound of the trigram similarity between a value of the given length
+     * and any value within maxDistance edits of it. pg_trgm splits a value of n
+     * characters into n + 2 trigrams, and every edit changes at most four of
+     * them (a swap of two characters), so at least n + 2 - 4 * maxDistance
+     * trigrams are shared. For short values the bound drops to MIN_SIMILARITY,
+     * i.e. only values that share a trigram with the query are found.
+     *
+     * @param length      the length of the normalized query
+     * @param maxDistance the maximum edit distance
+     * @return the similarity threshold for the trigram search
+     */
+    private static double similarityThreshold(int length, int maxDistance) {
+        int trigrams = length + 2;
+        int shared = trigrams - 4 * maxDistance;
+        // Shared trigrams divided by the union of both trigram sets
+        double bound = (double) shared / (trigrams + (trigrams + maxDistance) - shared);
+        return Math.max(bound, MIN_SIMILARITY);
+    }
+
+    // Rows of the inventory queries: id, serial number
+    // Rows of the extension queries: id, inventory id, serial number
+    private List<Entry> loadEntries(List<Object[]> inventoryRows, List<Object[]> extensionRows) {
+        List<Entry> entries = new ArrayList<>();
+        for (Object[] row : inventoryRows) {
+            Integer inventoryId = (Integer) row[0];
+            entries.add(new Entry(inventoryId, null, INVENTORY_NUMBER, inventoryId.toString()));
+            if (row[1] != null) {
+                entries.add(new Entry(inventoryId, null, SERIAL_NUMBER, (String) row[1]));
+            }
+        }
+        for (Object[] row : extensionRows) {
+            entries.add(new Entry((Integer) row[1], (Integer) row[0], SERIAL_NUMBER, (String) row[2]));
+        }
+        return entries;
+    }
+
+    private void put(Entry entry) {
+        String key = StringParser.normalizeSerialNumber(entry.value());
+        if (key.isEmpty()) {
+            return;
+        }
+        index.add(key, entry);
+        entriesByInventory.computeIfAbsent(entry.inventoryId(), id -> new ArrayList<>()).add(entry);
+    }
+
+    private SerialNumberMatchDTO toDto(Entry entry, int distance) {
+        return new SerialNumberMatchDTO(entry.inventoryId(), entry.extensionId(), entry.field(), entry.value(),
+                distance);
+    }
+}
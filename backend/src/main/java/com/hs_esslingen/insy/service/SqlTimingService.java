@@ -0,0 +1,163 @@
+package com.hs_esslingen.insy.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hs_esslingen.insy.dto.SlowQueryDTO;
+import com.hs_esslingen.insy.dto.SqlStatementStatsDTO;
+import com.hs_esslingen.insy.dto.SqlTimingsDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.utils.SqlTimingListener;
+
+/**
+ * Collects the timings of all SQL statements (see SqlTimingListener).
+ * Every distinct SQL string has counters for executions, total and maximum
+ * duration and rows, so slow filter combinations of the inventory list show up
+ * with their SQL. Statements slower than the threshold are additionally kept in
+ * a ring buffer with their bind parameter types.
+ *
+ * Fast statements only update counters that already exist, so recording can
+ * stay enabled permanently.
+ */
+@Service
+public class SqlTimingService implements SqlTimingListener.Recorder {
+
+    // Statements beyond the limit of distinct SQL strings are counted here
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final int MAX_LIMIT = 1000;
+
+    private static final class Stats {
+        final LongAdder executions = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        volatile String origin;
+    }
+
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+    private final Map<String, Stats> statements = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowQueryDTO> slowQueries;
+    private final AtomicLong nextSlowQuery = new AtomicLong();
+
+    public SqlTimingService(
+            @Value("${insy.sql-timing.slow-threshold:PT0.05S}") Duration slowThreshold,
+            @Value("${insy.sql-timing.buffer-size:100}") int bufferSize,
+            @Value("${insy.sql-timing.max-statements:500}") int maxStatements) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowQueries = new AtomicReferenceArray<>(bufferSize);
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void onStatement(String sql, String origin, long nanos, long rows, Class<?>[] parameterTypes,
+            int parameterCount) {
+        if (sql == null) {
+            return;
+        }
+        Stats stats = statements.get(sql);
+        if (stats == null) {
+            String key = statements.size() < maxStatements ? sql : OTHER_STATEMENTS;
+            stats = statements.computeIfAbsent(key, k -> new Stats());
+        }
+        stats.executions.increment();
+        stats.totalNanos.add(nanos);
+        if (rows > 0) {
+            stats.rows.add(rows);
+        }
+        if (nanos > stats.maxNanos.get()) {
+            stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+        stats.origin = origin;
+
+        if (nanos >= slowThresholdNanos) {
+            // The oldest entry is overwritten once the buffer is full
+            int slot = (int) (nextSlowQuery.getAndIncrement() % slowQueries.length());
+            slowQueries.set(slot, new SlowQueryDTO(sql, origin, nanos / NANOS_PER_MILLI, rows,
+                    parameterShape(parameterTypes, parameterCount),
+                    LocalDateTime.now(ZoneId.of("Europe/Berlin"))));
+        }
+    }
+
+    /**
+     * Returns the recorded slow queries, slowest first, and the statements with
+     * the highest total duration.
+     *
+     * @param limit the maximum number of statements to return
+     * @return the slow queries and the statement statistics
+     * @throws BadRequestException if the limit is out of range
+     */
+    public SqlTimingsDTO getTimings(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        List<SlowQueryDTO> slow = new ArrayList<>();
+        for (int i = 0; i < slowQueries.length(); i++) {
+            SlowQueryDTO query = slowQueries.get(i);
+            if (query != null) {
+                slow.add(query);
+            }
+        }
+        slow.sort(Comparator.comparingDouble(SlowQueryDTO::getDurationMs).reversed());
+
+        List<SqlStatementStatsDTO> stats = statements.entrySet().stream()
+                .map(entry -> toDto(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(SqlStatementStatsDTO::getTotalMs).reversed())
+                .limit(limit)
+                .toList();
+
+        return new SqlTimingsDTO(slow, stats);
+    }
+
+    /**
+     * Discards all recorded timings.
+     */
+    public void reset() {
+        statements.clear();
+        for (int i = 0; i < slowQueries.length(); i++) {
+            slowQueries.set(i, null);
+        }
+    }
+
+    private static SqlStatementStatsDTO toDto(String sql, Stats stats) {
+        long executions = stats.executions.sum();
+        double totalMs = stats.totalNanos.sum() / NANOS_PER_MILLI;
+        return SqlStatementStatsDTO.builder()
+                .sql(sql)
+                .origin(stats.origin)
+                .executions(executions)
+                .totalMs(totalMs)
+                .averageMs(executions == 0 ? 0 : totalMs / executions)
+                .maxMs(stats.maxNanos.get() / NANOS_PER_MILLI)
+                .rows(stats.rows.sum())
+                .build();
+    }
+
+    // e.g. "(Integer, String, NULL)"
+    private static String parameterShape(Class<?>[] parameterTypes, int parameterCount) {
+        StringBuilder shape = new StringBuilder("(");
+        for (int i = 0; i < parameterCount; i++) {
+            if (i > 0) {
+                shape.append(", ");
+            }
+            Class<?> type = parameterTypes[i];
+            shape.append(type == null || type == Void.class ? "NULL" : type.getSimpleName());
+        }
+        return shape.append(')').toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.hs_esslingen.insy.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.utils.TagBitmapIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional in-memory index of the tag assignments.
+ * Resolves tag filters of the inventory list to a set of inventory IDs with
+ * bitmap operations instead of joining inventory_tag. The index is built at
+ * startup and updated after every committed write (see InventoryChangedEvent),
+ * including the tag changes of TagService.
+ *
+ * Enabled with insy.search.tag-index.enabled=true. Like the search index, it only
+ * sees writes of its own instance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagIndexService {
+
+    private final InventoryRepository inventoryRepository;
+    private final TagBitmapIndex index = new TagBitmapIndex();
+
+    @Value("${insy.search.tag-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready = false;
+
+    /**
+     * Builds the index from all tag assignments once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        index.clear();
+        groupTags(inventoryRepository.findAllTagIds()).forEach(index::put);
+        ready = true;
+        log.info("Built tag index with {} items in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Updates the tags of the changed inventory items after the write has been
+     * committed. Items that no longer exist are removed from the index.
+     *
+     * @param event the event containing the IDs of the changed inventory items
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before the index generation is incremented, see DataVersionService
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!enabled || event.inventoryIds().isEmpty()) {
+            return;
+        }
+        Set<Integer> deleted = new HashSet<>(event.inventoryIds());
+        groupTags(inventoryRepository.findTagIdsByIdIn(event.inventoryIds())).forEach((id, tagIds) -> {
+            index.put(id, tagIds);
+            deleted.remove(id);
+        });
+        deleted.forEach(index::remove);
+    }
+
+    /**
+     * Returns whether the index is enabled and has been built.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Finds all inventory items matching a tag filter.
+     *
+     * @param tagIds        the tags to match
+     * @param matchAll      true if an item needs all tags, false if any tag is
+     *                      enough
+     * @param excludeTagIds the tags an item must not have
+     * @return the IDs of all matching inventory items
+     */
+    public BitSet match(Collection<Integer> tagIds, boolean matchAll, Collection<Integer> excludeTagIds) {
+        return index.match(tagIds, matchAll, excludeTagIds);
+    }
+
+    // Groups rows of (inventory ID, tag ID) by inventory, the tag ID is null for items without tags
+    private static Map<Integer, List<Integer>> groupTags(List<Object[]> rows) {
+        Map<Integer, List<Integer>> tagsByInventory = new HashMap<>();
+        for (Object[] row : rows) {
+            List<Integer> tagIds = tagsByInventory.computeIfAbsent((Integer) row[0], id -> new ArrayList<>());
+            if (row[1] != null) {
+                tagIds.add((Integer) row[1]);
+            }
+        }
+        return tagsByInventory;
+    }
+}
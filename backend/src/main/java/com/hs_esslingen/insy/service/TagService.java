@@ -1,16 +1,19 @@
 package com.hs_esslingen.insy.service;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.dto.TagDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.exception.NotFoundException;
 import com.hs_esslingen.insy.mapper.TagMapper;
@@ -18,6 +21,7 @@ import com.hs_esslingen.insy.model.Inventory;
 import com.hs_esslingen.insy.model.Tag;
 import com.hs_esslingen.insy.repository.InventoryRepository;
 import com.hs_esslingen.insy.repository.TagRepository;
+import com.hs_esslingen.insy.utils.InventoryDiff;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,6 +32,8 @@ public class TagService {
     private final TagRepository tagRepository;
     private final InventoryRepository inventoryRepository;
     private final TagMapper tagMapper;
+    private final HistoryWriter historyWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieves all tags from the repository and returns them as a paginated list
@@ -97,7 +103,12 @@ public class TagService {
             throw new NotFoundException("Tag with id: " + id + " not found");
         }
 
+        Set<Integer> inventoryIds = tag.get().getInventories().stream()
+                .map(Inventory::getId)
+                .collect(Collectors.toSet());
+
         tagRepository.deleteById(id);
+        eventPublisher.publishEvent(new InventoryChangedEvent(inventoryIds));
     }
 
     /**
@@ -123,6 +134,28 @@ public class TagService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Loads the tags with the given IDs with a single query.
+     *
+     * @param tagIds the IDs of the tags, may be null
+     * @return the tags
+     * @throws NotFoundException if any of the tags does not exist
+     */
+    public Set<Tag> resolveTags(List<Integer> tagIds) {
+        if (tagIds == null || tagIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        Set<Integer> distinctIds = new HashSet<>(tagIds);
+        Set<Tag> tags = new HashSet<>(tagRepository.findAllById(distinctIds));
+        // The argument of findAllById is left unchanged, the missing IDs are collected separately
+        Set<Integer> missingIds = new HashSet<>(distinctIds);
+        tags.forEach(tag -> missingIds.remove(tag.getId()));
+        if (!missingIds.isEmpty()) {
+            throw new NotFoundException("Tag with id: " + missingIds.iterator().next() + " not found");
+        }
+        return tags;
+    }
+
     /**
      * Adds tags to an inventory item.
      *
@@ -138,14 +171,13 @@ public class TagService {
         if (tagIds == null || tagIds.isEmpty())
             return;
 
-        Set<Tag> tags = tagIds.stream()
-                .map(tagId -> tagRepository.findById(tagId)
-                        .orElseThrow(() -> new NotFoundException("Tag with id: " + tagId + " not found")))
-                .collect(Collectors.toSet());
-
-        inventory.setTags(tags);
+        InventoryDiff diff = InventoryDiff.capture(inventory, List.of(InventoryDiff.TAGS));
+        inventory.setTags(resolveTags(tagIds));
 
         inventoryRepository.save(inventory);
+        // The tag endpoints do not receive a user
+        historyWriter.submit(diff.changes(inventory, null), "Unknown");
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventoryId));
     }
 
     /**
@@ -170,7 +202,10 @@ public class TagService {
                     "Tag with id: " + tagId + " is not assigned to inventory item with id: " + inventoryId);
         }
 
+        InventoryDiff diff = InventoryDiff.capture(inventory, List.of(InventoryDiff.TAGS));
         inventory.getTags().remove(tag);
         inventoryRepository.save(inventory);
+        historyWriter.submit(diff.changes(inventory, null), "Unknown");
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventoryId));
     }
 }
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.hs_esslingen.insy.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hs_esslingen.insy.dto.UserDTO;
 import com.hs_esslingen.insy.exception.BadRequestException;
 import com.hs_esslingen.insy.exception.NotFoundException;
 import com.hs_esslingen.insy.model.User;
 import com.hs_esslingen.insy.repository.UserRepository;
+import com.hs_esslingen.insy.utils.NameIdCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,6 +25,8 @@ import lombok.RequiredArgsConstructor;
 public class UserService {
 
     private final UserRepository userRepository;
+    // IDs of the users resolved by name, see resolveUser
+    private final NameIdCache userIds = new NameIdCache(10_000);
 
     /*
      * Retrieves all orderers (users) from the repository and returns them as a DTO.
@@ -39,20 +48,76 @@ public class UserService {
     /**
      * Resolves a user based on the provided orderer identifier.
      * The orderer can be either an Integer (user ID) or a String (user name).
+     * A user name that does not exist yet is created. Names already resolved once
+     * are looked up in memory without a query. A user resolved by name is a
+     * reference of the persistence context, which is only loaded when a field
+     * other than its ID is read.
      *
      * @param orderer the identifier of the orderer
      * @return the resolved User object
      * @throws NotFoundException   if the user is not found
      * @throws BadRequestException if the orderer is neither an Integer nor a String
      */
+    @Transactional
     public User resolveUser(Object orderer) {
         if (orderer instanceof Integer userId) {
             return userRepository.findById(userId)
                     .orElseThrow(() -> new NotFoundException("Orderer with id: " + userId + " not found"));
         } else if (orderer instanceof String userName) {
-            return userRepository.findByName(userName)
-                    .orElseGet(() -> userRepository.save(new User(userName)));
+            Integer userId = userIds.get(userName);
+            if (userId == null) {
+                // Safe against concurrent creation, the name is unique
+                userId = userRepository.findIdByName(userName)
+                        .orElseGet(() -> userRepository.upsertByName(userName));
+                userIds.putAfterCommit(userName, userId);
+            }
+            return userRepository.getReferenceById(userId);
         }
         throw new BadRequestException("orderer must be of type Integer or String.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves several orderers at once, see resolveUser. The IDs and the names
+     * that are not cached are looked up with one query each; only names that do
+     * not exist yet need a statement each. Unknown IDs and identifiers that are
+     * neither an Integer nor a String are left out of the result.
+     *
+     * @param orderers the identifiers of the orderers
+     * @return the users by identifier
+     */
+    @Transactional
+    public Map<Object, User> resolveUsers(Collection<?> orderers) {
+        Map<Object, User> users = new HashMap<>();
+        Set<Integer> ids = new HashSet<>();
+        Set<String> uncached = new HashSet<>();
+        for (Object orderer : orderers) {
+            if (orderer instanceof Integer userId) {
+                ids.add(userId);
+            } else if (orderer instanceof String userName) {
+                Integer userId = userIds.get(userName);
+                if (userId != null) {
+                    users.put(userName, userRepository.getReferenceById(userId));
+                } else {
+                    uncached.add(userName);
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+        }
+        if (uncached.isEmpty()) {
+            return users;
+        }
+        for (User user : userRepository.findByNameIn(uncached)) {
+            users.put(user.getName(), user);
+            userIds.putAfterCommit(user.getName(), user.getId());
+            uncached.remove(user.getName());
+        }
+        for (String name : uncached) {
+            Integer userId = userRepository.upsertByName(name);
+            users.put(name, userRepository.getReferenceById(userId));
+            userIds.putAfterCommit(name, userId);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,207 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BK-tree for fuzzy lookups by edit distance.
+ * Every node holds a key and the values stored under it; its children are
+ * grouped by their distance to the key. Because the distance is a metric, a
+ * search for all keys within distance n of a query only has to descend into the
+ * children whose edge lies between d - n and d + n, where d is the distance of
+ * the query to the node. This skips most of the tree for small n.
+ *
+ * Keys are compared with the optimal string alignment distance (Levenshtein
+ * plus transposition of two adjacent characters). Removing a value leaves its
+ * node in place, since the node is still needed to route the search.
+ *
+ * The tree is safe for concurrent use: queries share a read lock, updates take
+ * the write lock.
+ *
+ * @param <T> the type of the stored values
+ */
+public class BKTree<T> {
+
+    private static final class Node<T> {
+        final String key;
+        final Set<T> values = new HashSet<>();
+        final Map<Integer, Node<T>> children = new HashMap<>();
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A value found by a search together with its key and distance to the query.
+     */
+    public record Match<T>(T value, String key, int distance) {
+    }
+
+    private Node<T> root;
+    private int size = 0;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Stores a value under a key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void add(String key, T value) {
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                root = new Node<>(key);
+            }
+            Node<T> node = root;
+            int distance;
+            while ((distance = distance(key, node.key)) != 0) {
+                Node<T> child = node.children.get(distance);
+                if (child == null) {
+                    child = new Node<>(key);
+                    node.children.put(distance, child);
+                }
+                node = child;
+            }
+            if (node.values.add(value)) {
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a value stored under a key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void remove(String key, T value) {
+        lock.writeLock().lock();
+        try {
+            Node<T> node = root;
+            while (node != null) {
+                int distance = distance(key, node.key);
+                if (distance == 0) {
+                    if (node.values.remove(value)) {
+                        size--;
+                    }
+                    return;
+                }
+                node = node.children.get(distance);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all values and nodes.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root = null;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored values.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all values whose key is within the given distance of the query,
+     * ordered by distance.
+     *
+     * @param query       the key to search for
+     * @param maxDistance the maximum edit distance
+     * @return the matching values with their distances
+     */
+    public List<Match<T>> search(String query, int maxDistance) {
+        List<Match<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (root == null) {
+                return matches;
+            }
+            Deque<Node<T>> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node<T> node = stack.pop();
+                int distance = distance(query, node.key);
+                if (distance <= maxDistance) {
+                    for (T value : node.values) {
+                        matches.add(new Match<>(value, node.key, distance));
+                    }
+                }
+                for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                        stack.push(child.getValue());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort((a, b) -> Integer.compare(a.distance(), b.distance()));
+        return matches;
+    }
+
+    /**
+     * Optimal string alignment distance: the number of insertions, deletions,
+     * substitutions and transpositions of adjacent characters needed to turn one
+     * string into the other.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return the edit distance
+     */
+    public static int distance(String a, String b) {
+        int n = a.length();
+        int m = b.length();
+        // Three rows are enough: the transposition looks back two rows
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+}
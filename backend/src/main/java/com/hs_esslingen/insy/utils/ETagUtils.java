@@ -0,0 +1,48 @@
+package com.hs_esslingen.insy.utils;
+
+import com.hs_esslingen.insy.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags from the version of an entity (see Inventory.version and
+ * Extension.version) for conditional PATCH and DELETE requests.
+ */
+public class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    /**
+     * Returns the ETag of a version, e.g. "3" with the quotes.
+     *
+     * @param version the version of the entity
+     * @return the quoted version
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Checks the If-Match header of a request against the current version.
+     * Without the header, the request is not conditional and always allowed.
+     * Weak ETags never match, like the data version ETags of the read endpoints.
+     *
+     * @param ifMatch  the value of the If-Match header, may be null
+     * @param version  the current version of the entity
+     * @param resource the resource for the error message, e.g. "Inventory with id 5"
+     * @throws PreconditionFailedException if none of the ETags matches
+     */
+    public static void checkIfMatch(String ifMatch, Long version, String resource) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        String current = of(version);
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(current)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException(
+                resource + " has been changed in the meantime, current ETag is " + current);
+    }
+}
@@ -0,0 +1,115 @@
+package com.hs_esslingen.insy.utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.exception.InternalServerErrorException;
+
+/**
+ * Position of the last row of a page for keyset pagination.
+ * The cursor stores the sort key and the ID of the last row, so the next page
+ * can continue right after it instead of skipping all previous rows.
+ * It is passed to the client as an opaque Base64 token.
+ *
+ * @param orderBy   the field the list is ordered by
+ * @param direction the sort direction (ASC/DESC)
+ * @param key       the sort key of the last row as string, null if the key is
+ *                  null or the list is ordered by ID
+ * @param id        the ID of the last row
+ */
+public record InventoryCursor(String orderBy, String direction, String key, Integer id) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Creates the cursor pointing after the given row of the inventory list.
+     *
+     * @param orderBy   the field the list is ordered by
+     * @param direction the sort direction
+     * @param last      the last row of the page
+     * @return the cursor
+     */
+    public static InventoryCursor after(String orderBy, Sort.Direction direction, InventoriesResponseDTO last) {
+        return new InventoryCursor(orderBy, direction.name(), sortKeyOf(orderBy, last), last.getId());
+    }
+
+    /**
+     * Decodes a cursor token that was created by {@link #encode()}.
+     *
+     * @param token the Base64 token
+     * @return the cursor
+     * @throws BadRequestException if the token is not a valid cursor
+     */
+    public static InventoryCursor decode(String token) {
+        try {
+            InventoryCursor cursor = MAPPER.readValue(Base64.getUrlDecoder().decode(token), InventoryCursor.class);
+            if (cursor.orderBy() == null || cursor.direction() == null || cursor.id() == null) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return cursor;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Encodes the cursor as an URL-safe token.
+     *
+     * @return the Base64 token
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (JsonProcessingException e) {
+            throw new InternalServerErrorException("Could not create cursor");
+        }
+    }
+
+    /**
+     * Converts the stored sort key back to the type of the sorted column.
+     *
+     * @return the typed sort key, null if the key is null
+     * @throws BadRequestException if the key does not match the column type
+     */
+    public Comparable<?> typedKey() {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return switch (orderBy) {
+                case "price" -> new BigDecimal(key);
+                case "createdAt" -> LocalDateTime.parse(key);
+                default -> key;
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // Reads the value of the sorted column from the row
+    // Nested sorts use the same fields as InventorySpecification.sortByNestedField
+    private static String sortKeyOf(String orderBy, InventoriesResponseDTO inventory) {
+        Object key = switch (orderBy) {
+            case "id" -> null;
+            case "description" -> inventory.getDescription();
+            case "price" -> inventory.getPrice() != null ? inventory.getPrice().toPlainString() : null;
+            case "createdAt" -> inventory.getCreatedAt();
+            case "serialNumber" -> inventory.getSerialNumber();
+            case "location" -> inventory.getLocation();
+            case "company" -> inventory.getCompany();
+            case "user" -> inventory.getOrderer();
+            case "costCenter" -> inventory.getCostCenter();
+            default -> throw new BadRequestException("Invalid orderBy-field: " + orderBy);
+        };
+        return key != null ? key.toString() : null;
+    }
+}
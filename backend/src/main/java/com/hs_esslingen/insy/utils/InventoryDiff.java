@@ -0,0 +1,178 @@
+package com.hs_esslingen.insy.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import com.hs_esslingen.insy.model.Extension;
+import com.hs_esslingen.insy.model.History;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+
+/**
+ * Records the changes of an inventory item as History rows.
+ * Only the fields that are about to change are read, once before and once after
+ * the change, without reflection and without intermediate snapshot objects.
+ * The attribute names and values of the history are the ones recorded by
+ * comparing InventoryCreateRequestDTO snapshots before, e.g. "costCenter" with
+ * the description of the cost center and "orderer" with the ID of the user.
+ *
+ * Usage, within the transaction of the change (see HistoryWriter.submit):
+ *
+ * <pre>
+ * InventoryDiff diff = InventoryDiff.capture(inventory, patchData.keySet());
+ * // apply the patch
+ * historyWriter.submit(diff.changes(inventory, null), authorName);
+ * </pre>
+ */
+public final class InventoryDiff {
+
+    /** Key of the price of an inventory item, e.g. in the patch of updateInventory. */
+    public static final String PRICE = "price";
+
+    /** Key of the tags of an inventory item, e.g. in the patch of updateInventory. */
+    public static final String TAGS = "tags";
+
+    /** Key of the extensions of an inventory item. */
+    public static final String EXTENSIONS = "extensions";
+
+    // Fields with their key in the patch and their attribute in the history
+    private enum Field {
+        DESCRIPTION("description", "description"),
+        SERIAL_NUMBER("serial_number", "serialNumber"),
+        PRICE(InventoryDiff.PRICE, "price"),
+        LOCATION("location", "location"),
+        COST_CENTER("cost_center", "costCenter"),
+        COMPANY("company", "company"),
+        ORDERER("orderer", "orderer"),
+        IS_DEINVENTORIED("is_deinventoried", "isDeinventoried"),
+        TAGS(InventoryDiff.TAGS, "tags"),
+        EXTENSIONS(InventoryDiff.EXTENSIONS, "extensions");
+
+        private final String key;
+        private final String attribute;
+
+        Field(String key, String attribute) {
+            this.key = key;
+            this.attribute = attribute;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    // One bit per captured field, indexed by the ordinal
+    private final int captured;
+    // The values before the change, indexed by the ordinal
+    private final Object[] before;
+
+    private InventoryDiff(int captured, Object[] before) {
+        this.captured = captured;
+        this.before = before;
+    }
+
+    /**
+     * Captures the current values of the given fields. Keys that are not fields
+     * of the history (e.g. user_name) are ignored.
+     *
+     * @param inventory the inventory item before the change
+     * @param keys      the keys of the fields that may change, e.g. the keys of the patch
+     * @return the captured values
+     */
+    public static InventoryDiff capture(Inventory inventory, Collection<String> keys) {
+        int captured = 0;
+        Object[] before = new Object[FIELDS.length];
+        for (Field field : FIELDS) {
+            if (keys.contains(field.key)) {
+                captured |= 1 << field.ordinal();
+                before[field.ordinal()] = value(field, inventory);
+            }
+        }
+        return new InventoryDiff(captured, before);
+    }
+
+    /**
+     * Compares the captured values with the current ones.
+     *
+     * @param inventory the inventory item after the change
+     * @param author    the author of the change
+     * @return one History row per changed field, empty if nothing changed
+     */
+    public List<History> changes(Inventory inventory, User author) {
+        List<History> histories = null;
+        for (Field field : FIELDS) {
+            if ((captured & (1 << field.ordinal())) == 0) {
+                continue;
+            }
+            Object from = before[field.ordinal()];
+            Object to = value(field, inventory);
+            if (same(from, to)) {
+                continue;
+            }
+            if (histories == null) {
+                histories = new ArrayList<>(Integer.bitCount(captured));
+            }
+            History history = new History(author, field.attribute, String.valueOf(from), String.valueOf(to));
+            history.setInventory(inventory);
+            histories.add(history);
+        }
+        return histories == null ? List.of() : histories;
+    }
+
+    // Reads a field without reflection, references as in the history so far
+    private static Object value(Field field, Inventory inventory) {
+        return switch (field) {
+            case DESCRIPTION -> inventory.getDescription();
+            case SERIAL_NUMBER -> inventory.getSerialNumber();
+            case PRICE -> inventory.getPrice();
+            case LOCATION -> inventory.getLocation();
+            case COST_CENTER -> inventory.getCostCenter() == null ? null : inventory.getCostCenter().getDescription();
+            case COMPANY -> inventory.getCompany() == null ? null : inventory.getCompany().getName();
+            case ORDERER -> inventory.getUser() == null ? null : inventory.getUser().getId();
+            case IS_DEINVENTORIED -> inventory.getIsDeinventoried();
+            case TAGS -> tagNames(inventory);
+            case EXTENSIONS -> extensionDescriptions(inventory);
+        };
+    }
+
+    private static boolean same(Object from, Object to) {
+        // 10.0 and 10.00 are the same price
+        if (from instanceof BigDecimal fromPrice && to instanceof BigDecimal toPrice) {
+            return fromPrice.compareTo(toPrice) == 0;
+        }
+        return Objects.equals(from, to);
+    }
+
+    // The names of the tags, sorted since the tags are not ordered
+    private static String tagNames(Inventory inventory) {
+        if (inventory.getTags() == null || inventory.getTags().isEmpty()) {
+            return "";
+        }
+        String[] names = new String[inventory.getTags().size()];
+        int i = 0;
+        for (Tag tag : inventory.getTags()) {
+            names[i++] = tag.getName();
+        }
+        Arrays.sort(names, Comparator.nullsLast(Comparator.naturalOrder()));
+        return String.join(", ", names);
+    }
+
+    // The descriptions of the extensions in the order they were added
+    private static String extensionDescriptions(Inventory inventory) {
+        if (inventory.getExtensions() == null || inventory.getExtensions().isEmpty()) {
+            return "";
+        }
+        StringBuilder descriptions = new StringBuilder();
+        for (Extension extension : inventory.getExtensions()) {
+            if (descriptions.length() > 0) {
+                descriptions.append(", ");
+            }
+            descriptions.append(extension.getDescription());
+        }
+        return descriptions.toString();
+    }
+}
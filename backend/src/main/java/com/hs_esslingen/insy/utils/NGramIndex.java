@@ -0,0 +1,164 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over normalized search texts.
+ * Every trigram of a document points to a sorted posting list of document IDs
+ * (primitive int array). A substring query intersects the posting lists of all
+ * trigrams of the term and verifies the remaining candidates against the text,
+ * so the result is identical to a LIKE '%term%' on the same texts.
+ *
+ * The index is safe for concurrent use: queries share a read lock, updates take
+ * the write lock.
+ */
+public class NGramIndex {
+
+    static final int N = 3;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, String> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or replaces the text of a document.
+     *
+     * @param id   the document ID
+     * @param text the normalized text, null removes the document
+     */
+    public void put(int id, String text) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            documents.put(id, text);
+            for (String gram : grams(text)) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index.
+     *
+     * @param id the document ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all documents from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all documents whose text contains the given term.
+     *
+     * @param term the normalized search term
+     * @return the IDs of all matching documents
+     */
+    public BitSet search(String term) {
+        BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            if (term.length() < N) {
+                // Too short for a trigram lookup, check every document
+                documents.forEach((id, text) -> {
+                    if (text.contains(term)) {
+                        result.set(id);
+                    }
+                });
+                return result;
+            }
+
+            Set<String> termGrams = grams(term);
+            PostingList[] lists = new PostingList[termGrams.size()];
+            int i = 0;
+            for (String gram : termGrams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    // A trigram of the term does not occur in any document
+                    return result;
+                }
+                lists[i++] = list;
+            }
+
+            // Intersect starting with the shortest list to keep the candidate set small
+            Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+            int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int count = candidates.length;
+            for (int l = 1; l < lists.length && count > 0; l++) {
+                count = lists[l].retainAll(candidates, count);
+            }
+
+            for (int c = 0; c < count; c++) {
+                int id = candidates[c];
+                if (documents.get(id).contains(term)) {
+                    result.set(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int id) {
+        String old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String gram : grams(old)) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+}
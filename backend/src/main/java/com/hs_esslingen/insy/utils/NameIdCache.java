@@ -0,0 +1,67 @@
+package com.hs_esslingen.insy.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded cache from the name of a reference entity (company, orderer, cost
+ * center) to its ID.
+ * Entries are only added once the transaction that read or created the row has
+ * been committed, so a rolled back insert never leaves an ID in the cache that
+ * does not exist in the database. Since the names are unique and the rows are
+ * never deleted, an entry stays valid for the lifetime of the application.
+ *
+ * The cache is safe for concurrent use.
+ */
+public class NameIdCache {
+
+    private final Cache<String, Integer> ids;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize the maximum number of names kept, the least used are evicted first
+     */
+    public NameIdCache(long maximumSize) {
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the cached ID for the name, or null if it is not cached.
+     */
+    public Integer get(String name) {
+        return ids.getIfPresent(name);
+    }
+
+    /**
+     * Caches the ID for the name after the current transaction has been committed,
+     * or immediately if there is no transaction.
+     *
+     * @param name the name of the entity
+     * @param id   the ID of the entity
+     */
+    public void putAfterCommit(String name, Integer id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.put(name, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.put(name, id);
+            }
+        });
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        ids.invalidateAll();
+    }
+}
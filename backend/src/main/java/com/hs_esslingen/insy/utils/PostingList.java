@@ -0,0 +1,66 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sorted, growable list of document IDs (primitive int array).
+ * Used as posting list by the in-memory indexes. Not thread-safe, the indexes
+ * guard it with their locks.
+ */
+final class PostingList {
+
+    int[] ids = new int[4];
+    int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    // Keeps only the candidates that are contained in this list and returns their new count
+    int retainAll(int[] candidates, int count) {
+        int kept = 0;
+        int j = 0;
+        for (int c = 0; c < count; c++) {
+            int id = candidates[c];
+            while (j < size && ids[j] < id) {
+                j++;
+            }
+            if (j < size && ids[j] == id) {
+                candidates[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    // Adds all IDs of this list to the bitmap
+    void addTo(BitSet result) {
+        for (int i = 0; i < size; i++) {
+            result.set(ids[i]);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hs_esslingen.insy.utils;
+
+/**
+ * Holds the repository method that is currently running on this thread, so the
+ * SQL statements it executes can be attributed to it (see SqlTimingListener).
+ */
+public final class QueryOrigin {
+
+    public static final String UNKNOWN = "(outside of repository)";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private QueryOrigin() {
+    }
+
+    /**
+     * Returns the repository method running on this thread, e.g.
+     * "InventoryRepository.findListRange".
+     */
+    public static String current() {
+        String origin = CURRENT.get();
+        return origin != null ? origin : UNKNOWN;
+    }
+
+    /**
+     * Sets the repository method running on this thread.
+     *
+     * @param origin the repository method, null to clear it
+     * @return the previous value, to be restored afterwards
+     */
+    public static String set(String origin) {
+        String previous = CURRENT.get();
+        if (origin == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(origin);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,202 @@
+package com.hs_esslingen.insy.utils;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Measures every SQL statement executed through a datasource-proxy DataSource
+ * (see SqlTimingConfig). The DataSource has to proxy its result sets, so the
+ * rows of a query can be counted.
+ *
+ * The duration covers the execution only, so it does not grow when the caller
+ * reads the rows slowly. A query is reported once its result set is closed (or
+ * its statement is executed again or closed), when its rows are known; updates
+ * are reported right after the execution with their update count. The
+ * measurement is handed to a Recorder together with the SQL, the repository
+ * method it came from (see QueryOrigin) and the types of the bind parameters.
+ */
+public class SqlTimingListener extends JdbcLifecycleEventListenerAdapter {
+
+    /**
+     * Receives the measurement of every executed statement.
+     */
+    public interface Recorder {
+
+        /**
+         * Called after a statement has been executed, for a query once its rows
+         * have been read.
+         *
+         * @param sql            the SQL of the statement
+         * @param origin         the repository method that executed the statement
+         * @param nanos          the duration of the execution in nanoseconds,
+         *                       without reading the rows of a query
+         * @param rows           the rows read or changed, -1 if unknown
+         * @param parameterTypes the types of the bind parameters by index (null for
+         *                       NULL values), only valid during the call
+         * @param parameterCount the number of bind parameters
+         */
+        void onStatement(String sql, String origin, long nanos, long rows, Class<?>[] parameterTypes,
+                int parameterCount);
+    }
+
+    // Marks a parameter that was set with setNull
+    private static final Class<?> NULL = Void.class;
+    private static final String START = SqlTimingListener.class.getName() + ".start";
+
+    /**
+     * Executed query whose rows are still being read.
+     */
+    private static final class OpenQuery {
+        final Statement statement;
+        final String sql;
+        final String origin;
+        final long nanos;
+        final Class<?>[] parameterTypes;
+        long rows;
+
+        OpenQuery(Statement statement, String sql, String origin, long nanos, Class<?>[] parameterTypes) {
+            this.statement = statement;
+            this.sql = sql;
+            this.origin = origin;
+            this.nanos = nanos;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+
+    private final Recorder recorder;
+
+    // Open queries of this thread by their result set proxy. A connection is used by one thread at a time.
+    private final ThreadLocal<Map<Object, OpenQuery>> openQueries = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    public SqlTimingListener(Recorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        // Failed statements are not measured
+        if (start == null || !execInfo.isSuccess() || queryInfoList.isEmpty()) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        String sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+        Class<?>[] parameterTypes = parameterTypes(queryInfoList.get(queryInfoList.size() - 1));
+
+        // A query of the previous execution whose result set was not closed explicitly is reported first
+        finishQueries(execInfo.getStatement());
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            openQueries.get().put(result, new OpenQuery(execInfo.getStatement(), sql, QueryOrigin.current(),
+                    nanos, parameterTypes));
+        } else {
+            recorder.onStatement(sql, QueryOrigin.current(), nanos, rows(result), parameterTypes,
+                    parameterTypes.length);
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        if (Boolean.TRUE.equals(executionContext.getResult())) {
+            OpenQuery query = openQueries.get().get(executionContext.getProxy());
+            if (query != null) {
+                query.rows++;
+            }
+        }
+    }
+
+    @Override
+    public void afterClose(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            OpenQuery query = openQueries.get().remove(executionContext.getProxy());
+            if (query != null) {
+                report(query);
+            }
+        } else if (target instanceof Statement statement) {
+            finishQueries(statement);
+        }
+    }
+
+    // Reports the open queries of the statement
+    private void finishQueries(Statement statement) {
+        Map<Object, OpenQuery> queries = openQueries.get();
+        if (queries.isEmpty()) {
+            return;
+        }
+        for (Iterator<OpenQuery> it = queries.values().iterator(); it.hasNext();) {
+            OpenQuery query = it.next();
+            if (query.statement == statement) {
+                it.remove();
+                report(query);
+            }
+        }
+    }
+
+    private void report(OpenQuery query) {
+        recorder.onStatement(query.sql, query.origin, query.nanos, query.rows, query.parameterTypes,
+                query.parameterTypes.length);
+    }
+
+    // The types of the last parameter set, e.g. of the last row of a batch
+    private static Class<?>[] parameterTypes(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+        if (parametersList.isEmpty()) {
+            return new Class<?>[0];
+        }
+        List<ParameterSetOperation> parameters = parametersList.get(parametersList.size() - 1);
+        int count = 0;
+        for (ParameterSetOperation parameter : parameters) {
+            if (parameter.getArgs()[0] instanceof Integer index) {
+                count = Math.max(count, index);
+            }
+        }
+        Class<?>[] types = new Class<?>[count];
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (args[0] instanceof Integer index && index > 0) {
+                types[index - 1] = ParameterSetOperation.isSetNullParameterOperation(parameter) || args[1] == null
+                        ? NULL
+                        : args[1].getClass();
+            }
+        }
+        return types;
+    }
+
+    // The update count of an update or batch, -1 if unknown
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long sum = -1;
+        if (result instanceof int[] counts) {
+            sum = 0;
+            for (int count : counts) {
+                // Drivers may report Statement.SUCCESS_NO_INFO instead of a count
+                sum += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            sum = 0;
+            for (long count : counts) {
+                sum += Math.max(count, 0);
+            }
+        }
+        return sum;
+    }
+}
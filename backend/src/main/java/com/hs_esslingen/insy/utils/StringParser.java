@@ -5,10 +5,19 @@ import com.hs_esslingen.insy.model.Inventory;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class StringParser {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern SERIAL_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]");
 
     /*
      * Safely parses a string like "8.743,58" (European number format) into a BigDecimal
@@ -35,7 +44,79 @@ public class StringParser {
                 + (inv.getPrice() == null ? "" : inv.getPrice())
                 + (inv.getLocation() == null ? "" : inv.getLocation())
                 + (inv.getCreatedAt() == null ? "" : inv.getCreatedAt().getDayOfMonth() + "." + inv.getCreatedAt().getMonthValue() + "." + inv.getCreatedAt().getYear());
-        return text.toLowerCase().replaceAll(" ", "");
+        return normalizeSearchText(text);
+    }
+
+
+    /*
+     * Builds the document for the ranked full-text search (search_document column).
+     * Unlike search_text the words are kept apart, so PostgreSQL can stem them.
+     *
+     * */
+    public static String searchDocument(Inventory inv) {
+        Stream<String> fields = Stream.of(
+                inv.getDescription(),
+                inv.getCompany() == null ? null : inv.getCompany().getName(),
+                inv.getCostCenter() == null ? null : inv.getCostCenter().getDescription(),
+                inv.getUser() == null ? null : inv.getUser().getName(),
+                inv.getLocation());
+        Stream<String> extensionFields = inv.getExtensions() == null ? Stream.empty()
+                : inv.getExtensions().stream().map(ext -> ext.getDescription());
+
+        return Stream.concat(fields, extensionFields)
+                .filter(Objects::nonNull)
+                .filter(field -> !field.isBlank())
+                .collect(Collectors.joining(" "));
+    }
+
+
+    /*
+     * Normalizes a text for the search_text column and for search terms alike:
+     * lowercased and without any whitespace. The column is stored in this form,
+     * so it can be matched with a plain LIKE that the trigram index supports.
+     *
+     * */
+    public static String normalizeSearchText(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(text.toLowerCase()).replaceAll("");
+    }
+
+    /*
+     * Splits texts into lowercased words of letters and digits for the
+     * search-as-you-type index, e.g. "HP EliteBook 840-G5" -> hp, elitebook, 840, g5.
+     * Search terms are split the same way.
+     *
+     * */
+    public static Set<String> searchTokens(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String token : TOKEN_SEPARATOR.split(text.toLowerCase())) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /*
+     * Normalizes a serial number for the fuzzy lookup: uppercased, without
+     * separators, and with the letters O and I replaced by the digits 0 and 1
+     * they are usually misread as, e.g. "sn-IO 42o" -> "SN10420".
+     *
+     * */
+    public static String normalizeSerialNumber(String serialNumber) {
+        if (serialNumber == null) {
+            return "";
+        }
+        return SERIAL_SEPARATOR.matcher(serialNumber.toUpperCase(Locale.ROOT)).replaceAll("")
+                .replace('O', '0')
+                .replace('I', '1');
     }
 
 }
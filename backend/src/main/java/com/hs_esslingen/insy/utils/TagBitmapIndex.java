@@ -0,0 +1,159 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of the tag assignments of the inventory items.
+ * Every tag points to a bitmap of the IDs of its inventory items, so tag filters
+ * are answered with AND (all tags), OR (any tag) and AND NOT (excluded tags)
+ * operations on the bitmaps.
+ *
+ * The index is safe for concurrent use: queries share a read lock, updates take
+ * the write lock.
+ */
+public class TagBitmapIndex {
+
+    private final Map<Integer, BitSet> inventoriesByTag = new HashMap<>();
+    private final Map<Integer, Set<Integer>> tagsByInventory = new HashMap<>();
+    // IDs of all inventory items, including items without tags
+    private final BitSet inventories = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds an inventory item or replaces its tags.
+     *
+     * @param inventoryId the inventory ID
+     * @param tagIds      the IDs of the tags of the item
+     */
+    public void put(int inventoryId, Collection<Integer> tagIds) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(inventoryId);
+            inventories.set(inventoryId);
+            Set<Integer> tags = new HashSet<>(tagIds);
+            tagsByInventory.put(inventoryId, tags);
+            for (Integer tagId : tags) {
+                inventoriesByTag.computeIfAbsent(tagId, t -> new BitSet()).set(inventoryId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an inventory item from the index.
+     *
+     * @param inventoryId the inventory ID
+     */
+    public void remove(int inventoryId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(inventoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all inventory items from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            inventoriesByTag.clear();
+            tagsByInventory.clear();
+            inventories.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed inventory items.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tagsByInventory.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all inventory items matching a tag filter.
+     *
+     * @param tagIds        the tags to match, all items match if empty
+     * @param matchAll      true if an item needs all tags, false if any tag is
+     *                      enough
+     * @param excludeTagIds the tags an item must not have
+     * @return the IDs of all matching inventory items
+     */
+    public BitSet match(Collection<Integer> tagIds, boolean matchAll, Collection<Integer> excludeTagIds) {
+        lock.readLock().lock();
+        try {
+            BitSet result;
+            if (tagIds == null || tagIds.isEmpty()) {
+                result = (BitSet) inventories.clone();
+            } else if (matchAll) {
+                result = null;
+                for (Integer tagId : tagIds) {
+                    BitSet tagged = inventoriesByTag.get(tagId);
+                    if (tagged == null) {
+                        // No item has this tag
+                        return new BitSet();
+                    }
+                    if (result == null) {
+                        result = (BitSet) tagged.clone();
+                    } else {
+                        result.and(tagged);
+                    }
+                }
+            } else {
+                result = new BitSet();
+                for (Integer tagId : tagIds) {
+                    BitSet tagged = inventoriesByTag.get(tagId);
+                    if (tagged != null) {
+                        result.or(tagged);
+                    }
+                }
+            }
+
+            if (excludeTagIds != null) {
+                for (Integer tagId : excludeTagIds) {
+                    BitSet tagged = inventoriesByTag.get(tagId);
+                    if (tagged != null) {
+                        result.andNot(tagged);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int inventoryId) {
+        inventories.clear(inventoryId);
+        Set<Integer> old = tagsByInventory.remove(inventoryId);
+        if (old == null) {
+            return;
+        }
+        for (Integer tagId : old) {
+            BitSet tagged = inventoriesByTag.get(tagId);
+            if (tagged != null) {
+                tagged.clear(inventoryId);
+                if (tagged.isEmpty()) {
+                    inventoriesByTag.remove(tagId);
+                }
+            }
+        }
+    }
+}
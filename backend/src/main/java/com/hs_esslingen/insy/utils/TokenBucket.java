@@ -0,0 +1,79 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter.
+ * The bucket is refilled at a fixed rate up to its capacity; every permit takes
+ * one token. A request for more tokens than available is still granted, but the
+ * caller has to wait until the missing tokens have been refilled. Later callers
+ * wait for that debt as well, so the long-term rate never exceeds the refill
+ * rate, while short bursts up to the capacity pass without waiting.
+ *
+ * The bucket is safe for concurrent use.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param tokensPerSecond the refill rate
+     * @param capacity        the maximum number of tokens (burst size)
+     */
+    public TokenBucket(double tokensPerSecond, double capacity) {
+        this(tokensPerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Creates a full bucket with the given clock.
+     *
+     * @param tokensPerSecond the refill rate
+     * @param capacity        the maximum number of tokens (burst size)
+     * @param nanoClock       the time source in nanoseconds
+     */
+    public TokenBucket(double tokensPerSecond, double capacity, LongSupplier nanoClock) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes the tokens and returns how long the caller has to wait before using
+     * them.
+     *
+     * @param permits the number of tokens to take
+     * @return the waiting time in nanoseconds, 0 if the tokens were available
+     */
+    public synchronized long reserve(int permits) {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        tokens -= permits;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Takes the tokens and blocks until they may be used.
+     *
+     * @param permits the number of tokens to take
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long wait = reserve(permits);
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
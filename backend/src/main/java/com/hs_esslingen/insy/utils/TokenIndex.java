@@ -0,0 +1,160 @@
+package com.hs_esslingen.insy.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted token index for search-as-you-type.
+ * Every token of a document points to a sorted posting list of document IDs.
+ * Since the tokens are sorted, all tokens starting with a prefix are one
+ * contiguous range of the map.
+ *
+ * The index is safe for concurrent use: queries share a read lock, updates take
+ * the write lock.
+ */
+public class TokenIndex {
+
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or replaces the tokens of a document.
+     *
+     * @param id     the document ID
+     * @param tokens the normalized tokens (see StringParser.searchTokens)
+     */
+    public void put(int id, Set<String> tokens) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (tokens.isEmpty()) {
+                return;
+            }
+            documents.put(id, tokens);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index.
+     *
+     * @param id the document ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all documents from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents that have a token starting with every term.
+     * Documents with a token equal to the last term (the word was typed
+     * completely) come first, then the other matches, each ordered by ID.
+     *
+     * @param terms the normalized terms
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of the best matching documents
+     */
+    public List<Integer> suggest(List<String> terms, int limit) {
+        List<Integer> result = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            BitSet matches = null;
+            for (String term : terms) {
+                BitSet ids = prefixMatch(term);
+                if (matches == null) {
+                    matches = ids;
+                } else {
+                    matches.and(ids);
+                }
+                if (matches.isEmpty()) {
+                    return result;
+                }
+            }
+
+            BitSet exact = new BitSet();
+            PostingList exactList = postings.get(terms.get(terms.size() - 1));
+            if (exactList != null) {
+                exactList.addTo(exact);
+                exact.and(matches);
+            }
+            matches.andNot(exact);
+
+            for (BitSet ranked : List.of(exact, matches)) {
+                for (int id = ranked.nextSetBit(0); id >= 0 && result.size() < limit; id = ranked.nextSetBit(id + 1)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // All documents with a token starting with the prefix
+    private BitSet prefixMatch(String prefix) {
+        BitSet ids = new BitSet();
+        NavigableMap<String, PostingList> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (PostingList list : range.values()) {
+            list.addTo(ids);
+        }
+        return ids;
+    }
+
+    private void removeInternal(int id) {
+        Set<String> old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String token : old) {
+            PostingList list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+}
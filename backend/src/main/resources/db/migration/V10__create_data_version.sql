@@ -0,0 +1,43 @@
+-- Global version of the data, used as cache key and ETag (see DataVersionService). It lives in the database,
+-- so all instances see the same version and it survives restarts. Every transaction that writes to one of
+-- the tables below increments it once, at commit and within the transaction, so the new version becomes
+-- visible together with the data. The outbox and histories are not covered: moving entries from one to the
+-- other (see HistoryWriter) would change the version on every write a second time and even on reads of the
+-- history, which is therefore served without ETag.
+--
+-- Cost: the increment locks the single row until the transaction ends, so the commits of concurrent write
+-- transactions are serialized on it. Their statements still run in parallel, only the commits wait for each
+-- other, one row update each. Read-only transactions are not affected.
+
+CREATE TABLE data_version (
+    id      boolean PRIMARY KEY DEFAULT true CHECK (id),
+    version bigint NOT NULL
+);
+
+INSERT INTO data_version (id, version) VALUES (true, 1);
+
+-- The flag limits the increment to once per transaction, however many rows it writes
+CREATE FUNCTION increment_data_version() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('insy.data_version_incremented', true) IS DISTINCT FROM 'on' THEN
+        UPDATE data_version SET version = version + 1;
+        PERFORM set_config('insy.data_version_incremented', 'on', true);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Deferred to the commit, so the row of data_version is the last lock a transaction takes. Concurrent
+-- writes only wait for each other's commit and cannot deadlock on it.
+DO $$
+DECLARE
+    table_name text;
+BEGIN
+    FOREACH table_name IN ARRAY ARRAY['users', 'companies', 'cost_centers', 'tags', 'inventories',
+            'inventory_tag', 'extensions', 'comments', 'orders', 'articles', 'article_tags'] LOOP
+        EXECUTE format('CREATE CONSTRAINT TRIGGER increment_data_version AFTER INSERT OR UPDATE OR DELETE ON %I '
+                || 'DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION increment_data_version()',
+                table_name);
+    END LOOP;
+END;
+$$;
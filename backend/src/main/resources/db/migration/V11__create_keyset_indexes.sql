@@ -0,0 +1,16 @@
+-- Indexes of the keyset pagination of the inventory list (see InventorySpecification.keysetAfter).
+-- Every page compares (sort key, id) with the cursor and orders by both columns, so an index on both
+-- columns lets it seek to the cursor and read the page in order. The indexes on the sort key alone
+-- of V3 are replaced, the new ones serve the filters on the sort key as well.
+-- The nested sorts (company, user, cost center) order by a column of another table and are not covered.
+
+CREATE INDEX idx_inventories_description_id ON inventories (description, id);
+CREATE INDEX idx_inventories_price_id ON inventories (price, id);
+CREATE INDEX idx_inventories_created_at_id ON inventories (created_at, id);
+CREATE INDEX idx_inventories_serial_number_id ON inventories (serial_number, id);
+CREATE INDEX idx_inventories_location_id ON inventories (location, id);
+
+DROP INDEX idx_inventories_price;
+DROP INDEX idx_inventories_created_at;
+DROP INDEX idx_inventories_serial_number;
+DROP INDEX idx_inventories_location;
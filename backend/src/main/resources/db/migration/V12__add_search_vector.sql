@@ -0,0 +1,11 @@
+-- Stored tsvector of inventories.search_document for the ranked full-text search (see PostgresFullTextFunctions).
+-- The expression index of V2 only served the match, ts_rank still parsed the document of every matching row.
+-- The generated column is computed once per write, the match uses its GIN index and the rank reads it as is.
+-- Adding the column rewrites the table once.
+
+ALTER TABLE inventories ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('german', coalesce(search_document, ''))) STORED;
+
+CREATE INDEX idx_inventories_search_vector ON inventories USING gin (search_vector);
+
+DROP INDEX idx_inventories_search_document_fts;
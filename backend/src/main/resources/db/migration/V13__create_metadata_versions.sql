@@ -0,0 +1,56 @@
+-- Versions of the dimensions of GET /inventories/metadata (see InventoryMetadataService). Unlike data_version
+-- of V10 they only change with the data of their dimension, so a write only refreshes the lookups it affects,
+-- e.g. a new comment none and a changed price only the price bounds. Like data_version they are incremented
+-- at most once per transaction, at commit and within the transaction.
+
+CREATE TABLE metadata_versions (
+    dimension text PRIMARY KEY,
+    version   bigint NOT NULL
+);
+
+INSERT INTO metadata_versions (dimension, version) VALUES
+    ('ids', 1), ('prices', 1), ('locations', 1), ('serial_numbers', 1), ('companies', 1), ('cost_centers', 1);
+
+CREATE FUNCTION increment_metadata_version(changed text) RETURNS void AS $$
+BEGIN
+    IF current_setting('insy.metadata_version_' || changed, true) IS DISTINCT FROM 'on' THEN
+        UPDATE metadata_versions SET version = version + 1 WHERE dimension = changed;
+        PERFORM set_config('insy.metadata_version_' || changed, 'on', true);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Updates of inventory items only count for the columns that changed
+CREATE FUNCTION increment_inventory_metadata_versions() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'UPDATE' OR NEW.id IS DISTINCT FROM OLD.id THEN
+        PERFORM increment_metadata_version('ids');
+    END IF;
+    IF TG_OP <> 'UPDATE' OR NEW.id IS DISTINCT FROM OLD.id OR NEW.price IS DISTINCT FROM OLD.price THEN
+        PERFORM increment_metadata_version('prices');
+    END IF;
+    IF TG_OP <> 'UPDATE' OR NEW.location IS DISTINCT FROM OLD.location THEN
+        PERFORM increment_metadata_version('locations');
+    END IF;
+    IF TG_OP <> 'UPDATE' OR NEW.serial_number IS DISTINCT FROM OLD.serial_number THEN
+        PERFORM increment_metadata_version('serial_numbers');
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Every write of the table counts for the dimension given as argument
+CREATE FUNCTION increment_table_metadata_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM increment_metadata_version(TG_ARGV[0]);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Deferred to the commit like the triggers of V10, so the rows of metadata_versions are locked last
+CREATE CONSTRAINT TRIGGER increment_metadata_versions AFTER INSERT OR UPDATE OR DELETE ON inventories
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION increment_inventory_metadata_versions();
+CREATE CONSTRAINT TRIGGER increment_metadata_versions AFTER INSERT OR UPDATE OR DELETE ON companies
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION increment_table_metadata_version('companies');
+CREATE CONSTRAINT TRIGGER increment_metadata_versions AFTER INSERT OR UPDATE OR DELETE ON cost_centers
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION increment_table_metadata_version('cost_centers');
@@ -0,0 +1,105 @@
+-- Tables of the JPA entities in com.hs_esslingen.insy.model
+-- Column types follow what Hibernate generates for PostgreSQL, so ddl-auto=validate accepts them
+
+CREATE TABLE users (
+    id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255)
+);
+
+CREATE TABLE companies (
+    id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL
+);
+
+CREATE TABLE cost_centers (
+    id          integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description varchar(255),
+    is_archived boolean
+);
+
+CREATE TABLE tags (
+    id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL
+);
+
+-- The inventory number is assigned by the application
+CREATE TABLE inventories (
+    id               integer PRIMARY KEY,
+    cost_centers_id  integer REFERENCES cost_centers (id),
+    users_id         integer REFERENCES users (id),
+    companies_id     integer REFERENCES companies (id),
+    description      varchar(255),
+    serial_number    varchar(255),
+    is_deinventoried boolean NOT NULL,
+    price            numeric(38, 2),
+    location         varchar(255),
+    search_text      text,
+    search_document  text,
+    created_at       timestamp(6),
+    deleted_at       timestamp(6)
+);
+
+CREATE TABLE inventory_tag (
+    inventory_id integer NOT NULL REFERENCES inventories (id),
+    tag_id       integer NOT NULL REFERENCES tags (id),
+    PRIMARY KEY (inventory_id, tag_id)
+);
+
+CREATE TABLE extensions (
+    id            integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    inventory_id  integer NOT NULL REFERENCES inventories (id),
+    company_id    integer REFERENCES companies (id),
+    description   varchar(255),
+    serial_number varchar(255),
+    price         numeric(38, 2) NOT NULL,
+    created_at    timestamp(6) NOT NULL
+);
+
+CREATE TABLE comments (
+    id             integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    inventory_id   integer REFERENCES inventories (id),
+    author_user_id integer REFERENCES users (id),
+    description    varchar(255) NOT NULL,
+    created_at     timestamp(6) NOT NULL
+);
+
+CREATE TABLE histories (
+    id                integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    author_user_id    integer REFERENCES users (id),
+    inventory_id      integer NOT NULL REFERENCES inventories (id),
+    attribute_changed varchar(255) NOT NULL,
+    value_from        varchar(255) NOT NULL,
+    value_to          varchar(255) NOT NULL,
+    created_at        timestamp(6) NOT NULL
+);
+
+CREATE TABLE orders (
+    id          integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description varchar(255),
+    price       numeric(38, 2),
+    company     varchar(255),
+    besy_id     integer NOT NULL,
+    deleted_at  timestamp(6),
+    created_at  timestamp(6),
+    user_name   varchar(255)
+);
+
+CREATE TABLE articles (
+    id             integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id       integer NOT NULL REFERENCES orders (id),
+    inventories_id integer,
+    description    varchar(255),
+    price          numeric(38, 2),
+    company        varchar(255),
+    is_inventoried boolean,
+    cost_center    varchar(255),
+    user_name      varchar(255),
+    serial_number  varchar(255),
+    location       varchar(255),
+    is_extension   boolean
+);
+
+CREATE TABLE article_tags (
+    article_id integer NOT NULL REFERENCES articles (id),
+    tag_id     integer
+);
@@ -0,0 +1,6 @@
+-- Trigram index for the substring search on inventories.search_text (see InventorySpecification.hasSearchText)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_inventories_search_text_trgm ON inventories USING gin (search_text gin_trgm_ops);
+
+-- Expression index for the ranked full-text search on inventories.search_document (see PostgresFullTextFunctions)
+CREATE INDEX idx_inventories_search_document_fts ON inventories USING gin (to_tsvector('german', coalesce(search_document, '')));
@@ -0,0 +1,28 @@
+-- Indexes for the filters and sort fields of the inventory list (see InventorySpecification)
+CREATE INDEX idx_inventories_location ON inventories (location);
+CREATE INDEX idx_inventories_serial_number ON inventories (serial_number);
+CREATE INDEX idx_inventories_created_at ON inventories (created_at);
+CREATE INDEX idx_inventories_price ON inventories (price);
+CREATE INDEX idx_inventories_is_deinventoried ON inventories (is_deinventoried);
+
+-- Foreign keys: joins of the list and the filters by cost center, company and orderer
+CREATE INDEX idx_inventories_cost_centers_id ON inventories (cost_centers_id);
+CREATE INDEX idx_inventories_companies_id ON inventories (companies_id);
+CREATE INDEX idx_inventories_users_id ON inventories (users_id);
+
+-- Tag filter: inventory_tag is keyed by (inventory_id, tag_id), the lookup by tag needs its own index
+CREATE INDEX idx_inventory_tag_tag_id ON inventory_tag (tag_id);
+
+-- Child tables, loaded per inventory item
+CREATE INDEX idx_extensions_inventory_id ON extensions (inventory_id);
+CREATE INDEX idx_comments_inventory_id ON comments (inventory_id);
+CREATE INDEX idx_histories_inventory_id ON histories (inventory_id);
+CREATE INDEX idx_articles_order_id ON articles (order_id);
+CREATE INDEX idx_article_tags_article_id ON article_tags (article_id);
+
+-- Lookups by name when an inventory item is created or imported
+CREATE INDEX idx_companies_name ON companies (name);
+CREATE INDEX idx_users_name ON users (name);
+CREATE INDEX idx_cost_centers_description ON cost_centers (description);
+CREATE INDEX idx_tags_name ON tags (name);
+CREATE INDEX idx_orders_besy_id ON orders (besy_id);
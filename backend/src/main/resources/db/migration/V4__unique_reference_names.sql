@@ -0,0 +1,42 @@
+-- Companies, orderers and cost centers are resolved by name and created on demand (see CompanyService,
+-- UserService and CostCenterService). Unique constraints make the creation safe under concurrency with
+-- INSERT ... ON CONFLICT, so duplicates created by earlier races are merged into the row with the lowest id first.
+
+UPDATE inventories i SET companies_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY name) AS keep_id FROM companies) d
+WHERE i.companies_id = d.id AND d.id <> d.keep_id;
+
+UPDATE extensions e SET company_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY name) AS keep_id FROM companies) d
+WHERE e.company_id = d.id AND d.id <> d.keep_id;
+
+DELETE FROM companies c USING companies k WHERE c.name = k.name AND c.id > k.id;
+
+UPDATE inventories i SET users_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY name) AS keep_id FROM users WHERE name IS NOT NULL) d
+WHERE i.users_id = d.id AND d.id <> d.keep_id;
+
+UPDATE comments c SET author_user_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY name) AS keep_id FROM users WHERE name IS NOT NULL) d
+WHERE c.author_user_id = d.id AND d.id <> d.keep_id;
+
+UPDATE histories h SET author_user_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY name) AS keep_id FROM users WHERE name IS NOT NULL) d
+WHERE h.author_user_id = d.id AND d.id <> d.keep_id;
+
+DELETE FROM users u USING users k WHERE u.name = k.name AND u.id > k.id;
+
+UPDATE inventories i SET cost_centers_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY description) AS keep_id FROM cost_centers WHERE description IS NOT NULL) d
+WHERE i.cost_centers_id = d.id AND d.id <> d.keep_id;
+
+DELETE FROM cost_centers c USING cost_centers k WHERE c.description = k.description AND c.id > k.id;
+
+-- The unique indexes replace the plain lookup indexes of V3
+DROP INDEX idx_companies_name;
+DROP INDEX idx_users_name;
+DROP INDEX idx_cost_centers_description;
+
+ALTER TABLE companies ADD CONSTRAINT uk_companies_name UNIQUE (name);
+ALTER TABLE users ADD CONSTRAINT uk_users_name UNIQUE (name);
+ALTER TABLE cost_centers ADD CONSTRAINT uk_cost_centers_description UNIQUE (description);
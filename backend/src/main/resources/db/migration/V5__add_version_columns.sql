@@ -0,0 +1,5 @@
+-- Version of inventory items and extensions for optimistic locking (JPA @Version)
+-- and the ETag / If-Match of PATCH and DELETE. Existing rows start with version 0.
+
+ALTER TABLE inventories ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE extensions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
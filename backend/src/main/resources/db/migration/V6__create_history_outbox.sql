@@ -0,0 +1,19 @@
+-- Transactional outbox of the inventory history (see HistoryWriter). A change writes its history entries
+-- here within its own transaction, so they are as durable as the change itself. A background writer
+-- resolves the authors and moves the entries to histories in batches. Entries that cannot be moved stay
+-- here with their number of attempts and the last error.
+
+CREATE TABLE history_outbox (
+    id                bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    author_name       varchar(255) NOT NULL,
+    -- The history of a deleted item is deleted with it, as in histories
+    inventory_id      integer NOT NULL REFERENCES inventories (id) ON DELETE CASCADE,
+    attribute_changed varchar(255) NOT NULL,
+    value_from        text NOT NULL,
+    value_to          text NOT NULL,
+    created_at        timestamp(6) NOT NULL,
+    attempts          integer NOT NULL DEFAULT 0,
+    last_error        text
+);
+
+CREATE INDEX idx_history_outbox_inventory_id ON history_outbox (inventory_id);
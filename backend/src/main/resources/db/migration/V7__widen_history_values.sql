@@ -0,0 +1,5 @@
+-- The history of tags and extensions lists all their names (see InventoryDiff), which easily exceeds
+-- 255 characters for an item with a few extensions.
+
+ALTER TABLE histories ALTER COLUMN value_from TYPE text;
+ALTER TABLE histories ALTER COLUMN value_to TYPE text;
@@ -0,0 +1,9 @@
+-- Trigram indexes for the fuzzy lookup of GET /serialNumbers/search (see InventoryRepositoryCustomImpl.findSimilarSerialNumbers).
+-- The expression is the normalization of StringParser.normalizeSerialNumber: uppercase, only letters and digits, O -> 0, I -> 1
+CREATE INDEX idx_inventories_serial_number_trgm ON inventories
+    USING gin ((translate(regexp_replace(upper(serial_number), '[^[:alnum:]]', '', 'g'), 'OI', '01')) gin_trgm_ops);
+CREATE INDEX idx_extensions_serial_number_trgm ON extensions
+    USING gin ((translate(regexp_replace(upper(serial_number), '[^[:alnum:]]', '', 'g'), 'OI', '01')) gin_trgm_ops);
+
+-- Inventory numbers are looked up as text
+CREATE INDEX idx_inventories_id_trgm ON inventories USING gin ((CAST(id AS text)) gin_trgm_ops);
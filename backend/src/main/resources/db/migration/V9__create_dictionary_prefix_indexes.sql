@@ -0,0 +1,9 @@
+-- Indexes for the prefix dictionaries of GET /dictionaries/{dictionary} (see DictionaryService).
+-- The plain indexes of V3 and V4 serve neither LOWER(col) LIKE 'prefix%' nor an order by the lowercase value.
+-- In the collation "C", a btree on lower(col) serves the prefix like text_pattern_ops and, unlike it, also the
+-- ORDER BY lower(col) COLLATE "C", col of the keyset pagination, so a page is read without sorting.
+CREATE INDEX idx_inventories_location_prefix ON inventories ((lower(location) COLLATE "C"), location);
+CREATE INDEX idx_inventories_serial_number_prefix ON inventories ((lower(serial_number) COLLATE "C"), serial_number);
+CREATE INDEX idx_companies_name_prefix ON companies ((lower(name) COLLATE "C"), name);
+CREATE INDEX idx_users_name_prefix ON users ((lower(name) COLLATE "C"), name);
+CREATE INDEX idx_cost_centers_description_prefix ON cost_centers ((lower(description) COLLATE "C"), description);
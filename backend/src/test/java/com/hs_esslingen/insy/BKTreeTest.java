@@ -0,0 +1,65 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.BKTree;
+import com.hs_esslingen.insy.utils.StringParser;
+
+class BKTreeTest {
+
+    private BKTree<Integer> tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new BKTree<>();
+        tree.add(StringParser.normalizeSerialNumber("SN-4711-AB"), 1);
+        tree.add(StringParser.normalizeSerialNumber("SN-4712-AB"), 2);
+        tree.add(StringParser.normalizeSerialNumber("XK900123"), 3);
+    }
+
+    @Test
+    void distance_countsTranspositionAsOneEdit() {
+        assertEquals(1, BKTree.distance("4711", "7411"));
+        assertEquals(1, BKTree.distance("4711", "471"));
+        assertEquals(0, BKTree.distance("", ""));
+        assertEquals(3, BKTree.distance("abc", ""));
+    }
+
+    @Test
+    void search_findsMisreadSerialNumber() {
+        // "O" und "I" werden wie "0" und "1" behandelt, Trennzeichen ignoriert
+        List<BKTree.Match<Integer>> matches = tree.search(StringParser.normalizeSerialNumber("xk 9OO I23"), 0);
+
+        assertEquals(1, matches.size());
+        assertEquals(3, matches.get(0).value());
+    }
+
+    @Test
+    void search_ordersByDistance() {
+        List<BKTree.Match<Integer>> matches = tree.search(StringParser.normalizeSerialNumber("SN4711BA"), 2);
+
+        assertEquals(2, matches.size());
+        assertEquals(1, matches.get(0).value());
+        assertEquals(1, matches.get(0).distance());
+        assertEquals(2, matches.get(1).value());
+        assertEquals(2, matches.get(1).distance());
+    }
+
+    @Test
+    void remove_dropsValueButKeepsOthersReachable() {
+        tree.remove(StringParser.normalizeSerialNumber("SN-4711-AB"), 1);
+
+        List<BKTree.Match<Integer>> matches = tree.search(StringParser.normalizeSerialNumber("SN4712AB"), 1);
+
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).value());
+        assertTrue(tree.search("SN4711AB", 0).isEmpty());
+        assertEquals(2, tree.size());
+    }
+}
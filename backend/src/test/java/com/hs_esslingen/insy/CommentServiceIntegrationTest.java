@@ -0,0 +1,71 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.hs_esslingen.insy.dto.CommentDTO;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.CommentService;
+
+// Not transactional: createComment runs in its own transaction like a request, so a
+// resolved author that is not part of the persistence context would fail on save
+@SpringBootTest
+class CommentServiceIntegrationTest {
+
+    // ID far above the seeded data so that the test only sees its own item
+    private static final int INVENTORY_ID = 920_000;
+    private static final String AUTHOR = "commenttest.user";
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.save(new Inventory(INVENTORY_ID, null, null, null, "Kommentartest", "CT1",
+                new BigDecimal("10.00"), "Raum 1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM comments WHERE inventory_id = ?", INVENTORY_ID);
+        jdbcTemplate.update("DELETE FROM inventories WHERE id = ?", INVENTORY_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE name = ?", AUTHOR);
+    }
+
+    @Test
+    void createComment_withAuthor_savesCommentAndAuthor() {
+        // Der erste Kommentar legt den Autor an, der zweite findet ihn im Cache
+        CommentDTO first = commentService.createComment(INVENTORY_ID,
+                CommentDTO.builder().description("Erster Kommentar").author(AUTHOR).build());
+        CommentDTO second = commentService.createComment(INVENTORY_ID,
+                CommentDTO.builder().description("Zweiter Kommentar").author(AUTHOR).build());
+
+        assertNotNull(first.getId());
+        assertNotNull(second.getId());
+        assertEquals(AUTHOR, first.getAuthor());
+        assertEquals(AUTHOR, second.getAuthor());
+
+        // Beide Kommentare verweisen auf denselben Benutzer
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE name = ?", Integer.class,
+                AUTHOR));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT author_user_id) FROM comments WHERE inventory_id = ?", Integer.class,
+                INVENTORY_ID));
+    }
+}
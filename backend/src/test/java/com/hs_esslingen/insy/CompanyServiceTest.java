@@ -0,0 +1,70 @@
+package com.hs_esslingen.insy;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.repository.CompanyRepository;
+import com.hs_esslingen.insy.service.CompanyService;
+
+class CompanyServiceTest {
+
+    @InjectMocks
+    private CompanyService companyService;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testResolveCompanyByNameIsCached() {
+        Company acme = new Company("Acme");
+        acme.setId(5);
+        when(companyRepository.findIdByName("Acme")).thenReturn(Optional.of(5));
+        when(companyRepository.getReferenceById(5)).thenReturn(acme);
+
+        Company first = companyService.resolveCompany("Acme");
+        Company second = companyService.resolveCompany("Acme");
+
+        assertEquals(5, first.getId());
+        assertEquals("Acme", first.getName());
+        assertEquals(5, second.getId());
+
+        // Die zweite Auflösung kommt aus dem Cache, ohne Abfrage nach dem Namen
+        verify(companyRepository, times(1)).findIdByName("Acme");
+        verify(companyRepository, never()).upsertByName("Acme");
+    }
+
+    @Test
+    void testResolveCompanyByNameCreatesMissingCompany() {
+        when(companyRepository.findIdByName("NewCo")).thenReturn(Optional.empty());
+        when(companyRepository.upsertByName("NewCo")).thenReturn(7);
+        Company newCo = new Company("NewCo");
+        newCo.setId(7);
+        when(companyRepository.getReferenceById(7)).thenReturn(newCo);
+
+        assertEquals(7, companyService.resolveCompany("NewCo").getId());
+        verify(companyRepository).upsertByName("NewCo");
+    }
+
+    @Test
+    void testResolveCompanyWithInvalidType() {
+        assertThrows(BadRequestException.class, () -> companyService.resolveCompany(1.5));
+    }
+}
@@ -0,0 +1,98 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.hs_esslingen.insy.configuration.DataVersionEtagInterceptor;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.DataVersionService;
+
+class DataVersionEtagInterceptorTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private DataVersionService dataVersionService;
+    private DataVersionEtagInterceptor interceptor;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(inventoryRepository.findDataVersion()).thenReturn(7L);
+        dataVersionService = new DataVersionService(inventoryRepository);
+        interceptor = new DataVersionEtagInterceptor(dataVersionService);
+    }
+
+    @Test
+    void testGetWithoutEtagReturnsEtag() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventories");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Ohne If-None-Match wird der Controller aufgerufen und das ETag gesetzt
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertEquals(dataVersionService.etag(), response.getHeader("ETag"));
+        assertEquals("W/\"7.0\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void testGetWithCurrentEtagReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventories");
+        request.addHeader("If-None-Match", dataVersionService.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Unveränderte Daten: 304 ohne Aufruf des Controllers
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void testGetWithOutdatedEtagAfterWrite() throws Exception {
+        String etag = dataVersionService.etag();
+        // Der Schreibvorgang (auch einer anderen Instanz) erhöht die Version in der Datenbank
+        when(inventoryRepository.findDataVersion()).thenReturn(8L);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventories");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Nach einem Schreibvorgang ist das alte ETag nicht mehr gültig
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertEquals(200, response.getStatus());
+        assertEquals(dataVersionService.etag(), response.getHeader("ETag"));
+    }
+
+    @Test
+    void testInventoryChangedInvalidatesEtagWithoutWrite() throws Exception {
+        String etag = dataVersionService.etag();
+        dataVersionService.onInventoryChanged(InventoryChangedEvent.of(1));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventories");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Nach dem Aktualisieren der In-Memory-Indizes ist das alte ETag ungültig,
+        // obwohl die Version in der Datenbank gleich bleibt
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertEquals("W/\"7.1\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void testNonGetRequestIsIgnored() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/inventories");
+        request.addHeader("If-None-Match", dataVersionService.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertNull(response.getHeader("ETag"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.hs_esslingen.insy;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import com.hs_esslingen.insy.dto.DictionaryPageDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.exception.NotFoundException;
+import com.hs_esslingen.insy.repository.CompanyRepository;
+import com.hs_esslingen.insy.repository.CostCenterRepository;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.repository.UserRepository;
+import com.hs_esslingen.insy.service.DictionaryService;
+
+class DictionaryServiceTest {
+
+    @InjectMocks
+    private DictionaryService dictionaryService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CostCenterRepository costCenterRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getValues_returnsPageWithNextValue() {
+        // Eine Zeile mehr als angefragt bedeutet: es gibt eine weitere Seite
+        when(inventoryRepository.findLocationsByPrefix("raum%", "", Limit.of(3)))
+                .thenReturn(List.of("Raum 1", "Raum 2", "Raum 3"));
+
+        DictionaryPageDTO page = dictionaryService.getValues("locations", "Raum", null, 2);
+
+        assertEquals(List.of("Raum 1", "Raum 2"), page.getValues());
+        assertEquals("Raum 2", page.getNext());
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    void getValues_lastPageHasNoNextValue() {
+        when(companyRepository.findNamesByPrefix("%", "Gedankenfabrik GmbH", Limit.of(11)))
+                .thenReturn(List.of("Tech Solutions AG"));
+
+        DictionaryPageDTO page = dictionaryService.getValues("companies", null, "Gedankenfabrik GmbH", 10);
+
+        assertEquals(List.of("Tech Solutions AG"), page.getValues());
+        assertNull(page.getNext());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void getValues_escapesWildcardsInPrefix() {
+        when(userRepository.findNamesByPrefix("50\\%%", "", Limit.of(51))).thenReturn(List.of());
+
+        dictionaryService.getValues("users", "50%", null, 50);
+
+        verify(userRepository).findNamesByPrefix("50\\%%", "", Limit.of(51));
+    }
+
+    @Test
+    void getValues_rejectsUnknownDictionaryAndInvalidLimit() {
+        assertThrows(NotFoundException.class, () -> dictionaryService.getValues("tags", null, null, 10));
+        assertThrows(BadRequestException.class, () -> dictionaryService.getValues("users", null, null, 0));
+    }
+}
@@ -12,23 +12,29 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.hs_esslingen.insy.dto.ExtensionCreateDTO;
 import com.hs_esslingen.insy.dto.ExtensionResponseDTO;
+import com.hs_esslingen.insy.exception.PreconditionFailedException;
 import com.hs_esslingen.insy.mapper.ExtensionMapper;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.model.Extension;
 import com.hs_esslingen.insy.model.Inventory;
-import com.hs_esslingen.insy.repository.CompanyRepository;
 import com.hs_esslingen.insy.repository.ExtensionRepository;
 import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.CompanyService;
 import com.hs_esslingen.insy.service.ExtensionService;
+import com.hs_esslingen.insy.service.HistoryWriter;
 import com.hs_esslingen.insy.service.InventoryService;
 
 class ExtensionServiceTest {
@@ -43,14 +49,20 @@ class ExtensionServiceTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private CompanyRepository companyRepository;
+    private CompanyService companyService;
 
     @Mock
     private ExtensionMapper extensionMapper;
 
+    @Mock
+    private HistoryWriter historyWriter;
+
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -107,8 +119,7 @@ class ExtensionServiceTest {
 
         when(inventoryRepository.findById(1)).thenReturn(Optional.of(inv));
         when(extensionMapper.toEntity(dto)).thenReturn(entity);
-        when(companyRepository.findByName("Acme")).thenReturn(Optional.empty());
-        when(companyRepository.save(any(Company.class))).thenReturn(savedCompany);
+        when(companyService.resolveCompany("Acme")).thenReturn(savedCompany);
         when(extensionMapper.toDto(entity)).thenReturn(new ExtensionResponseDTO());
         
         // Aufruf der Methode
@@ -118,6 +129,8 @@ class ExtensionServiceTest {
         assertNotNull(result);
         assertEquals(savedCompany, entity.getCompany());
         assertTrue(inv.getExtensions().contains(entity));
+        // Die neue Extension wird in der Historie des Inventars festgehalten
+        verify(historyWriter).submit(anyList(), eq("Unknown"));
     }
 
     @Test
@@ -173,17 +186,19 @@ class ExtensionServiceTest {
         newComp.setName("NewCo");
 
         when(extensionRepository.findById(8)).thenReturn(Optional.of(ext));
-        when(companyRepository.findByName("NewCo")).thenReturn(Optional.empty());
-        when(companyRepository.save(any(Company.class))).thenReturn(newComp);
+        when(companyService.resolveCompany("NewCo")).thenReturn(newComp);
         when(extensionRepository.save(ext)).thenReturn(ext);
         when(extensionMapper.toDto(ext)).thenReturn(new ExtensionResponseDTO());
 
-        ExtensionResponseDTO result = extensionService.updateExtension(1, 8, dto);
+        ExtensionResponseDTO result = extensionService.updateExtension(1, 8, dto, null);
 
         // Überprüfung
         assertNotNull(result);
         assertEquals(new BigDecimal("230.00"), inv.getPrice());
         assertEquals(newComp, ext.getCompany());
+        // Die Preisänderung des Inventars landet in der Historie
+        verify(historyWriter).submit(argThat(histories -> histories.size() == 1
+                && "price".equals(histories.get(0).getAttributeChanged())), eq("Unknown"));
     }
 
     @Test
@@ -199,16 +214,37 @@ class ExtensionServiceTest {
         when(inventoryRepository.findById(1)).thenReturn(Optional.of(inv));
         when(extensionRepository.findById(15)).thenReturn(Optional.of(ext));
 
-        extensionService.deleteExtension(1, 15);
+        extensionService.deleteExtension(1, 15, null);
 
         verify(extensionRepository).delete(ext);
         assertFalse(inv.getExtensions().contains(ext));
     }
 
+    @Test
+    void testDeleteExtension_IfMatchOutdated() {
+
+        // Setup - die Extension wurde seit dem Lesen durch den Client geändert
+        Inventory inv = new Inventory();
+        inv.setId(1);
+        Extension ext = new Extension();
+        ext.setId(15);
+        ext.setVersion(2L);
+        inv.setExtensions(new ArrayList<>(List.of(ext)));
+
+        when(inventoryRepository.findById(1)).thenReturn(Optional.of(inv));
+        when(extensionRepository.findById(15)).thenReturn(Optional.of(ext));
+
+        assertThrows(PreconditionFailedException.class, () -> extensionService.deleteExtension(1, 15, "\"1\""));
+
+        // Die Extension bleibt erhalten
+        verify(extensionRepository, never()).delete(ext);
+        assertTrue(inv.getExtensions().contains(ext));
+    }
+
     @Test
     void testDeleteExtension_NotFoundInventory() {
         when(inventoryRepository.findById(1)).thenReturn(Optional.empty());
-        assertThrows(RuntimeException.class, () -> extensionService.deleteExtension(1, 5));
+        assertThrows(RuntimeException.class, () -> extensionService.deleteExtension(1, 5, null));
     }
 
     @Test
@@ -217,6 +253,6 @@ class ExtensionServiceTest {
         inv.setId(1);
         when(inventoryRepository.findById(1)).thenReturn(Optional.of(inv));
         when(extensionRepository.findById(99)).thenReturn(Optional.empty());
-        assertThrows(RuntimeException.class, () -> extensionService.deleteExtension(1, 99));
+        assertThrows(RuntimeException.class, () -> extensionService.deleteExtension(1, 99, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.hs_esslingen.insy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.hs_esslingen.insy.model.History;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.repository.HistoryOutboxEntry;
+import com.hs_esslingen.insy.repository.HistoryRepository;
+import com.hs_esslingen.insy.service.HistoryWriter;
+import com.hs_esslingen.insy.service.UserService;
+
+class HistoryWriterTest {
+
+    @Mock
+    private HistoryRepository historyRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HistoryWriter historyWriter;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        historyWriter = new HistoryWriter(historyRepository, userService, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        historyWriter.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSubmit_withoutTransactionThrows() {
+        // Ohne Transaktion könnte die Historie einer fehlgeschlagenen Änderung geschrieben werden
+        assertThrows(IllegalStateException.class, () -> historyWriter.submit(histories(1), "max"));
+        verify(historyRepository, never()).insertIntoOutbox(anyList(), anyString());
+    }
+
+    @Test
+    void testSubmit_inTransactionWritesOutbox() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<History> histories = histories(1, 2);
+
+        historyWriter.submit(histories, "max");
+
+        // Die Einträge landen in der Transaktion der Änderung in der Outbox
+        verify(historyRepository).insertIntoOutbox(histories, "max");
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    void testFlush_movesEntriesOfInventory() {
+        when(historyRepository.lockOutboxOf(1, 5)).thenReturn(entries(1, 2));
+
+        historyWriter.flush(1);
+
+        verify(userService).resolveUsers(Set.of("max"));
+        verify(historyRepository).moveFromOutbox(List.of(1L, 2L));
+    }
+
+    @Test
+    void testMove_failingBatchIsMovedOneByOne() {
+        when(historyRepository.lockOutboxOf(1, 5)).thenReturn(entries(1, 2, 3));
+        // Der Batch scheitert an einem Eintrag
+        doThrow(new RuntimeException("value too long")).when(historyRepository)
+                .moveFromOutbox(argThat(ids -> ids.contains(2L)));
+
+        historyWriter.flush(1);
+
+        verify(historyRepository).moveFromOutbox(List.of(1L));
+        verify(historyRepository).moveFromOutbox(List.of(3L));
+        // Der fehlerhafte Eintrag bleibt mit seinem Fehler in der Outbox
+        verify(historyRepository).recordOutboxFailure(eq(2L), anyString());
+    }
+
+    @Test
+    void testStop_movesRemainingEntries() {
+        when(historyRepository.lockOutbox(5, 500)).thenReturn(entries(1, 2), List.of());
+
+        historyWriter.start();
+        // Beim Herunterfahren wird die Outbox vollständig abgearbeitet
+        historyWriter.stop();
+
+        verify(historyRepository).moveFromOutbox(List.of(1L, 2L));
+    }
+
+    // Ein Eintrag je Inventar
+    private static List<History> histories(int... inventoryIds) {
+        List<History> histories = new ArrayList<>();
+        for (int id : inventoryIds) {
+            Inventory inventory = new Inventory();
+            inventory.setId(id);
+            History history = new History(null, "location", "Raum 1", "Raum 2");
+            history.setInventory(inventory);
+            histories.add(history);
+        }
+        return histories;
+    }
+
+    // Einträge der Outbox mit den gegebenen IDs
+    private static List<HistoryOutboxEntry> entries(long... ids) {
+        List<HistoryOutboxEntry> entries = new ArrayList<>();
+        for (long id : ids) {
+            entries.add(new HistoryOutboxEntry(id, "max"));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,166 @@
+package com.hs_esslingen.insy;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryBatchResultDTO;
+import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.mapper.InventoryMapper;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.repository.TagRepository;
+import com.hs_esslingen.insy.service.CompanyService;
+import com.hs_esslingen.insy.service.CostCenterService;
+import com.hs_esslingen.insy.service.InventoryBatchService;
+import com.hs_esslingen.insy.service.UserService;
+
+class InventoryBatchServiceTest {
+
+    @InjectMocks
+    private InventoryBatchService batchService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private CostCenterService costCenterService;
+
+    @Mock
+    private CompanyService companyService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private InventoryMapper inventoryMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testAddInventories_reportsResultPerItem() {
+        // Setup - gültiges Item, bestehende ID, doppelte ID und unbekannter Tag
+        List<InventoryCreateRequestDTO> dtos = List.of(
+                request(1, List.of(1)),
+                request(2, List.of(1)),
+                request(1, List.of(1)),
+                request(4, List.of(9)));
+
+        when(inventoryRepository.findInventoriesIdIn(anyList())).thenReturn(Set.of(2));
+        when(costCenterService.resolveCostCentersByName(any())).thenReturn(Map.of("IT", new CostCenter("IT")));
+        when(companyService.resolveCompaniesByName(any())).thenReturn(Map.of("Acme", new Company("Acme")));
+        when(userService.resolveUsers(any())).thenReturn(Map.of("max.mustermann", new User("max.mustermann")));
+        when(tagRepository.findAllById(any())).thenReturn(List.of(new Tag(1, "IT", new HashSet<>())));
+        when(inventoryRepository.insertAll(anyList())).thenReturn(Set.of(1));
+        InventoriesResponseDTO responseDTO = new InventoriesResponseDTO();
+        when(inventoryMapper.toDto(any())).thenReturn(responseDTO);
+
+        List<InventoryBatchResultDTO> results = batchService.addInventories(dtos);
+
+        // Überprüfung - Ergebnisse in der Reihenfolge der Anfrage
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertEquals(responseDTO, results.get(0).getInventory());
+        assertNull(results.get(0).getError());
+        assertFalse(results.get(1).isCreated());
+        assertTrue(results.get(1).getError().contains("already exists"));
+        assertTrue(results.get(2).getError().contains("more than once"));
+        assertTrue(results.get(3).getError().contains("Tag with id: 9"));
+
+        // Nur das gültige Item wird mit einem Batch eingefügt
+        verify(inventoryRepository).insertAll(argThat(inventories -> inventories.size() == 1));
+    }
+
+    @Test
+    void testAddInventories_concurrentlyCreatedIdIsReported() {
+        when(inventoryRepository.findInventoriesIdIn(anyList())).thenReturn(Set.of());
+        when(costCenterService.resolveCostCentersByName(any())).thenReturn(Map.of("IT", new CostCenter("IT")));
+        when(companyService.resolveCompaniesByName(any())).thenReturn(Map.of("Acme", new Company("Acme")));
+        when(userService.resolveUsers(any())).thenReturn(Map.of("max.mustermann", new User("max.mustermann")));
+        // Die ID wurde nach der Prüfung von einer anderen Anfrage angelegt
+        when(inventoryRepository.insertAll(anyList())).thenReturn(Set.of());
+
+        List<InventoryBatchResultDTO> results = batchService.addInventories(List.of(request(5, null)));
+
+        assertFalse(results.get(0).isCreated());
+        assertTrue(results.get(0).getError().contains("already exists"));
+    }
+
+    @Test
+    void testAddInventories_invalidItemsResolveNoReferences() {
+        // Setup - negativer Preis, bestehende ID und unbekannter Tag mit eigenen Namen
+        InventoryCreateRequestDTO negativePrice = request(1, null);
+        negativePrice.setPrice(new BigDecimal("-1.00"));
+        negativePrice.setCompany("Neu GmbH");
+        InventoryCreateRequestDTO existing = request(2, null);
+        existing.setCostCenter("Neu");
+        InventoryCreateRequestDTO unknownTag = request(3, List.of(9));
+        unknownTag.setOrderer("neu.benutzer");
+
+        when(inventoryRepository.findInventoriesIdIn(anyList())).thenReturn(Set.of(2));
+        when(tagRepository.findAllById(any())).thenReturn(List.of());
+        when(inventoryRepository.insertAll(anyList())).thenReturn(Set.of());
+
+        List<InventoryBatchResultDTO> results = batchService.addInventories(
+                List.of(negativePrice, existing, unknownTag, request(4, null)));
+
+        assertTrue(results.get(0).getError().contains("Price cannot be negative"));
+        assertTrue(results.get(1).getError().contains("already exists"));
+        assertTrue(results.get(2).getError().contains("Tag with id: 9"));
+
+        // Überprüfung - nur die Namen des gültigen Items werden aufgelöst und ggf. angelegt
+        verify(costCenterService).resolveCostCentersByName(Set.of("IT"));
+        verify(companyService).resolveCompaniesByName(Set.of("Acme"));
+        verify(userService).resolveUsers(Set.of("max.mustermann"));
+    }
+
+    @Test
+    void testAddInventories_emptyRequest() {
+        assertThrows(BadRequestException.class, () -> batchService.addInventories(List.of()));
+    }
+
+    private InventoryCreateRequestDTO request(int id, List<Integer> tags) {
+        InventoryCreateRequestDTO dto = new InventoryCreateRequestDTO();
+        dto.setInventoriesId(id);
+        dto.setDescription("Laptop " + id);
+        dto.setPrice(new BigDecimal("999.99"));
+        dto.setCostCenter("IT");
+        dto.setCompany("Acme");
+        dto.setOrderer("max.mustermann");
+        dto.setTags(tags);
+        return dto;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hs_esslingen.insy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.hs_esslingen.insy.dto.InventoryBulkPatchDTO;
+import com.hs_esslingen.insy.dto.InventoryBulkResultDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.repository.InventoryBulkChange;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.CompanyService;
+import com.hs_esslingen.insy.service.CostCenterService;
+import com.hs_esslingen.insy.service.InventoryBulkService;
+import com.hs_esslingen.insy.service.InventoryService;
+import com.hs_esslingen.insy.service.UserService;
+import com.hs_esslingen.insy.utils.StringParser;
+
+class InventoryBulkServiceTest {
+
+    @InjectMocks
+    private InventoryBulkService bulkService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private CostCenterService costCenterService;
+
+    @Mock
+    private CompanyService companyService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final User author = new User("max");
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        author.setId(3);
+        when(userService.resolveUser("max")).thenReturn(author);
+    }
+
+    @Test
+    void testPatchInventories_byIds() {
+        // Setup
+        Company company = new Company("Acme");
+        company.setId(5);
+        when(companyService.resolveCompany("Acme")).thenReturn(company);
+        when(inventoryRepository.bulkUpdate(any(), anyList(), eq(3), any(LocalDateTime.class))).thenReturn(2);
+
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(List.of(1, 2, 2),
+                Map.of("company", "Acme", "location", "Raum 2"), "max");
+
+        // Test
+        InventoryBulkResultDTO result = bulkService.patchInventories(new InventoryFilterDTO(), request);
+
+        // Verify - doppelte IDs zählen einmal, die Firma wird als ID gesetzt und mit Namen protokolliert
+        assertEquals(2, result.getMatched());
+        assertEquals(2, result.getUpdated());
+        verify(inventoryRepository).bulkUpdate(eq(Set.of(1, 2)), argThat(changes -> changes.size() == 2
+                && changes.contains(new InventoryBulkChange(InventoryBulkChange.Field.COMPANY, 5, "Acme"))
+                && changes.contains(new InventoryBulkChange(InventoryBulkChange.Field.LOCATION, "Raum 2", "Raum 2"))),
+                eq(3), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(Set.of(1, 2)));
+        verify(inventoryService, never()).findInventoryIds(any(), anyInt());
+    }
+
+    @Test
+    void testPatchInventories_refreshesSearchColumnsWithStringParser() {
+        // Setup - das Inventar nach dem Update mit neuem Raum
+        Company company = new Company("Acme");
+        company.setId(5);
+        Inventory inventory = new Inventory(1, null, null, company, "Beamer", "SN1", new BigDecimal("10.00"),
+                "Raum 2");
+        when(inventoryRepository.bulkUpdate(any(), anyList(), eq(3), any(LocalDateTime.class))).thenReturn(1);
+        when(inventoryRepository.findWithSearchFieldsByIdIn(Set.of(1))).thenReturn(List.of(inventory));
+
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(List.of(1), Map.of("location", "Raum 2"), "max");
+
+        // Test
+        bulkService.patchInventories(new InventoryFilterDTO(), request);
+
+        // Verify - die Suchspalten werden wie beim Anlegen berechnet und gesammelt geschrieben
+        assertEquals(StringParser.fullTextSearchString(inventory), inventory.getSearchText());
+        assertEquals("Beamer Acme Raum 2", inventory.getSearchDocument());
+        verify(inventoryRepository).updateSearchColumns(List.of(inventory));
+    }
+
+    @Test
+    void testPatchInventories_nothingUpdatedKeepsSearchColumns() {
+        when(inventoryRepository.bulkUpdate(any(), anyList(), eq(3), any(LocalDateTime.class))).thenReturn(0);
+
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(List.of(1), Map.of("location", "Raum 2"), "max");
+
+        bulkService.patchInventories(new InventoryFilterDTO(), request);
+
+        // Ohne geänderte Inventare wird nichts neu berechnet
+        verify(inventoryRepository, never()).findWithSearchFieldsByIdIn(any());
+        verify(inventoryRepository, never()).updateSearchColumns(anyList());
+    }
+
+    @Test
+    void testPatchInventories_byFilter() {
+        // Setup - Aussonderung aller Inventare eines Raums
+        InventoryFilterDTO filter = InventoryFilterDTO.builder().location(List.of("Raum 1")).build();
+        when(inventoryService.findInventoryIds(eq(filter), anyInt())).thenReturn(List.of(7, 8, 9));
+        when(inventoryRepository.bulkUpdate(any(), anyList(), eq(3), any(LocalDateTime.class))).thenReturn(3);
+
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(null, Map.of("is_deinventoried", true), "max");
+
+        // Test
+        InventoryBulkResultDTO result = bulkService.patchInventories(filter, request);
+
+        // Verify
+        assertEquals(3, result.getUpdated());
+        verify(inventoryRepository).bulkUpdate(eq(Set.of(7, 8, 9)),
+                eq(List.of(new InventoryBulkChange(InventoryBulkChange.Field.IS_DEINVENTORIED, true, "true"))),
+                eq(3), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testPatchInventories_tooManyItems() {
+        // Setup - der Filter trifft mehr Inventare als erlaubt
+        InventoryFilterDTO filter = InventoryFilterDTO.builder().isDeinventoried(false).build();
+        when(inventoryService.findInventoryIds(eq(filter), anyInt()))
+                .thenAnswer(invocation -> IntStream
+                        .rangeClosed(1, invocation.getArgument(1, Integer.class)).boxed().toList());
+
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(null, Map.of("location", "Lager"), "max");
+
+        // Test & Verify
+        assertThrows(BadRequestException.class, () -> bulkService.patchInventories(filter, request));
+        verify(inventoryRepository, never()).bulkUpdate(any(), anyList(), any(), any());
+    }
+
+    @Test
+    void testPatchInventories_unsupportedField() {
+        // Einzelwerte wie die Seriennummer können nicht für mehrere Inventare gesetzt werden
+        InventoryBulkPatchDTO request = new InventoryBulkPatchDTO(List.of(1), Map.of("serial_number", "X1"), "max");
+
+        assertThrows(BadRequestException.class, () -> bulkService.patchInventories(new InventoryFilterDTO(), request));
+        verify(inventoryRepository, never()).bulkUpdate(any(), anyList(), any(), any());
+    }
+}
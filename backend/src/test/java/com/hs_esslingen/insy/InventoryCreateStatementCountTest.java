@@ -0,0 +1,210 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.hs_esslingen.insy.dto.InventoryBatchResultDTO;
+import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.mapper.InventoryMapper;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.repository.CompanyRepository;
+import com.hs_esslingen.insy.repository.CostCenterRepository;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.repository.TagRepository;
+import com.hs_esslingen.insy.repository.UserRepository;
+import com.hs_esslingen.insy.service.InventoryBatchService;
+import com.hs_esslingen.insy.service.InventoryService;
+import com.hs_esslingen.insy.utils.StringParser;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+// Compares the statements needed to create inventory items with the previous path of
+// separate statements (existence check, save, tags one by one, reading the item back)
+// and checks the batch creation of POST /inventories/batch. Timings are not asserted,
+// they depend on the machine running the tests.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class InventoryCreateStatementCountTest {
+
+    // IDs far above the seeded data so that the test only sees its own items
+    private static final int FIRST_ID = 910_000;
+    private static final int CREATES = 50;
+    private static final int TAGS = 5;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryBatchService inventoryBatchService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private CostCenterRepository costCenterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryMapper inventoryMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Integer> tagIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag("Benchmark " + i);
+            entityManager.persist(tag);
+            tagIds.add(tag.getId());
+        }
+        entityManager.persist(new Company("Benchmark Firma"));
+        entityManager.persist(new CostCenter("Benchmark Kostenstelle"));
+        entityManager.persist(new User("benchmark.user"));
+
+        // Start with an empty persistence context like a new request
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void addInventory_statementCountDoesNotDependOnTags() {
+        long oneTag = countStatements(() -> inventoryService.addInventory(request(FIRST_ID, tagIds.subList(0, 1))));
+        long allTags = countStatements(() -> inventoryService.addInventory(request(FIRST_ID + 1, tagIds)));
+
+        // Lookups of cost center, company and orderer, one query for the tags, the item and its tags
+        assertEquals(oneTag, allTags);
+        assertTrue(allTags <= 6, "Expected at most 6 statements but got " + allTags);
+    }
+
+    @Test
+    void addInventory_needsFewerStatementsThanSeparateStatements() {
+        // Warm-up of both paths, e.g. the lookups cached by Hibernate
+        createAll(FIRST_ID, this::addInventoryWithSeparateStatements);
+        createAll(FIRST_ID + CREATES, dto -> inventoryService.addInventory(dto));
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        createAll(FIRST_ID + 2 * CREATES, this::addInventoryWithSeparateStatements);
+        long separateStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        createAll(FIRST_ID + 3 * CREATES, dto -> inventoryService.addInventory(dto));
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        assertTrue(singleStatements < separateStatements,
+                "Expected fewer than " + separateStatements + " statements but got " + singleStatements);
+    }
+
+    @Test
+    void addInventories_statementCountDoesNotDependOnBatchSize() {
+        List<InventoryCreateRequestDTO> batch = new ArrayList<>();
+        for (int i = 0; i < CREATES; i++) {
+            batch.add(request(FIRST_ID + 1 + i, tagIds));
+        }
+        List<InventoryBatchResultDTO> results = new ArrayList<>();
+
+        long one = countStatements(() -> results.addAll(
+                inventoryBatchService.addInventories(List.of(request(FIRST_ID, tagIds)))));
+        long all = countStatements(() -> results.addAll(inventoryBatchService.addInventories(batch)));
+
+        // One lookup per kind for the whole request, the items and their tags are inserted with JDBC batches
+        assertEquals(one, all);
+        assertTrue(results.stream().allMatch(InventoryBatchResultDTO::isCreated));
+        assertEquals(CREATES + 1, inventoryRepository.findInventoriesIdIn(
+                results.stream().map(InventoryBatchResultDTO::getInventoriesId).toList()).size());
+    }
+
+    private long countStatements(Runnable create) {
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+        create.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Creates CREATES items with consecutive IDs, every item in a new persistence context
+    private void createAll(int firstId, Consumer<InventoryCreateRequestDTO> create) {
+        for (int i = 0; i < CREATES; i++) {
+            InventoryCreateRequestDTO dto = request(firstId + i, tagIds);
+            entityManager.clear();
+            create.accept(dto);
+            entityManager.flush();
+        }
+    }
+
+    private InventoryCreateRequestDTO request(int id, List<Integer> tags) {
+        InventoryCreateRequestDTO dto = new InventoryCreateRequestDTO();
+        dto.setInventoriesId(id);
+        dto.setDescription("Benchmark " + id);
+        dto.setSerialNumber("BM" + id);
+        dto.setPrice(new BigDecimal("10.00"));
+        dto.setLocation("Raum 1");
+        dto.setCompany("Benchmark Firma");
+        dto.setCostCenter("Benchmark Kostenstelle");
+        dto.setOrderer("benchmark.user");
+        dto.setTags(tags);
+        return dto;
+    }
+
+    // The previous creation path: existence check, lookups by name, save, one query
+    // per tag, a second save and reading the item back for the response
+    private void addInventoryWithSeparateStatements(InventoryCreateRequestDTO dto) {
+        if (inventoryRepository.existsById(dto.getInventoriesId())) {
+            throw new IllegalStateException("Inventory " + dto.getInventoriesId() + " already exists");
+        }
+        Inventory inventory = new Inventory();
+        inventory.setId(dto.getInventoriesId());
+        inventory.setCostCenter(costCenterRepository.findByName(dto.getCostCenter()).orElseThrow());
+        inventory.setCompany(companyRepository.findByName(dto.getCompany()).orElseThrow());
+        inventory.setUser(userRepository.findByName((String) dto.getOrderer()).orElseThrow());
+        inventory.setPrice(dto.getPrice());
+        inventory.setDescription(dto.getDescription());
+        inventory.setSerialNumber(dto.getSerialNumber());
+        inventory.setLocation(dto.getLocation());
+        inventory.setSearchText(StringParser.fullTextSearchString(inventory));
+        inventory.setSearchDocument(StringParser.searchDocument(inventory));
+        inventoryRepository.save(inventory);
+
+        Inventory saved = inventoryRepository.findById(dto.getInventoriesId()).orElseThrow();
+        Set<Tag> tags = dto.getTags().stream()
+                .map(tagId -> tagRepository.findById(tagId).orElseThrow())
+                .collect(Collectors.toSet());
+        saved.setTags(tags);
+        inventoryRepository.save(saved);
+
+        inventoryMapper.toDto(inventoryRepository.findById(dto.getInventoriesId()).orElseThrow());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+}
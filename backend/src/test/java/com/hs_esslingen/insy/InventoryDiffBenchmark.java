@@ -0,0 +1,120 @@
+package com.hs_esslingen.insy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.javers.core.Javers;
+import org.javers.core.JaversBuilder;
+import org.javers.core.diff.Diff;
+import org.javers.core.diff.changetype.ValueChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.History;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.utils.InventoryDiff;
+
+// Compares the history of a PATCH with InventoryDiff against the previous path
+// of two InventoryCreateRequestDTO snapshots compared by JaVers.
+// Not a test, run it with the main method from the IDE or with
+// mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.hs_esslingen.insy.InventoryDiffBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryDiffBenchmark {
+
+    // The keys of a typical patch of the frontend: two changed fields and the author
+    private static final Map<String, Object> PATCH = Map.of(
+            "location", "Raum 2",
+            "cost_center", "KST 2",
+            "user_name", "max");
+
+    private final Javers javers = JaversBuilder.javers().build();
+    private final User author = new User("max");
+    private final CostCenter oldCostCenter = new CostCenter("KST 1");
+    private final CostCenter newCostCenter = new CostCenter("KST 2");
+
+    private Inventory inventory;
+    // Switches between the values of the patch, so that every invocation changes both fields
+    private boolean patched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User orderer = new User("erika");
+        orderer.setId(3);
+        inventory = new Inventory(1, oldCostCenter, orderer, new Company("Acme"), "Laptop", "SN1",
+                new BigDecimal("999.00"), "Raum 1");
+    }
+
+    @Benchmark
+    public List<History> javers() {
+        InventoryCreateRequestDTO before = snapshot(inventory);
+        applyPatch(inventory);
+        InventoryCreateRequestDTO after = snapshot(inventory);
+
+        List<History> histories = new ArrayList<>();
+        Diff diff = javers.compare(before, after);
+        diff.getChangesByType(ValueChange.class).forEach(change -> {
+            History history = new History(author, change.getPropertyName(),
+                    change.getLeft() == null ? "null" : change.getLeft().toString(), change.getRight().toString());
+            history.setInventory(inventory);
+            histories.add(history);
+        });
+        return histories;
+    }
+
+    @Benchmark
+    public List<History> inventoryDiff() {
+        InventoryDiff diff = InventoryDiff.capture(inventory, PATCH.keySet());
+        applyPatch(inventory);
+        return diff.changes(inventory, author);
+    }
+
+    private void applyPatch(Inventory inventory) {
+        patched = !patched;
+        inventory.setLocation(patched ? "Raum 2" : "Raum 1");
+        inventory.setCostCenter(patched ? newCostCenter : oldCostCenter);
+    }
+
+    // The snapshot of the previous path
+    private static InventoryCreateRequestDTO snapshot(Inventory inventory) {
+        InventoryCreateRequestDTO dto = new InventoryCreateRequestDTO();
+        dto.setInventoriesId(inventory.getId());
+        dto.setDescription(inventory.getDescription());
+        dto.setSerialNumber(inventory.getSerialNumber());
+        dto.setPrice(inventory.getPrice());
+        dto.setLocation(inventory.getLocation());
+        dto.setCostCenter(inventory.getCostCenter() == null ? null : inventory.getCostCenter().getDescription());
+        dto.setCompany(inventory.getCompany() == null ? null : inventory.getCompany().getName());
+        dto.setOrderer(inventory.getUser() == null ? null : inventory.getUser().getId());
+        return dto;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryDiffBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
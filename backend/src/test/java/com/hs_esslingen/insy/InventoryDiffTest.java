@@ -0,0 +1,102 @@
+package com.hs_esslingen.insy;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.History;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.utils.InventoryDiff;
+
+class InventoryDiffTest {
+
+    private final User author = new User("max");
+
+    private Inventory inventory;
+
+    @BeforeEach
+    void setup() {
+        inventory = new Inventory();
+        inventory.setId(1);
+        inventory.setDescription("Laptop");
+        inventory.setLocation("Raum 1");
+        inventory.setPrice(new BigDecimal("100.00"));
+        inventory.setCostCenter(new CostCenter("KST 1"));
+    }
+
+    @Test
+    void testChanges_onlyPatchedFields() {
+        // Beschreibung und Ort werden gepatcht, die Kostenstelle ändert sich ohne Patch-Key
+        InventoryDiff diff = InventoryDiff.capture(inventory,
+                Map.of("description", "Notebook", "location", "Raum 1", "user_name", "max").keySet());
+        inventory.setDescription("Notebook");
+        inventory.setCostCenter(new CostCenter("KST 2"));
+
+        List<History> changes = diff.changes(inventory, author);
+
+        // Nur die geänderte Beschreibung wird festgehalten
+        assertEquals(1, changes.size());
+        History history = changes.get(0);
+        assertEquals("description", history.getAttributeChanged());
+        assertEquals("Laptop", history.getValueFrom());
+        assertEquals("Notebook", history.getValueTo());
+        assertSame(author, history.getAuthor());
+        assertSame(inventory, history.getInventory());
+    }
+
+    @Test
+    void testChanges_referencesAndNullValues() {
+        InventoryDiff diff = InventoryDiff.capture(inventory, Set.of("cost_center", "serial_number"));
+        inventory.setCostCenter(new CostCenter("KST 2"));
+        inventory.setSerialNumber("SN1");
+
+        List<History> changes = diff.changes(inventory, author);
+
+        // Wie bisher: Kostenstelle mit Beschreibung, fehlender Wert als "null"
+        assertEquals(2, changes.size());
+        assertEquals("serialNumber", changes.get(0).getAttributeChanged());
+        assertEquals("null", changes.get(0).getValueFrom());
+        assertEquals("costCenter", changes.get(1).getAttributeChanged());
+        assertEquals("KST 1", changes.get(1).getValueFrom());
+        assertEquals("KST 2", changes.get(1).getValueTo());
+    }
+
+    @Test
+    void testChanges_priceWithOtherScaleIsUnchanged() {
+        InventoryDiff diff = InventoryDiff.capture(inventory, Set.of("price"));
+        inventory.setPrice(new BigDecimal("100.0"));
+
+        assertTrue(diff.changes(inventory, author).isEmpty());
+    }
+
+    @Test
+    void testChanges_tags() {
+        InventoryDiff diff = InventoryDiff.capture(inventory, Set.of(InventoryDiff.TAGS));
+        inventory.setTags(new HashSet<>(List.of(tag(2, "Mobil"), tag(1, "Leihgerät"))));
+
+        List<History> changes = diff.changes(inventory, author);
+
+        // Tags werden sortiert nach Namen festgehalten
+        assertEquals(1, changes.size());
+        assertEquals("tags", changes.get(0).getAttributeChanged());
+        assertEquals("", changes.get(0).getValueFrom());
+        assertEquals("Leihgerät, Mobil", changes.get(0).getValueTo());
+    }
+
+    private static Tag tag(int id, String name) {
+        Tag tag = new Tag(name);
+        tag.setId(id);
+        return tag;
+    }
+}
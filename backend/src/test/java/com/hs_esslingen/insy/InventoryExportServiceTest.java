@@ -0,0 +1,86 @@
+package com.hs_esslingen.insy;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryCursorPageDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.exception.TooManyRequestsException;
+import com.hs_esslingen.insy.service.InventoryExportService;
+import com.hs_esslingen.insy.service.InventoryService;
+
+class InventoryExportServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private InventoryExportService exportService;
+
+    private final InventoryFilterDTO filter = new InventoryFilterDTO();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        // Höchstens zwei Exporte insgesamt und einer je Client
+        exportService = new InventoryExportService(inventoryService, new ObjectMapper(), 2, 1000, 2, 1);
+    }
+
+    @Test
+    void testExport_readsPageByPage() throws Exception {
+        InventoriesResponseDTO first = new InventoriesResponseDTO();
+        first.setId(1);
+        InventoriesResponseDTO second = new InventoriesResponseDTO();
+        second.setId(2);
+        when(inventoryService.scrollInventories(any(), eq("id"), eq("asc"), isNull(), anyInt()))
+                .thenReturn(new InventoryCursorPageDTO(List.of(first), 1, "next", true));
+        when(inventoryService.scrollInventories(any(), eq("id"), eq("asc"), eq("next"), anyInt()))
+                .thenReturn(new InventoryCursorPageDTO(List.of(second), 1, null, false));
+
+        String csv = write(exportService.exportInventories(filter, "id", "asc", "csv", "max"));
+
+        // Kopfzeile und eine Zeile je Seite
+        assertEquals(3, csv.split("\r\n").length);
+    }
+
+    @Test
+    void testExport_secondExportOfClientIsRejected() throws Exception {
+        when(inventoryService.scrollInventories(any(), any(), any(), any(), anyInt()))
+                .thenReturn(new InventoryCursorPageDTO(List.of(), 0, null, false));
+        ResponseEntity<StreamingResponseBody> running = exportService.exportInventories(filter, "id", "asc",
+                "ndjson", "max");
+
+        // Solange der Export läuft, wird ein weiterer desselben Clients abgelehnt
+        assertThrows(TooManyRequestsException.class,
+                () -> exportService.exportInventories(filter, "id", "asc", "ndjson", "max"));
+        // Andere Clients dürfen exportieren, bis die Gesamtzahl erreicht ist
+        exportService.exportInventories(filter, "id", "asc", "ndjson", "erika");
+        assertThrows(TooManyRequestsException.class,
+                () -> exportService.exportInventories(filter, "id", "asc", "ndjson", "john"));
+
+        // Nach dem Ende des Exports ist der Platz wieder frei
+        write(running);
+        exportService.exportInventories(filter, "id", "asc", "ndjson", "max");
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,126 @@
+package com.hs_esslingen.insy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hs_esslingen.insy.dto.CompanyDTO;
+import com.hs_esslingen.insy.dto.CostCenterDTO;
+import com.hs_esslingen.insy.dto.InventoryMetadataDTO;
+import com.hs_esslingen.insy.dto.LocationDTO;
+import com.hs_esslingen.insy.dto.SerialNumberDTO;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.CompanyService;
+import com.hs_esslingen.insy.service.CostCenterService;
+import com.hs_esslingen.insy.service.InventoryMetadataService;
+import com.hs_esslingen.insy.service.LocationService;
+import com.hs_esslingen.insy.service.SerialNumberService;
+
+class InventoryMetadataServiceTest {
+
+    @InjectMocks
+    private InventoryMetadataService metadataService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private SerialNumberService serialNumberService;
+
+    @Mock
+    private CompanyService companyService;
+
+    @Mock
+    private CostCenterService costCenterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(metadataService, "refreshTimeout", Duration.ofSeconds(5));
+
+        // Bestand: IDs 1 bis 10, Preise 10,50 bis 999,99
+        when(inventoryRepository.findMinId()).thenReturn(1);
+        when(inventoryRepository.findMaxId()).thenReturn(10);
+        when(inventoryRepository.findPriceBounds())
+                .thenReturn(List.<Object[]>of(new Object[] { new BigDecimal("10.50"), new BigDecimal("999.99") }));
+        when(locationService.getAllLocations()).thenReturn(new LocationDTO(Set.of("Raum 1")));
+        when(serialNumberService.getAllSerialNumbers()).thenReturn(new SerialNumberDTO(Set.of("ABC123")));
+        when(companyService.getAllCompanies()).thenReturn(new CompanyDTO(List.of("Gedankenfabrik GmbH")));
+        when(costCenterService.getAllCostCenter()).thenReturn(new CostCenterDTO(List.of("IT-Abteilung")));
+        versions(Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        metadataService.shutdown();
+    }
+
+    @Test
+    void getMetadata_combinesLookupsAndCachesPerVersion() {
+        InventoryMetadataDTO first = metadataService.getMetadata();
+        InventoryMetadataDTO second = metadataService.getMetadata();
+
+        assertEquals(1, first.getIds().getMinId());
+        assertEquals(10, first.getIds().getMaxId());
+        // Preise werden nach außen gerundet
+        assertEquals(10, first.getPrices().getMinPrice());
+        assertEquals(1000, first.getPrices().getMaxPrice());
+        assertEquals(Set.of("Raum 1"), first.getLocations());
+        assertEquals(List.of("IT-Abteilung"), first.getCostCenters());
+        // Zweiter Aufruf kommt aus dem Cache
+        assertEquals(first, second);
+        verify(locationService, times(1)).getAllLocations();
+    }
+
+    @Test
+    void getMetadata_refreshesOnlyChangedDimensions() {
+        metadataService.getMetadata();
+
+        // Nur der Preis eines Inventars wurde geändert
+        when(inventoryRepository.findPriceBounds())
+                .thenReturn(List.<Object[]>of(new Object[] { new BigDecimal("10.50"), new BigDecimal("1500.00") }));
+        versions(Map.of("prices", 2L));
+
+        InventoryMetadataDTO metadata = metadataService.getMetadata();
+
+        assertEquals(1500, metadata.getPrices().getMaxPrice());
+        assertEquals(10, metadata.getIds().getMaxId());
+        verify(inventoryRepository, times(2)).findPriceBounds();
+        verify(inventoryRepository, times(1)).findMaxId();
+        verify(locationService, times(1)).getAllLocations();
+        verify(serialNumberService, times(1)).getAllSerialNumbers();
+        verify(companyService, times(1)).getAllCompanies();
+        verify(costCenterService, times(1)).getAllCostCenter();
+    }
+
+    // Alle Dimensionen in Version 1, außer den geänderten
+    private void versions(Map<String, Long> changed) {
+        Map<String, Long> versions = new HashMap<>();
+        for (String dimension : List.of("ids", "prices", "locations", "serial_numbers", "companies",
+                "cost_centers")) {
+            versions.put(dimension, 1L);
+        }
+        versions.putAll(changed);
+        when(inventoryRepository.findMetadataVersions()).thenReturn(versions.entrySet().stream()
+                .map(entry -> new Object[] { entry.getKey(), entry.getValue() })
+                .toList());
+    }
+}
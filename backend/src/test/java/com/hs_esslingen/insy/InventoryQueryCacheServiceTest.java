@@ -0,0 +1,109 @@
+package com.hs_esslingen.insy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.service.DataVersionService;
+import com.hs_esslingen.insy.service.InventoryQueryCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryQueryCacheServiceTest {
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryQueryCacheService cacheService;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        cacheService = new InventoryQueryCacheService(dataVersionService, new SimpleMeterRegistry(),
+                transactionManager, true, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testHitOpensNoTransaction() {
+        when(dataVersionService.current()).thenReturn("1.0");
+
+        Slice<InventoriesResponseDTO> first = get();
+        Slice<InventoriesResponseDTO> second = get();
+
+        // Nur der Fehltreffer lädt, und nur dafür wird eine Transaktion geöffnet
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void testNewVersionLoadsAgain() {
+        when(dataVersionService.current()).thenReturn("1.0", "2.0");
+
+        get();
+        get();
+
+        // Nach einem Schreibvorgang (auch einer anderen Instanz) wird neu geladen
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEquivalentFiltersShareEntry() {
+        when(dataVersionService.current()).thenReturn("1.0");
+
+        get(InventoryFilterDTO.builder().company(List.of("B", "A", "B")).tags(List.of()).searchText(" Beamer ")
+                .tagMatch("ANY").build());
+        get(InventoryFilterDTO.builder().company(List.of("A", "B")).searchText("Beamer").build());
+
+        // Reihenfolge, Duplikate, leere Listen und Leerzeichen ändern das Ergebnis nicht
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testChangedFilterDtoDoesNotChangeKey() {
+        when(dataVersionService.current()).thenReturn("1.0");
+        InventoryFilterDTO filter = InventoryFilterDTO.builder().location(new ArrayList<>(List.of("Raum 1"))).build();
+
+        get(filter);
+        // Das DTO wird nach dem Aufruf verändert, der gespeicherte Schlüssel bleibt gleich
+        filter.getLocation().add("Raum 2");
+        get(InventoryFilterDTO.builder().location(List.of("Raum 1")).build());
+        get(filter);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Slice<InventoriesResponseDTO> get() {
+        return get(new InventoryFilterDTO());
+    }
+
+    private Slice<InventoriesResponseDTO> get(InventoryFilterDTO filter) {
+        return cacheService.get(filter, "id", "asc", null, null, PageRequest.of(0, 10), () -> {
+            loads.incrementAndGet();
+            return new SliceImpl<>(List.of());
+        });
+    }
+}
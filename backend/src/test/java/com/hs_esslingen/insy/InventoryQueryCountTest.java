@@ -0,0 +1,92 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
+import com.hs_esslingen.insy.model.Company;
+import com.hs_esslingen.insy.model.CostCenter;
+import com.hs_esslingen.insy.model.Inventory;
+import com.hs_esslingen.insy.model.Tag;
+import com.hs_esslingen.insy.model.User;
+import com.hs_esslingen.insy.service.InventoryService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class InventoryQueryCountTest {
+
+    // IDs far above the seeded data so that the test only sees its own items
+    private static final int FIRST_ID = 900_000;
+    private static final int ITEMS = 30;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Tag first = new Tag("Querycount 1");
+        Tag second = new Tag("Querycount 2");
+        entityManager.persist(first);
+        entityManager.persist(second);
+
+        // Every item gets its own company, cost center and orderer
+        for (int i = 0; i < ITEMS; i++) {
+            Company company = new Company("Querycount Firma " + i);
+            CostCenter costCenter = new CostCenter("Querycount Kostenstelle " + i);
+            User user = new User("querycount.user" + i);
+            entityManager.persist(company);
+            entityManager.persist(costCenter);
+            entityManager.persist(user);
+
+            Inventory inventory = new Inventory(FIRST_ID + i, costCenter, user, company, "Querycount " + i,
+                    "QC" + i, new BigDecimal("10.00"), "Raum " + i);
+            inventory.getTags().add(first);
+            inventory.getTags().add(second);
+            entityManager.persist(inventory);
+        }
+
+        // Start with an empty persistence context like a new request
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAllInventories_queryCountDoesNotDependOnPageSize() {
+        long smallPage = countQueries(5);
+        long largePage = countQueries(25);
+
+        // List query, count query and one query for the tags
+        assertEquals(smallPage, largePage);
+        assertTrue(largePage <= 3, "Expected at most 3 queries but got " + largePage);
+    }
+
+    private long countQueries(int pageSize) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        InventoryFilterDTO filter = InventoryFilterDTO.builder()
+                .minId(FIRST_ID)
+                .maxId(FIRST_ID + ITEMS - 1)
+                .build();
+        inventoryService.getAllInventories(filter, "id", "asc", null, null, PageRequest.of(0, pageSize));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,85 @@
+package com.hs_esslingen.insy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hs_esslingen.insy.event.InventoryChangedEvent;
+import com.hs_esslingen.insy.repository.InventoryRepository;
+import com.hs_esslingen.insy.service.InventorySearchIndexService;
+
+class InventorySearchIndexServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @InjectMocks
+    private InventorySearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(searchIndexService, "enabled", true);
+    }
+
+    @Test
+    void testChangeDuringBuildIsReplayed() {
+        // Während des Aufbaus wird Artikel 1 umbenannt, der Aufbau liest noch den alten Stand
+        when(inventoryRepository.findAllSearchTexts()).thenAnswer(invocation -> {
+            searchIndexService.onInventoryChanged(new InventoryChangedEvent(Set.of(1)));
+            return rows(new Object[] { 1, "bildschirm" }, new Object[] { 2, "tastatur" });
+        });
+        when(inventoryRepository.findSearchTextsByIdIn(Set.of(1)))
+                .thenReturn(rows(new Object[] { 1, "drucker" }));
+
+        searchIndexService.buildIndex();
+
+        // Der Stand des Ereignisses überschreibt den älteren Stand des Aufbaus
+        assertTrue(searchIndexService.isReady());
+        assertTrue(searchIndexService.search("drucker").get(1));
+        assertFalse(searchIndexService.search("bildschirm").get(1));
+        assertTrue(searchIndexService.search("tastatur").get(2));
+    }
+
+    @Test
+    void testDeleteDuringBuildIsReplayed() {
+        // Artikel 2 wird während des Aufbaus gelöscht
+        when(inventoryRepository.findAllSearchTexts()).thenAnswer(invocation -> {
+            searchIndexService.onInventoryChanged(new InventoryChangedEvent(Set.of(2)));
+            return rows(new Object[] { 1, "bildschirm" }, new Object[] { 2, "tastatur" });
+        });
+        when(inventoryRepository.findSearchTextsByIdIn(Set.of(2))).thenReturn(List.of());
+
+        searchIndexService.buildIndex();
+
+        assertTrue(searchIndexService.search("bildschirm").get(1));
+        assertTrue(searchIndexService.search("tastatur").isEmpty());
+    }
+
+    @Test
+    void testChangeAfterBuildIsAppliedDirectly() {
+        when(inventoryRepository.findAllSearchTexts()).thenReturn(rows(new Object[] { 1, "bildschirm" }));
+        when(inventoryRepository.findSearchTextsByIdIn(Set.of(1)))
+                .thenReturn(rows(new Object[] { 1, "drucker" }));
+
+        searchIndexService.buildIndex();
+        searchIndexService.onInventoryChanged(new InventoryChangedEvent(Set.of(1)));
+
+        assertTrue(searchIndexService.search("drucker").get(1));
+        assertFalse(searchIndexService.search("bildschirm").get(1));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -4,26 +4,40 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import com.hs_esslingen.insy.dto.InventoriesResponseDTO;
 import com.hs_esslingen.insy.dto.InventoryCreateRequestDTO;
+import com.hs_esslingen.insy.dto.InventoryCursorPageDTO;
+import com.hs_esslingen.insy.dto.InventoryFilterDTO;
 import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.exception.PreconditionFailedException;
 import com.hs_esslingen.insy.mapper.InventoryMapper;
 import com.hs_esslingen.insy.model.Company;
 import com.hs_esslingen.insy.model.CostCenter;
@@ -37,9 +51,13 @@ import com.hs_esslingen.insy.repository.TagRepository;
 import com.hs_esslingen.insy.repository.UserRepository;
 import com.hs_esslingen.insy.service.CompanyService;
 import com.hs_esslingen.insy.service.CostCenterService;
+import com.hs_esslingen.insy.service.InventoryQueryCacheService;
+import com.hs_esslingen.insy.service.InventorySearchIndexService;
 import com.hs_esslingen.insy.service.InventoryService;
+import com.hs_esslingen.insy.service.TagIndexService;
 import com.hs_esslingen.insy.service.TagService;
 import com.hs_esslingen.insy.service.UserService;
+import com.hs_esslingen.insy.utils.InventoryCursor;
 
 class InventoryServiceTest {
 
@@ -73,12 +91,28 @@ class InventoryServiceTest {
     @Mock
     private TagService tagService;
 
+    @Mock
+    private InventorySearchIndexService searchIndexService;
+
+    @Mock
+    private TagIndexService tagIndexService;
+
+    @Mock
+    private InventoryQueryCacheService queryCacheService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InventoryService inventoryService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        // Cache immer verfehlen, damit die Abfrage ausgeführt wird
+        when(queryCacheService.get(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Slice<InventoriesResponseDTO>>>getArgument(6).get());
     }
 
     @Test
@@ -86,6 +120,7 @@ class InventoryServiceTest {
         // Setup - Inventory mit ID 1
         Inventory inventory = new Inventory();
         inventory.setId(1);
+        inventory.setVersion(3L);
 
         // Mock das Verhalten des Repositories
         when(inventoryRepository.findById(1)).thenReturn(Optional.of(inventory));
@@ -100,6 +135,36 @@ class InventoryServiceTest {
         // Überprüfung
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(dto, response.getBody());
+        // Die Version wird als ETag für If-Match mitgeschickt
+        assertEquals("\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void updateInventory_whenIfMatchIsOutdated_throwsPreconditionFailed() {
+        // Setup - das Inventar wurde seit dem Lesen durch den Client geändert
+        Inventory inventory = new Inventory();
+        inventory.setId(1);
+        inventory.setVersion(4L);
+        when(inventoryRepository.findById(1)).thenReturn(Optional.of(inventory));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> inventoryService.updateInventory(1, Map.of("location", "Raum 2"), "\"3\""));
+
+        // Nichts wird überschrieben
+        verify(inventoryRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteInventory_whenIfMatchIsCurrent_deletes() {
+        Inventory inventory = new Inventory();
+        inventory.setId(1);
+        inventory.setVersion(4L);
+        when(inventoryRepository.findById(1)).thenReturn(Optional.of(inventory));
+
+        ResponseEntity<Void> response = inventoryService.deleteInventory(1, "\"4\"");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(inventoryRepository).delete(inventory);
     }
 
     @Test
@@ -117,7 +182,9 @@ class InventoryServiceTest {
         InventoryCreateRequestDTO dto = new InventoryCreateRequestDTO();
         dto.setInventoriesId(1);
 
-        when(inventoryRepository.existsById(1)).thenReturn(true);
+        // Der Primärschlüssel lehnt die doppelte ID beim Einfügen ab
+        doThrow(new DataIntegrityViolationException("duplicate key", new SQLException("duplicate key", "23505")))
+                .when(inventoryRepository).insert(any(Inventory.class));
 
         // Überprüfung, Exception wird geworfen
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -139,18 +206,11 @@ class InventoryServiceTest {
         dto.setLocation("Raum 101");
         dto.setTags(List.of(1));
 
-        when(inventoryRepository.existsById(123)).thenReturn(false);
-
         // Mock des Verhalten der Service-Klassen
         when(costCenterService.resolveCostCenter("IT")).thenReturn(new CostCenter("IT"));
         when(companyService.resolveCompany("HS-Esslingen")).thenReturn(new Company("HS-Esslingen"));
         when(ordererService.resolveUser("max.mustermann")).thenReturn(new User("max.mustermann"));
-        when(tagRepository.findById(1)).thenReturn(Optional.of(new Tag(1, "IT", Collections.emptySet())));
-
-        // Mock für das erneute Finden des Inventories nach dem Speichern
-        Inventory savedInventory = new Inventory();
-        savedInventory.setId(123);
-        when(inventoryRepository.findById(123)).thenReturn(Optional.of(savedInventory));
+        when(tagService.resolveTags(List.of(1))).thenReturn(Set.of(new Tag(1, "IT", Collections.emptySet())));
 
         InventoriesResponseDTO responseDTO = new InventoriesResponseDTO();
         when(inventoryMapper.toDto(any())).thenReturn(responseDTO);
@@ -159,7 +219,85 @@ class InventoryServiceTest {
 
         // Überprüfung
         assertEquals(responseDTO, result);
-        verify(inventoryRepository, times(1)).save(any(Inventory.class)); // Nur 1x save() erwartet
-        verify(tagService, times(1)).addTagsToInventory(eq(123), eq(List.of(1)));
+        verify(inventoryRepository, times(1)).insert(any(Inventory.class)); // Nur 1x insert() erwartet
+        // Die Antwort wird aus der neuen Entity erstellt, ohne sie erneut zu laden
+        verify(inventoryRepository, never()).findById(123);
+    }
+
+    @Test
+    void scrollInventories_whenMoreRows_returnsCursorOfLastRow() {
+        // Setup - 3 Inventories, Seitengröße 2
+        InventoriesResponseDTO first = new InventoriesResponseDTO();
+        first.setId(1);
+        first.setPrice(new BigDecimal("10.00"));
+        InventoriesResponseDTO second = new InventoriesResponseDTO();
+        second.setId(2);
+        second.setPrice(new BigDecimal("20.00"));
+        InventoriesResponseDTO third = new InventoriesResponseDTO();
+        third.setId(3);
+        third.setPrice(new BigDecimal("30.00"));
+
+        when(inventoryRepository.findListRange(any(), any(), eq(0L), eq(3))).thenReturn(List.of(first, second, third));
+
+        InventoryCursorPageDTO result = inventoryService.scrollInventories(new InventoryFilterDTO(), "price",
+                "asc", null, 2);
+
+        // Überprüfung - Cursor zeigt auf das zweite Inventory
+        assertEquals(2, result.getContent().size());
+        assertEquals(true, result.getHasNext());
+        InventoryCursor cursor = InventoryCursor.decode(result.getNextCursor());
+        assertEquals(2, cursor.id());
+        assertEquals(new BigDecimal("20.00"), cursor.typedKey());
+    }
+
+    @Test
+    void scrollInventories_whenKeysEnd_continuesWithRowsWithoutKey() {
+        // Setup - nach dem Cursor nur noch ein Inventory mit Preis, danach zwei ohne Preis
+        InventoriesResponseDTO withPrice = new InventoriesResponseDTO();
+        withPrice.setId(3);
+        withPrice.setPrice(new BigDecimal("30.00"));
+        InventoriesResponseDTO withoutPrice = new InventoriesResponseDTO();
+        withoutPrice.setId(1);
+        InventoriesResponseDTO lastWithoutPrice = new InventoriesResponseDTO();
+        lastWithoutPrice.setId(4);
+
+        when(inventoryRepository.findListRange(any(), any(), eq(0L), eq(3))).thenReturn(List.of(withPrice));
+        when(inventoryRepository.findListRange(any(), any(), eq(0L), eq(2)))
+                .thenReturn(List.of(withoutPrice, lastWithoutPrice));
+        String cursor = new InventoryCursor("price", "ASC", "20.00", 2).encode();
+
+        InventoryCursorPageDTO result = inventoryService.scrollInventories(new InventoryFilterDTO(), "price",
+                "asc", cursor, 2);
+
+        // Überprüfung - die Seite wird mit den Inventories ohne Preis aufgefüllt
+        assertEquals(List.of(withPrice, withoutPrice), result.getContent());
+        assertEquals(true, result.getHasNext());
+        InventoryCursor next = InventoryCursor.decode(result.getNextCursor());
+        assertEquals(1, next.id());
+        assertEquals(null, next.typedKey());
+    }
+
+    @Test
+    void scrollInventories_whenCursorHasOtherOrder_throwsException() {
+        String cursor = new InventoryCursor("price", "ASC", "20.00", 2).encode();
+
+        // Überprüfung, Cursor passt nicht zur Sortierung
+        assertThrows(BadRequestException.class,
+                () -> inventoryService.scrollInventories(new InventoryFilterDTO(), "description", "asc", cursor, 2));
+    }
+
+    @Test
+    void getAllInventories_whenCountModeNone_skipsCount() {
+        // Setup - 3 Inventories gefunden, Seitengröße 2
+        when(inventoryRepository.findListRange(any(), any(), eq(0L), eq(3))).thenReturn(List.of(
+                new InventoriesResponseDTO(), new InventoriesResponseDTO(), new InventoriesResponseDTO()));
+
+        Slice<InventoriesResponseDTO> result = inventoryService.getAllInventories(new InventoryFilterDTO(), "id",
+                "asc", null, "none", PageRequest.of(0, 2));
+
+        // Überprüfung - keine Count-Query, aber nächste Seite vorhanden
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(true, result.hasNext());
+        verify(inventoryRepository, never()).count(any(Specification.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.NGramIndex;
+
+class NGramIndexTest {
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NGramIndex();
+        index.put(1, "2434itabteilungmaxmustermanngedankenfabrikgmbhlaptop");
+        index.put(2, "2435marketingadminusertechsolutionsagmonitor");
+        index.put(3, "2436vertriebgastuserinnovatechltd.laptopdockingstation");
+    }
+
+    @Test
+    void search_findsAllItemsContainingTheTerm() {
+        BitSet result = index.search("laptop");
+
+        assertEquals(2, result.cardinality());
+        assertTrue(result.get(1));
+        assertTrue(result.get(3));
+    }
+
+    @Test
+    void search_verifiesTrigramCandidates() {
+        // Both trigrams of "abcd" occur in item 4, but not as one substring
+        index.put(4, "abcxbcd");
+        BitSet result = index.search("abcd");
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void search_withShortTerm_scansAllItems() {
+        BitSet result = index.search("ag");
+
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(2));
+    }
+
+    @Test
+    void put_replacesPreviousText() {
+        index.put(2, "2435marketingadminuserlaptop");
+
+        assertTrue(index.search("monitor").isEmpty());
+        assertEquals(3, index.search("laptop").cardinality());
+    }
+
+    @Test
+    void remove_removesItemFromAllPostingLists() {
+        index.remove(1);
+
+        BitSet result = index.search("laptop");
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(3));
+        assertEquals(2, index.size());
+    }
+}
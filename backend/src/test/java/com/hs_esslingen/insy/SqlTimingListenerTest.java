@@ -0,0 +1,124 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.SqlTimingListener;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+class SqlTimingListenerTest {
+
+    private record Measurement(String sql, long nanos, long rows, String parameters) {
+    }
+
+    private final List<Measurement> measurements = new ArrayList<>();
+
+    private Connection target;
+    private PreparedStatement statement;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource targetDataSource = mock(DataSource.class);
+        target = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(targetDataSource.getConnection()).thenReturn(target);
+        when(target.prepareStatement("select * from inventories where id = ?")).thenReturn(statement);
+
+        // Wie in SqlTimingConfig, mit Proxy für die Result Sets
+        dataSource = ProxyDataSourceBuilder.create(targetDataSource)
+                .proxyResultSet()
+                .listener(new SqlTimingListener((sql, origin, nanos, rows, parameterTypes, parameterCount) -> {
+                    StringBuilder parameters = new StringBuilder();
+                    for (int i = 0; i < parameterCount; i++) {
+                        parameters.append(parameterTypes[i].getSimpleName()).append(' ');
+                    }
+                    measurements.add(new Measurement(sql, nanos, rows, parameters.toString().trim()));
+                }))
+                .build();
+    }
+
+    @Test
+    void query_isReportedWithRowsOnClose() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        // Das Lesen der Zeilen dauert, zählt aber nicht zur Ausführung (die erste Ausführung lädt
+        // noch die Klassen des Proxys, daher der große Abstand)
+        when(resultSet.next()).thenAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(200);
+            return true;
+        }).thenReturn(true, false);
+
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement timed = connection.prepareStatement("select * from inventories where id = ?")) {
+            timed.setInt(1, 7);
+            timed.setNull(2, Types.VARCHAR);
+            ResultSet rows = timed.executeQuery();
+            while (rows.next()) {
+                assertTrue(measurements.isEmpty());
+            }
+            rows.close();
+        }
+
+        assertEquals(1, measurements.size());
+        Measurement measurement = measurements.get(0);
+        assertEquals("select * from inventories where id = ?", measurement.sql());
+        assertEquals(2, measurement.rows());
+        assertEquals("Integer Void", measurement.parameters());
+        assertTrue(measurement.nanos() < TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void batch_isReportedWithSumOfUpdateCounts() throws Exception {
+        when(target.prepareStatement("delete from tags where id = ?")).thenReturn(statement);
+        when(statement.executeBatch()).thenReturn(new int[] { 1, 1, PreparedStatement.SUCCESS_NO_INFO });
+
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement timed = connection.prepareStatement("delete from tags where id = ?")) {
+            timed.setString(1, "a");
+            timed.addBatch();
+            timed.executeBatch();
+        }
+
+        assertEquals(1, measurements.size());
+        assertEquals(2, measurements.get(0).rows());
+        assertEquals("String", measurements.get(0).parameters());
+    }
+
+    @Test
+    void unclosedResultSet_isReportedOnStatementClose() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement timed = connection.prepareStatement("select * from inventories where id = ?")) {
+            timed.setInt(1, 7);
+            ResultSet rows = timed.executeQuery();
+            while (rows.next()) {
+                // Zeilen lesen, das Result Set wird nicht geschlossen
+            }
+            assertTrue(measurements.isEmpty());
+        }
+
+        // Das Schließen des Statements meldet die offene Abfrage
+        assertEquals(1, measurements.size());
+        assertEquals(1, measurements.get(0).rows());
+    }
+}
@@ -0,0 +1,86 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.dto.SqlStatementStatsDTO;
+import com.hs_esslingen.insy.dto.SqlTimingsDTO;
+import com.hs_esslingen.insy.exception.BadRequestException;
+import com.hs_esslingen.insy.service.SqlTimingService;
+
+class SqlTimingServiceTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private SqlTimingService service;
+
+    @BeforeEach
+    void setUp() {
+        // Langsam ab 10 ms, Puffer für 2 Statements
+        service = new SqlTimingService(Duration.ofMillis(10), 2, 100);
+    }
+
+    @Test
+    void onStatement_aggregatesPerSql() {
+        service.onStatement("select 1", "InventoryRepository.findAll", 2 * MILLIS, 5, new Class<?>[0], 0);
+        service.onStatement("select 1", "InventoryRepository.findAll", 4 * MILLIS, 5, new Class<?>[0], 0);
+
+        SqlStatementStatsDTO stats = service.getTimings(10).getStatements().get(0);
+
+        assertEquals(2, stats.getExecutions());
+        assertEquals(6.0, stats.getTotalMs());
+        assertEquals(3.0, stats.getAverageMs());
+        assertEquals(4.0, stats.getMaxMs());
+        assertEquals(10, stats.getRows());
+        assertEquals("InventoryRepository.findAll", stats.getOrigin());
+    }
+
+    @Test
+    void onStatement_keepsOnlySlowStatementsWithParameterTypes() {
+        Class<?>[] parameters = { Integer.class, null, String.class };
+        service.onStatement("select 1", "a", 5 * MILLIS, 1, parameters, 3);
+        service.onStatement("select 2", "b", 50 * MILLIS, 1, parameters, 3);
+
+        SqlTimingsDTO timings = service.getTimings(10);
+
+        assertEquals(1, timings.getSlowQueries().size());
+        assertEquals("select 2", timings.getSlowQueries().get(0).getSql());
+        assertEquals("(Integer, NULL, String)", timings.getSlowQueries().get(0).getParameters());
+    }
+
+    @Test
+    void onStatement_overwritesOldestSlowStatement() {
+        service.onStatement("select 1", "a", 30 * MILLIS, 1, new Class<?>[0], 0);
+        service.onStatement("select 2", "a", 20 * MILLIS, 1, new Class<?>[0], 0);
+        service.onStatement("select 3", "a", 10 * MILLIS, 1, new Class<?>[0], 0);
+
+        SqlTimingsDTO timings = service.getTimings(10);
+
+        // "select 1" wurde überschrieben, der Rest ist nach Dauer sortiert
+        assertEquals(2, timings.getSlowQueries().size());
+        assertEquals("select 2", timings.getSlowQueries().get(0).getSql());
+        assertEquals("select 3", timings.getSlowQueries().get(1).getSql());
+    }
+
+    @Test
+    void reset_discardsAllTimings() {
+        service.onStatement("select 1", "a", 30 * MILLIS, 1, new Class<?>[0], 0);
+        service.reset();
+
+        SqlTimingsDTO timings = service.getTimings(10);
+
+        assertTrue(timings.getSlowQueries().isEmpty());
+        assertTrue(timings.getStatements().isEmpty());
+    }
+
+    @Test
+    void getTimings_rejectsInvalidLimit() {
+        assertThrows(BadRequestException.class, () -> service.getTimings(0));
+    }
+}
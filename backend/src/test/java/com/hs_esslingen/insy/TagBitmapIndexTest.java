@@ -0,0 +1,70 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.TagBitmapIndex;
+
+class TagBitmapIndexTest {
+
+    private TagBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagBitmapIndex();
+        index.put(1, List.of(10, 20));
+        index.put(2, List.of(10));
+        index.put(3, List.of(20, 30));
+        index.put(4, List.of());
+    }
+
+    @Test
+    void match_any_returnsItemsWithOneOfTheTags() {
+        BitSet result = index.match(List.of(10, 30), false, List.of());
+
+        assertEquals(3, result.cardinality());
+        assertTrue(result.get(1));
+        assertTrue(result.get(2));
+        assertTrue(result.get(3));
+    }
+
+    @Test
+    void match_all_returnsItemsWithAllTags() {
+        BitSet result = index.match(List.of(10, 20), true, List.of());
+
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(1));
+    }
+
+    @Test
+    void match_withExcludedTags_removesItems() {
+        // Ohne Tags im Filter werden alle Inventories berücksichtigt, auch ohne Tags
+        BitSet result = index.match(List.of(), false, List.of(20));
+
+        assertEquals(2, result.cardinality());
+        assertTrue(result.get(2));
+        assertTrue(result.get(4));
+    }
+
+    @Test
+    void put_replacesPreviousTags() {
+        index.put(2, List.of(30));
+
+        assertEquals(1, index.match(List.of(10), false, List.of()).cardinality());
+        assertEquals(2, index.match(List.of(30), false, List.of()).cardinality());
+    }
+
+    @Test
+    void remove_removesItemFromAllTags() {
+        index.remove(1);
+
+        assertTrue(index.match(List.of(10, 20), true, List.of()).isEmpty());
+        assertEquals(3, index.size());
+    }
+}
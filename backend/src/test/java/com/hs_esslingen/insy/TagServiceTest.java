@@ -12,11 +12,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.hs_esslingen.insy.dto.TagDTO;
 import com.hs_esslingen.insy.exception.BadRequestException;
@@ -26,6 +29,7 @@ import com.hs_esslingen.insy.model.Inventory;
 import com.hs_esslingen.insy.model.Tag;
 import com.hs_esslingen.insy.repository.InventoryRepository;
 import com.hs_esslingen.insy.repository.TagRepository;
+import com.hs_esslingen.insy.service.HistoryWriter;
 import com.hs_esslingen.insy.service.TagService;
 
 class TagServiceTest {
@@ -42,6 +46,12 @@ class TagServiceTest {
     @Mock
     private TagMapper tagMapper;
 
+    @Mock
+    private HistoryWriter historyWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
@@ -162,4 +172,48 @@ class TagServiceTest {
 
         assertTrue(exception.getMessage().contains("not found"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testResolveTags_SingleQuery() {
+        // Setup - Tags 1 und 2 existieren
+        Tag tag1 = new Tag(1, "Tag1", new HashSet<>());
+        Tag tag2 = new Tag(2, "Tag2", new HashSet<>());
+        when(tagRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(tag1, tag2));
+
+        // Doppelte IDs werden nur einmal abgefragt
+        Set<Tag> result = tagService.resolveTags(List.of(1, 2, 2));
+        assertEquals(Set.of(tag1, tag2), result);
+        verify(tagRepository).findAllById(Set.of(1, 2));
+    }
+
+    @Test
+    void testResolveTags_TagNotFound() {
+        // Setup - Tag mit ID 3 existiert nicht
+        when(tagRepository.findAllById(Set.of(1, 3))).thenReturn(List.of(new Tag(1, "Tag1", new HashSet<>())));
+
+        Exception exception = assertThrows(NotFoundException.class, () -> {
+            tagService.resolveTags(List.of(1, 3));
+        });
+
+        assertTrue(exception.getMessage().contains("3"));
+    }
+
+    @Test
+    void testAddTagsToInventory_WritesHistory() {
+        // Setup - Inventar mit Tag1 bekommt Tag1 und Tag2
+        Tag tag1 = new Tag(1, "Tag1", new HashSet<>());
+        Tag tag2 = new Tag(2, "Tag2", new HashSet<>());
+        Inventory inv = new Inventory();
+        inv.setId(1);
+        inv.setTags(new HashSet<>(Set.of(tag1)));
+        when(inventoryRepository.findById(1)).thenReturn(Optional.of(inv));
+        when(tagRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(tag1, tag2));
+
+        tagService.addTagsToInventory(1, List.of(1, 2));
+
+        // Die Änderung der Tags landet in der Historie
+        verify(historyWriter).submit(argThat(histories -> histories.size() == 1
+                && "Tag1".equals(histories.get(0).getValueFrom())
+                && "Tag1, Tag2".equals(histories.get(0).getValueTo())), eq("Unknown"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.TokenBucket;
+
+class TokenBucketTest {
+
+    private AtomicLong now;
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        // 100 Tokens pro Sekunde, Burst bis 100
+        bucket = new TokenBucket(100, 100, now::get);
+    }
+
+    @Test
+    void reserve_allowsBurstUpToCapacity() {
+        assertEquals(0, bucket.reserve(60));
+        assertEquals(0, bucket.reserve(40));
+    }
+
+    @Test
+    void reserve_waitsForMissingTokens() {
+        bucket.reserve(100);
+
+        // 50 fehlende Tokens bei 100 pro Sekunde = 0,5 Sekunden
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve(50));
+    }
+
+    @Test
+    void reserve_refillsOverTime() {
+        bucket.reserve(100);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertEquals(0, bucket.reserve(30));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), bucket.reserve(1));
+    }
+
+    @Test
+    void reserve_neverRefillsBeyondCapacity() {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, bucket.reserve(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), bucket.reserve(1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.hs_esslingen.insy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hs_esslingen.insy.utils.StringParser;
+import com.hs_esslingen.insy.utils.TokenIndex;
+
+class TokenIndexTest {
+
+    private TokenIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TokenIndex();
+        index.put(1, StringParser.searchTokens("2434", "Laptop Lenovo", "IT-Abteilung"));
+        index.put(2, StringParser.searchTokens("2435", "Laptoptasche", "Marketing"));
+        index.put(3, StringParser.searchTokens("2436", "Laptop Dell", "Vertrieb"));
+    }
+
+    @Test
+    void suggest_matchesPrefixOfWords() {
+        List<Integer> result = index.suggest(List.of("lapt"), 10);
+
+        assertEquals(List.of(1, 2, 3), result);
+    }
+
+    @Test
+    void suggest_ranksCompleteWordsFirst() {
+        List<Integer> result = index.suggest(List.of("laptop"), 10);
+
+        // "Laptoptasche" beginnt nur mit "laptop" und steht deshalb hinten
+        assertEquals(List.of(1, 3, 2), result);
+    }
+
+    @Test
+    void suggest_requiresAllTerms() {
+        List<Integer> result = index.suggest(List.of("laptop", "de"), 10);
+
+        assertEquals(List.of(3), result);
+    }
+
+    @Test
+    void suggest_respectsLimit() {
+        List<Integer> result = index.suggest(List.of("lap"), 2);
+
+        assertEquals(List.of(1, 2), result);
+    }
+
+    @Test
+    void remove_dropsDocumentFromIndex() {
+        index.remove(1);
+        index.put(3, StringParser.searchTokens("2436", "Monitor"));
+
+        assertEquals(List.of(2), index.suggest(List.of("laptop"), 10));
+        assertTrue(index.suggest(List.of("lenovo"), 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+}